@@ -1,7 +1,9 @@
 plugins {
     id("java")
+    `java-test-fixtures`
     checkstyle
     jacoco
+    id("me.champeau.jmh") version "0.7.2"
 
     // release
     `maven-publish`
@@ -21,6 +23,7 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     checkstyle("pl.tfij:check-tfij-style:2.0.1")
+    jmhImplementation(testFixtures(project))
 }
 
 tasks.test {
@@ -39,6 +42,18 @@ tasks.withType<Checkstyle>().configureEach {
     })
 }
 
+// benchmarks
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+// the benchmarks use internal classes, so they are compiled by every check to catch changes breaking them
+tasks.check {
+    dependsOn(tasks.named("jmhClasses"))
+}
+
 // jacoco test coverage
 tasks.test {
     finalizedBy(tasks.jacocoTestReport) // report is always generated after tests run
@@ -67,6 +82,10 @@ tasks.getByName<Javadoc>("javadoc") {
         (options as? StandardJavadocDocletOptions)?.addBooleanOption("html5", true)
     }
 }
+// the synthetic project generator is for tests and benchmarks only, not a part of the published library
+val javaComponent = components["java"] as AdhocComponentWithVariants
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
 publishing {
     publications {
         create<MavenPublication>("sonatype") {
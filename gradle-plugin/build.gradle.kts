@@ -0,0 +1,46 @@
+plugins {
+    `java-gradle-plugin`
+    checkstyle
+}
+
+group = "pl.tfij"
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":"))
+    testImplementation(platform("org.junit:junit-bom:6.1.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    checkstyle("pl.tfij:check-tfij-style:2.0.1")
+}
+
+gradlePlugin {
+    plugins {
+        create("moduleSize") {
+            id = "pl.tfij.module-size"
+            implementationClass = "pl.tfij.test.modulesize.gradle.ModuleSizePlugin"
+            displayName = "Module Size Calculator"
+            description = "Analyzes the size of the modules of each project of a build as a cacheable task."
+        }
+    }
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+checkstyle {
+    toolVersion = "13.4.2"
+    sourceSets = listOf(project.sourceSets.main.get())
+    configDirectory.set(rootProject.layout.projectDirectory.dir("config/checkstyle"))
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
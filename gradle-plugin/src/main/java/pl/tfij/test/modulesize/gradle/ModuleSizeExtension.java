@@ -0,0 +1,46 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * The {@code moduleSize} extension configuring the modules of a project.
+ * <p>
+ * The extension of each subproject takes the modules, the included extensions, the excluded patterns
+ * and the maximum relative size of the root project extension as defaults, so a multi-project build can be configured once.
+ * </p>
+ */
+public abstract class ModuleSizeExtension {
+
+    /**
+     * @return The root directory of the analyzed sources, {@code src/main/java} of the project by default.
+     */
+    public abstract DirectoryProperty getSourceDir();
+
+    /**
+     * @return The packages of the modules, as given to {@code ModuleSizeCalculatorBuilder.withModule}.
+     */
+    public abstract ListProperty<String> getModules();
+
+    /**
+     * @return The extensions of the analyzed files, all files are analyzed if empty.
+     */
+    public abstract ListProperty<String> getIncludes();
+
+    /**
+     * @return The patterns of the excluded files and directories, in the .gitignore syntax.
+     */
+    public abstract ListProperty<String> getExcludes();
+
+    /**
+     * @return The maximum relative size of each module, in the range (0, 1]. Module sizes are not verified if not set.
+     */
+    public abstract Property<Double> getMaxRelativeSize();
+
+    /**
+     * @return The Mermaid pie chart of the module sizes, {@code build/reports/module-size/module-size.mermaid} by default.
+     */
+    public abstract RegularFileProperty getReport();
+}
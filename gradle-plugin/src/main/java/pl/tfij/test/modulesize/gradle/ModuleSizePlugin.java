@@ -0,0 +1,57 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
+
+/**
+ * Registers the {@code moduleSize} task analyzing the size of the modules of the project.
+ * <p>
+ * Applied to the root project, the plugin is applied to all the subprojects too. The task of each project submits
+ * its analysis to the Worker API, so the projects of a multi-project build are analyzed in parallel.
+ * The task is cacheable: its inputs are the analyzed sources and the module configuration, its output is the report,
+ * so it is up to date, or taken from the build cache, until any of them changes.
+ * </p>
+ */
+public class ModuleSizePlugin implements Plugin<Project> {
+    /**
+     * The name of the registered task and extension.
+     */
+    public static final String NAME = "moduleSize";
+
+    @Override
+    public void apply(Project project) {
+        ModuleSizeExtension extension = project.getExtensions().create(NAME, ModuleSizeExtension.class);
+        extension.getSourceDir().convention(project.getLayout().getProjectDirectory().dir("src/main/java"));
+        extension.getReport().convention(project.getLayout().getBuildDirectory().file("reports/module-size/module-size.mermaid"));
+        project.getTasks().register(NAME, ModuleSizeTask.class, task -> configure(task, extension));
+        project.getPlugins().withType(LifecycleBasePlugin.class, it -> project.getTasks()
+                .named(LifecycleBasePlugin.CHECK_TASK_NAME)
+                .configure(check -> check.dependsOn(NAME)));
+        if (project == project.getRootProject()) {
+            project.subprojects(subproject -> applyToSubproject(subproject, extension));
+        }
+    }
+
+    private static void configure(ModuleSizeTask task, ModuleSizeExtension extension) {
+        task.setGroup(LifecycleBasePlugin.VERIFICATION_GROUP);
+        task.setDescription("Analyzes the size of the modules of the project.");
+        task.getSourceDir().set(extension.getSourceDir());
+        task.getSources().from(extension.getSourceDir().map(Directory::getAsFileTree));
+        task.getModules().set(extension.getModules());
+        task.getIncludes().set(extension.getIncludes());
+        task.getExcludes().set(extension.getExcludes());
+        task.getMaxRelativeSize().set(extension.getMaxRelativeSize());
+        task.getReport().set(extension.getReport());
+    }
+
+    private static void applyToSubproject(Project subproject, ModuleSizeExtension rootExtension) {
+        subproject.getPluginManager().apply(ModuleSizePlugin.class);
+        ModuleSizeExtension extension = subproject.getExtensions().getByType(ModuleSizeExtension.class);
+        extension.getModules().convention(rootExtension.getModules());
+        extension.getIncludes().convention(rootExtension.getIncludes());
+        extension.getExcludes().convention(rootExtension.getExcludes());
+        extension.getMaxRelativeSize().convention(rootExtension.getMaxRelativeSize());
+    }
+}
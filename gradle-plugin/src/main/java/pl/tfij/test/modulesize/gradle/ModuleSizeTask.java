@@ -0,0 +1,105 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+
+/**
+ * Analyzes the size of the modules of a project and saves the report.
+ * <p>
+ * All the files of the source directory are the inputs, also the ones skipped by the included extensions or excluded patterns,
+ * so the task is never up to date with outdated sources. The paths of the sources are relative to the source directory,
+ * so the task output is reused from the build cache by a build in another directory. The task has no sources,
+ * and is skipped, if the source directory does not exist, e.g. in an aggregating root project.
+ * </p>
+ * <p>
+ * The analysis runs in a worker, so the tasks of many projects are analyzed in parallel.
+ * </p>
+ */
+@CacheableTask
+public abstract class ModuleSizeTask extends DefaultTask {
+
+    /**
+     * @return The root directory of the analyzed sources.
+     */
+    @Internal
+    public abstract DirectoryProperty getSourceDir();
+
+    /**
+     * @return The files of the source directory.
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * @return The packages of the modules.
+     */
+    @Input
+    public abstract ListProperty<String> getModules();
+
+    /**
+     * @return The extensions of the analyzed files, all files are analyzed if empty.
+     */
+    @Input
+    public abstract ListProperty<String> getIncludes();
+
+    /**
+     * @return The patterns of the excluded files and directories, in the .gitignore syntax.
+     */
+    @Input
+    public abstract ListProperty<String> getExcludes();
+
+    /**
+     * @return The maximum relative size of each module. Module sizes are not verified if not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<Double> getMaxRelativeSize();
+
+    /**
+     * @return The Mermaid pie chart of the module sizes.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    /**
+     * @return The executor of the analysis, injected by Gradle.
+     */
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Submits the analysis of the project to a worker.
+     */
+    @TaskAction
+    public void analyze() {
+        getWorkerExecutor().noIsolation().submit(ModuleSizeWorkAction.class, parameters -> {
+            parameters.getSourceDir().set(getSourceDir());
+            parameters.getModules().set(getModules());
+            parameters.getIncludes().set(getIncludes());
+            parameters.getExcludes().set(getExcludes());
+            parameters.getMaxRelativeSize().set(getMaxRelativeSize());
+            parameters.getReport().set(getReport());
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.VerificationException;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import pl.tfij.test.modulesize.ModuleSizeCalculator;
+import pl.tfij.test.modulesize.ProjectSummary;
+
+/**
+ * Analyzes a project submitted by the {@link ModuleSizeTask}. The report is saved before the module sizes are verified,
+ * so it shows the sizes also when the verification fails.
+ */
+public abstract class ModuleSizeWorkAction implements WorkAction<ModuleSizeWorkAction.Parameters> {
+
+    @Override
+    public void execute() {
+        Parameters parameters = getParameters();
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder builder = ModuleSizeCalculator.project(parameters.getSourceDir().get().getAsFile().getPath())
+                .include(parameters.getIncludes().get().toArray(String[]::new))
+                .exclude(parameters.getExcludes().get().toArray(String[]::new));
+        parameters.getModules().get().forEach(builder::withModule);
+        ProjectSummary summary = builder.analyze().saveMermaidPieChart(parameters.getReport().get().getAsFile().toPath());
+        if (parameters.getMaxRelativeSize().isPresent()) {
+            verify(summary, parameters.getMaxRelativeSize().get());
+        }
+    }
+
+    private static void verify(ProjectSummary summary, double maxRelativeSize) {
+        try {
+            summary.verifyEachModuleRelativeSizeIsSmallerThan(maxRelativeSize);
+        } catch (AssertionError error) {
+            throw new VerificationException(error.getMessage());
+        }
+    }
+
+    /**
+     * The configuration of the analyzed project, see {@link ModuleSizeTask}.
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * @return The root directory of the analyzed sources.
+         */
+        DirectoryProperty getSourceDir();
+
+        /**
+         * @return The packages of the modules.
+         */
+        ListProperty<String> getModules();
+
+        /**
+         * @return The extensions of the analyzed files.
+         */
+        ListProperty<String> getIncludes();
+
+        /**
+         * @return The patterns of the excluded files and directories.
+         */
+        ListProperty<String> getExcludes();
+
+        /**
+         * @return The maximum relative size of each module.
+         */
+        Property<Double> getMaxRelativeSize();
+
+        /**
+         * @return The report file.
+         */
+        RegularFileProperty getReport();
+    }
+}
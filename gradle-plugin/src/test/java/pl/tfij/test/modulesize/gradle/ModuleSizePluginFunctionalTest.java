@@ -0,0 +1,85 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class ModuleSizePluginFunctionalTest {
+
+    @Test
+    @DisplayName("Should analyze each subproject once and then reuse the report when up to date or from the build cache")
+    void shouldReuseReportOfUnchangedSubprojects(@TempDir Path build) throws IOException {
+        Files.writeString(build.resolve("settings.gradle"), """
+                rootProject.name = 'shop'
+                include 'orders', 'users'
+                buildCache {
+                    local {
+                        directory = new File(rootDir, 'build-cache')
+                    }
+                }
+                """);
+        Files.writeString(build.resolve("build.gradle"), """
+                plugins {
+                    id 'base'
+                    id 'pl.tfij.module-size'
+                }
+                subprojects {
+                    apply plugin: 'base'
+                }
+                moduleSize {
+                    modules = ['com.example.orders', 'com.example.orders.api']
+                    includes = ['java']
+                }
+                """);
+        write(build.resolve("orders/src/main/java/com/example/orders/Order.java"), "class Order {\n}\n");
+        write(build.resolve("orders/src/main/java/com/example/orders/api/OrderApi.java"), "interface OrderApi {\n\n}\n");
+        write(build.resolve("users/src/main/java/com/example/users/User.java"), "class User {\n}\n");
+
+        BuildResult first = run(build, "moduleSize", "--build-cache");
+        BuildResult second = run(build, "moduleSize", "--build-cache");
+        run(build, "clean");
+        BuildResult afterClean = run(build, "moduleSize", "--build-cache");
+
+        assertOutcome(TaskOutcome.SUCCESS, first);
+        assertOutcome(TaskOutcome.UP_TO_DATE, second);
+        assertOutcome(TaskOutcome.FROM_CACHE, afterClean);
+        Assertions.assertEquals("""
+                pie showData title Modules size (Total LOC: 5)
+                    "com.example.orders" : 2
+                    "com.example.orders.api" : 3""", Files.readString(report(build, "orders")));
+        Assertions.assertEquals("""
+                pie showData title Modules size (Total LOC: 2)
+                    "undefined" : 2""", Files.readString(report(build, "users")));
+    }
+
+    private static BuildResult run(Path build, String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(build.toFile())
+                .withPluginClasspath()
+                .withArguments(arguments)
+                .build();
+    }
+
+    private static void assertOutcome(TaskOutcome outcome, BuildResult result) {
+        Assertions.assertEquals(outcome, result.task(":orders:moduleSize").getOutcome());
+        Assertions.assertEquals(outcome, result.task(":users:moduleSize").getOutcome());
+        Assertions.assertEquals(TaskOutcome.NO_SOURCE, result.task(":moduleSize").getOutcome());
+    }
+
+    private static Path report(Path build, String project) {
+        return build.resolve(project).resolve("build/reports/module-size/module-size.mermaid");
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,57 @@
+package pl.tfij.test.modulesize.gradle;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+class ModuleSizePluginTest {
+
+    @Test
+    @DisplayName("Should register moduleSize task with the sources and configuration of the project as inputs")
+    void shouldRegisterTaskWithInputs() throws IOException {
+        Project project = ProjectBuilder.builder().withProjectDir(Files.createTempDirectory("project").toFile()).build();
+        Path source = write(project.getProjectDir().toPath().resolve("src/main/java/com/example/orders/Order.java"));
+
+        project.getPluginManager().apply(ModuleSizePlugin.class);
+        project.getExtensions().getByType(ModuleSizeExtension.class).getModules().add("com.example.orders");
+        project.getExtensions().getByType(ModuleSizeExtension.class).getIncludes().add("java");
+        ModuleSizeTask task = (ModuleSizeTask) project.getTasks().getByName(ModuleSizePlugin.NAME);
+
+        Assertions.assertEquals(Set.of(source.toFile()), task.getSources().getFiles());
+        Assertions.assertEquals(List.of("com.example.orders"), task.getModules().get());
+        Assertions.assertEquals(List.of("java"), task.getIncludes().get());
+        Assertions.assertFalse(task.getMaxRelativeSize().isPresent());
+        Assertions.assertEquals(
+                project.getLayout().getBuildDirectory().file("reports/module-size/module-size.mermaid").get().getAsFile(),
+                task.getReport().get().getAsFile());
+    }
+
+    @Test
+    @DisplayName("Should apply the plugin to subprojects with the configuration of the root project as defaults")
+    void shouldApplyPluginToSubprojects() throws IOException {
+        Project root = ProjectBuilder.builder().withProjectDir(Files.createTempDirectory("project").toFile()).build();
+        Project orders = ProjectBuilder.builder().withName("orders").withParent(root).build();
+        Project users = ProjectBuilder.builder().withName("users").withParent(root).build();
+
+        root.getPluginManager().apply(ModuleSizePlugin.class);
+        root.getExtensions().getByType(ModuleSizeExtension.class).getMaxRelativeSize().set(0.5);
+        users.getExtensions().getByType(ModuleSizeExtension.class).getMaxRelativeSize().set(0.3);
+
+        Assertions.assertEquals(0.5, ((ModuleSizeTask) orders.getTasks().getByName(ModuleSizePlugin.NAME)).getMaxRelativeSize().get());
+        Assertions.assertEquals(0.3, ((ModuleSizeTask) users.getTasks().getByName(ModuleSizePlugin.NAME)).getMaxRelativeSize().get());
+        Assertions.assertTrue(((ModuleSizeTask) root.getTasks().getByName(ModuleSizePlugin.NAME)).getSources().isEmpty());
+    }
+
+    private static Path write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, "class Order {\n}\n");
+    }
+}
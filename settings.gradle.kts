@@ -3,3 +3,4 @@ plugins {
 }
 
 rootProject.name = "ModuleSizeCalculator"
+include("gradle-plugin")
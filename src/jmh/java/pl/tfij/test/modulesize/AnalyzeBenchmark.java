@@ -0,0 +1,64 @@
+package pl.tfij.test.modulesize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code analyze()} of generated projects. The files stay in the page cache after the warmup,
+ * so the benchmark measures the traversal, counting and aggregation rather than the disk.
+ * The result is checked against the sizes expected by the generator before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalyzeBenchmark {
+    private static final long SEED = 20_240_101L;
+    private static final int NUMBER_OF_MODULES = 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int numberOfFiles;
+
+    @Param({"1", "8"})
+    private int parallelism;
+
+    private SyntheticProject project;
+
+    @Setup
+    public void generateProject() {
+        project = SyntheticProject.generator(SEED)
+                .modules(NUMBER_OF_MODULES)
+                .files(numberOfFiles)
+                .lineEndings(SyntheticProject.LineEnding.LF, SyntheticProject.LineEnding.CRLF)
+                .generate();
+        if (analyze().linesOfCode() != project.expectedTotal().linesOfCode()) {
+            throw new IllegalStateException("Unexpected result of the analysis of the generated project.");
+        }
+    }
+
+    @TearDown
+    public void deleteProject() {
+        project.delete();
+    }
+
+    @Benchmark
+    public ProjectSummary analyze() {
+        return project.calculator()
+                .parallel(parallelism)
+                .analyze();
+    }
+}
@@ -0,0 +1,90 @@
+package pl.tfij.test.modulesize;
+
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the Flight Recorder events. With the recording disabled, counting lines wrapped in a
+ * {@link FileReadEvent} the way the scanner does it should match plain counting, both in time and allocation,
+ * and so should the whole analysis with and without a recording of the events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlightRecorderBenchmark {
+    private static final long SEED = 13;
+    private static final int NUMBER_OF_FILES = 2000;
+
+    @Param({"false", "true"})
+    private boolean recording;
+
+    private Path file;
+    private SyntheticProject project;
+    private Recording eventsRecording;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("module-size-benchmark", ".java");
+        Files.writeString(file, "    int field;\n".repeat(100));
+        project = SyntheticProject.generator(SEED)
+                .files(NUMBER_OF_FILES)
+                .generate();
+        if (recording) {
+            eventsRecording = new Recording();
+            eventsRecording.enable(AnalysisEvent.class);
+            eventsRecording.enable(DirectoryVisitEvent.class);
+            eventsRecording.enable(FileReadEvent.class);
+            eventsRecording.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (eventsRecording != null) {
+            eventsRecording.close();
+        }
+        project.delete();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public int countLines() throws IOException {
+        return LineCounter.countLines(file);
+    }
+
+    @Benchmark
+    public int countLinesInEvent() throws IOException {
+        FileReadEvent event = new FileReadEvent();
+        event.begin();
+        int linesOfCode = LineCounter.countLines(file);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(file, "benchmark", 0, linesOfCode);
+        }
+        return linesOfCode;
+    }
+
+    @Benchmark
+    public ProjectSummary analyze() {
+        return project.calculator().analyze();
+    }
+}
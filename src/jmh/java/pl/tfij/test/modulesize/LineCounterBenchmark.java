@@ -0,0 +1,77 @@
+package pl.tfij.test.modulesize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting lines of a single file, compared with the former {@link BufferedReader} based implementation
+ * and with classifying the lines as code, comment and blank lines in the same pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LineCounterBenchmark {
+    private static final Map<String, String> LINE_ENDINGS = Map.of("LF", "\n", "CRLF", "\r\n", "CR", "\r");
+
+    @Param({"1024", "65536", "4194304"})
+    private int fileSize;
+
+    @Param({"LF", "CRLF", "CR"})
+    private String lineEnding;
+
+    private Path file;
+
+    @Setup
+    public void createFile() throws IOException {
+        String line = "    private final String field = \"value\";" + LINE_ENDINGS.get(lineEnding);
+        file = Files.createTempFile("module-size-benchmark", ".java");
+        Files.writeString(file, line.repeat(fileSize / line.length() + 1).substring(0, fileSize));
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public int countLines() throws IOException {
+        return LineCounter.countLines(file);
+    }
+
+    @Benchmark
+    public int classifyLines() throws IOException {
+        return LineClassifier.classify(file).codeLines();
+    }
+
+    @Benchmark
+    public int countLinesWithBufferedReader() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lines = 0;
+            while (reader.readLine() != null) {
+                lines++;
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pl.tfij.test.modulesize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Matching files to modules. A fresh matcher resolves every directory once, a warm one only reads its memo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModuleMatcherBenchmark {
+    private static final int NUMBER_OF_FILES = 10_000;
+    private static final int DIRECTORIES_PER_MODULE = 4;
+
+    @Param({"10", "100", "1000"})
+    private int numberOfModules;
+
+    private List<Module> modules;
+    private List<Path> files;
+    private ModuleMatcher warmMatcher;
+
+    @Setup
+    public void createModules() {
+        modules = IntStream.range(0, numberOfModules)
+                .mapToObj(it -> (Module) new Module.DefinedModule("pl.tfij.module" + it, Path.of("src/pl/tfij/module" + it)))
+                .toList();
+        files = IntStream.range(0, NUMBER_OF_FILES)
+                .mapToObj(it -> Path.of("src/pl/tfij/module" + it % numberOfModules, "package" + it % DIRECTORIES_PER_MODULE, "File" + it + ".java"))
+                .toList();
+        warmMatcher = new ModuleMatcher(modules);
+        files.forEach(warmMatcher::match);
+    }
+
+    @Benchmark
+    public void matchWithFreshMatcher(Blackhole blackhole) {
+        ModuleMatcher matcher = new ModuleMatcher(modules);
+        for (Path file : files) {
+            blackhole.consume(matcher.match(file));
+        }
+    }
+
+    @Benchmark
+    public void matchWithWarmMatcher(Blackhole blackhole) {
+        for (Path file : files) {
+            blackhole.consume(warmMatcher.match(file));
+        }
+    }
+}
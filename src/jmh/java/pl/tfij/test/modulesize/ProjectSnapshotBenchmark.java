@@ -0,0 +1,71 @@
+package pl.tfij.test.modulesize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a snapshot with the given number of file entries and looking up a single file in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectSnapshotBenchmark {
+    private static final int FILES_PER_DIRECTORY = 50;
+
+    @Param({"10000", "1000000"})
+    private int numberOfFiles;
+
+    private Path snapshotFile;
+    private ProjectSnapshot snapshot;
+    private String file;
+
+    @Setup
+    public void saveSnapshot() throws IOException {
+        Map<String, Integer> files = new HashMap<>();
+        for (int i = 0; i < numberOfFiles; i++) {
+            files.put("src/main/java/com/example/module%s/File%s.java".formatted(i / FILES_PER_DIRECTORY, i), i % 1000);
+        }
+        file = "src/main/java/com/example/module%s/File%s.java".formatted(numberOfFiles / 3 / FILES_PER_DIRECTORY, numberOfFiles / 3);
+        snapshotFile = Files.createTempFile("module-size", ".snapshot");
+        new ProjectSummary(List.of(), Map.of(), false, Optional.of(files), ScanMetrics.EMPTY).saveSnapshot(snapshotFile);
+        snapshot = ProjectSnapshot.load(snapshotFile);
+    }
+
+    @TearDown
+    public void deleteSnapshot() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public ProjectSnapshot load() {
+        return ProjectSnapshot.load(snapshotFile);
+    }
+
+    @Benchmark
+    public OptionalInt fileLinesOfCode() {
+        return snapshot.fileLinesOfCode(file);
+    }
+}
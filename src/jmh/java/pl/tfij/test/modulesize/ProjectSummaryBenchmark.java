@@ -0,0 +1,74 @@
+package pl.tfij.test.modulesize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering and querying an analyzed project with the given number of modules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectSummaryBenchmark {
+    private static final int FILES_PER_MODULE = 20;
+
+    @Param({"10", "100", "1000"})
+    private int numberOfModules;
+
+    private ProjectSummary projectSummary;
+
+    @Setup
+    public void analyzeProject() {
+        SyntheticProject project = SyntheticProject.generator(numberOfModules)
+                .modules(numberOfModules)
+                .packageDepth(1)
+                .files(numberOfModules * FILES_PER_MODULE)
+                .generate();
+        try {
+            projectSummary = project.calculator().analyze();
+        } finally {
+            project.delete();
+        }
+    }
+
+    @Benchmark
+    public String createMermaidPieChart() {
+        return projectSummary.createMermaidPieChart();
+    }
+
+    @Benchmark
+    public void reportAllFormats() {
+        SummaryReporter.report(
+                projectSummary,
+                ReportFormat.MERMAID.reporter(OutputStream.nullOutputStream()),
+                ReportFormat.CSV.reporter(OutputStream.nullOutputStream()),
+                ReportFormat.JSON.reporter(OutputStream.nullOutputStream()),
+                ReportFormat.NDJSON.reporter(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public List<ProjectSummary.ModuleSummary> modulesSummary() {
+        return projectSummary.modulesSummary();
+    }
+
+    @Benchmark
+    public ProjectSummary verifyEachModuleRelativeSizeIsSmallerThan() {
+        return projectSummary.verifyEachModuleRelativeSizeIsSmallerThan(1.0);
+    }
+}
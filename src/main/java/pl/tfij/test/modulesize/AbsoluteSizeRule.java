@@ -0,0 +1,35 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The number of lines of a module, of the given kind, must not exceed a limit.
+ */
+final class AbsoluteSizeRule implements ModuleRule {
+    private final long maxLines;
+    private final LineMetric metric;
+
+    AbsoluteSizeRule(long maxLines, LineMetric metric) {
+        if (maxLines < 0) {
+            throw new IllegalArgumentException("maxLines must be positive number or zero. Given value is %s.".formatted(maxLines));
+        }
+        this.maxLines = maxLines;
+        this.metric = metric;
+    }
+
+    @Override
+    public Optional<String> violation(ModulePartialSummary summary) {
+        long lines = summary.moduleLines().get(metric);
+        if (lines <= maxLines) {
+            return Optional.empty();
+        }
+        return Optional.of("Module `%s` has %s %s. Max allowed number is %s."
+                .formatted(summary.module().name(), lines, metric.name().toLowerCase(Locale.ROOT).replace('_', ' '), maxLines));
+    }
+
+    @Override
+    public LineMetric metric() {
+        return metric;
+    }
+}
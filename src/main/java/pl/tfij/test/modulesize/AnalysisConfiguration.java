@@ -0,0 +1,90 @@
+package pl.tfij.test.modulesize;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * What to analyze: the project root directory, the defined modules and the files to include.
+ *
+ * @param rootDir the root directory of the project
+ * @param moduleMatcher the matcher of the defined modules
+ * @param includeOnlyFilesWithExtension accept all if empty. To include file without extension the collection should contains empty string
+ * @param treeFilter the excluded and ignored directories and files
+ * @param fileDetails whether the number of lines of each file is kept
+ * @param classifyLines whether the lines are classified as code, comment and blank lines
+ * @param readArchives whether the files packed in the archives found in the project are read, an archive root is read anyway
+ */
+record AnalysisConfiguration(
+        Path rootDir,
+        ModuleMatcher moduleMatcher,
+        Set<String> includeOnlyFilesWithExtension,
+        ProjectTreeFilter treeFilter,
+        boolean fileDetails,
+        boolean classifyLines,
+        boolean readArchives) {
+
+    boolean includes(Path file) {
+        if (includeOnlyFilesWithExtension.isEmpty()) {
+            return true;
+        }
+        return includeOnlyFilesWithExtension.contains(getFileExtension(file));
+    }
+
+    private static String getFileExtension(Path path) {
+        String fileName = path.getFileName().toString();
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex == -1 || dotIndex == fileName.length() - 1) {
+            return "";
+        }
+        return fileName.substring(dotIndex + 1);
+    }
+
+    /**
+     * @param file the visited file
+     * @return whether the files packed in the file are read instead of the file itself
+     */
+    boolean readsArchive(Path file) {
+        return Archives.isArchive(file) && (readArchives || file.equals(rootDir));
+    }
+
+    boolean readsArchives() {
+        return readArchives || Files.isRegularFile(rootDir) && Archives.isArchive(rootDir);
+    }
+
+    /**
+     * @param analysis the analysis re-counting single files, e.g. the incremental analysis
+     * @return this configuration
+     * @throws IllegalStateException if the lines are classified or the archives are read, as the number of lines of each kind
+     *                               is not kept per file and a single file packed in an archive cannot be re-counted
+     */
+    AnalysisConfiguration verifySingleFilesRecountable(String analysis) {
+        if (classifyLines) {
+            throw new IllegalStateException("Classified lines are not supported by %s.".formatted(analysis));
+        }
+        if (readsArchives()) {
+            throw new IllegalStateException("Archives are not supported by %s.".formatted(analysis));
+        }
+        return this;
+    }
+
+    int matchModule(Path file) {
+        return moduleMatcher.match(file);
+    }
+
+    /**
+     * @return the path of the file relative to the project root directory, with {@code /} as a separator.
+     */
+    String relativePath(Path file) {
+        return rootDir.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    Path resolve(String relativePath) {
+        return rootDir.resolve(relativePath);
+    }
+
+    AnalysisConfiguration withFileDetails() {
+        return new AnalysisConfiguration(rootDir, moduleMatcher, includeOnlyFilesWithExtension, treeFilter, true, classifyLines, readArchives);
+    }
+}
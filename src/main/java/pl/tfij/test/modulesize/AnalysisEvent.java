@@ -0,0 +1,48 @@
+package pl.tfij.test.modulesize;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a whole analysis, from the start of the scan to the summaries.
+ */
+@Name("pl.tfij.modulesize.Analysis")
+@Label("Module Size Analysis")
+@Category("Module Size Calculator")
+@Description("Analysis of a project, with the totals of its first configuration")
+final class AnalysisEvent extends Event {
+    @Label("Root Directory")
+    private String rootDir;
+
+    @Label("Configurations")
+    private int configurations;
+
+    @Label("Modules")
+    private int modules;
+
+    @Label("Files")
+    private long files;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Lines of Code")
+    private long linesOfCode;
+
+    void commit(String analyzedRootDir, int numberOfConfigurations, ProjectSummary summary) {
+        if (shouldCommit()) {
+            rootDir = analyzedRootDir;
+            configurations = numberOfConfigurations;
+            modules = summary.modulesSummary().size();
+            files = summary.totalNumberOfFiles();
+            bytes = summary.scanMetrics().includedBytes();
+            linesOfCode = summary.totalLinesOfCode();
+            commit();
+        }
+    }
+}
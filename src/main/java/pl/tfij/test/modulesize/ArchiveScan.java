@@ -0,0 +1,101 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Counts the files packed in an archive found by the scan, for the configurations reading archives, see {@link Archives}.
+ * <p>
+ * An archive is opened only if a configuration reads it, does not ignore it and may include a file packed in it.
+ * The packed files are added to the aggregates once the whole archive is read, so an archive that cannot be read,
+ * e.g. a {@code .gz} file that is not gzip, adds nothing and is counted as a plain file instead.
+ * </p>
+ */
+final class ArchiveScan {
+    private final List<AnalysisConfiguration> configurations;
+    private final boolean classifyLines;
+
+    ArchiveScan(List<AnalysisConfiguration> configurations, boolean classifyLines) {
+        this.configurations = configurations;
+        this.classifyLines = classifyLines;
+    }
+
+    /**
+     * @param worker the worker of the visited archive
+     * @param archive the visited archive
+     * @param size the size of the archive in bytes
+     * @param filter the filter of the tree
+     * @param rules the ignore rules of the directory of the archive
+     * @return the configurations the packed files were counted for, the other configurations count the archive as a plain file
+     */
+    BitSet visit(ScanWorker worker, Path archive, long size, CombinedTreeFilter filter, IgnoreRules[] rules) {
+        BitSet readers = readers(archive, filter, rules);
+        if (readers.isEmpty()) {
+            return readers;
+        }
+        long start = System.nanoTime();
+        Optional<List<PackedFile>> packedFiles = read(worker, archive, readers);
+        if (packedFiles.isEmpty()) {
+            return new BitSet();
+        }
+        worker.metrics().fileRead(archive, size, System.nanoTime() - start);
+        for (PackedFile packedFile : packedFiles.get()) {
+            worker.classified(packedFile);
+            packedFile.included().stream()
+                    .forEach(i -> worker.add(worker.accumulators().get(i), configurations.get(i), packedFile.file(), packedFile.lines()));
+        }
+        return readers;
+    }
+
+    // the ignore rules apply to the archive as a whole, its packed files are only filtered by their extensions
+    private BitSet readers(Path archive, CombinedTreeFilter filter, IgnoreRules[] rules) {
+        BitSet readers = new BitSet(configurations.size());
+        for (int i = 0; i < configurations.size(); i++) {
+            AnalysisConfiguration configuration = configurations.get(i);
+            if (configuration.readsArchive(archive) && !filter.isIgnoredFile(i, archive, rules) && Archives.mayInclude(archive, configuration::includes)) {
+                readers.set(i);
+            }
+        }
+        return readers;
+    }
+
+    private Optional<List<PackedFile>> read(ScanWorker worker, Path archive, BitSet readers) {
+        List<PackedFile> packedFiles = new ArrayList<>();
+        try {
+            Archives.read(archive, (file, content) -> {
+                worker.lap(ScanMetricsRecorder.Phase.FILTER);
+                BitSet included = included(file, readers);
+                if (!included.isEmpty()) {
+                    packedFiles.add(count(file, included, content));
+                    worker.lap(ScanMetricsRecorder.Phase.COUNT);
+                }
+            });
+            return Optional.of(packedFiles);
+        } catch (IOException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private BitSet included(Path file, BitSet readers) {
+        BitSet included = new BitSet(configurations.size());
+        readers.stream().filter(i -> configurations.get(i).includes(file)).forEach(included::set);
+        return included;
+    }
+
+    // the lines are copied out of the classifier pooled by the thread before it reads the next packed file
+    private PackedFile count(Path file, BitSet included, InputStream content) throws IOException {
+        if (classifyLines) {
+            LineClassifier classified = LineClassifier.classify(content);
+            return new PackedFile(file, included, classified.lines(), classified.codeLines(), classified.commentLines(), classified.blankLines());
+        }
+        return new PackedFile(file, included, LineCounter.countLines(content), 0, 0, 0);
+    }
+
+    private record PackedFile(Path file, BitSet included, int lines, int codeLines, int commentLines, int blankLines) implements FileLines {
+    }
+}
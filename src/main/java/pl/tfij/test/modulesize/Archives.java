@@ -0,0 +1,130 @@
+package pl.tfij.test.modulesize;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams the files packed in zip, jar and gzip archives without extracting them.
+ * <p>
+ * An archive is read like a directory named after the archive: the entry {@code pl/tfij/A.java} of {@code libs/app-sources.jar}
+ * is the file {@code libs/app-sources.jar/pl/tfij/A.java}. A gzip file is the file named without the {@code .gz} extension,
+ * e.g. {@code A.java.gz} is {@code A.java}. An archive nested in another one is streamed from the inflated content
+ * of the outer archive, so nothing is written to the disk at any level.
+ * </p>
+ */
+final class Archives {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private Archives() {
+    }
+
+    static boolean isArchive(Path file) {
+        return isArchive(file.getFileName().toString());
+    }
+
+    private static boolean isArchive(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".jar") || name.endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * @param archive the zip, jar or gzip file
+     * @param includes whether a packed file is included
+     * @return whether any packed file may be included. It is known without opening the archive only for a gzip file,
+     *         which packs a single file named after it.
+     */
+    static boolean mayInclude(Path archive, Predicate<Path> includes) {
+        if (!isGzip(archive)) {
+            return true;
+        }
+        Path unpacked = gunzipped(archive);
+        return isArchive(unpacked) || includes.test(unpacked);
+    }
+
+    /**
+     * @param archive the zip, jar or gzip file
+     * @param visitor called for each packed file, in the order of the entries
+     * @throws IOException if the archive can not be read or is malformed
+     */
+    static void read(Path archive, EntryVisitor visitor) throws IOException {
+        try (InputStream content = new BufferedInputStream(Files.newInputStream(archive), BUFFER_SIZE)) {
+            read(archive, content, visitor);
+        }
+    }
+
+    // the stream of a nested archive is closed without closing the stream of the outer archive
+    private static void read(Path file, InputStream content, EntryVisitor visitor) throws IOException {
+        if (isGzip(file)) {
+            try (InputStream inflated = new GZIPInputStream(new NotClosingInputStream(content), BUFFER_SIZE)) {
+                readUnpacked(gunzipped(file), inflated, visitor);
+            }
+        } else {
+            try (ZipInputStream zip = new ZipInputStream(new NotClosingInputStream(content))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    readEntry(file, entry, zip, visitor);
+                }
+            }
+        }
+    }
+
+    private static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+    }
+
+    private static Path gunzipped(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - GZIP_EXTENSION.length()));
+    }
+
+    // an entry leaving the archive, e.g. ../A.java or /A.java, would be counted outside of the archive, so it is skipped
+    private static void readEntry(Path archive, ZipEntry entry, ZipInputStream zip, EntryVisitor visitor) throws IOException {
+        Path entryPath = archive.getFileSystem().getPath(entry.getName()).normalize();
+        if (!entry.isDirectory() && isInArchive(entryPath)) {
+            readUnpacked(archive.resolve(entryPath), zip, visitor);
+        }
+    }
+
+    private static boolean isInArchive(Path entryPath) {
+        return !entryPath.isAbsolute() && !entryPath.startsWith("..") && !entryPath.toString().isEmpty();
+    }
+
+    private static void readUnpacked(Path file, InputStream content, EntryVisitor visitor) throws IOException {
+        if (isArchive(file)) {
+            read(file, content, visitor);
+        } else {
+            visitor.visit(file, content);
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+
+        /**
+         * @param file the path of the packed file, starting with the path of the archive
+         * @param content the inflated content of the file, valid until the visitor returns, must not be closed
+         * @throws IOException if the content can not be read
+         */
+        void visit(Path file, InputStream content) throws IOException;
+    }
+
+    private static final class NotClosingInputStream extends FilterInputStream {
+
+        NotClosingInputStream(InputStream content) {
+            super(content);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package pl.tfij.test.modulesize;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Number of lines of each file of the analyzed project and the totals of each module, the starting point of an incremental analysis.
+ * <p>
+ * It is stored as a UTF-8 text file with a header line, one {@code module\t<files>\t<lines>\t<name>} line per module,
+ * {@code undefined\t<files>\t<lines>} for the files outside of all the modules, and then one {@code <lines>\t<path>} line per file,
+ * sorted by path, so it can be kept as a CI artifact and compared by plain diff tools.
+ * The module totals let the incremental analysis start from them, without matching each file of the baseline to its module again.
+ * </p>
+ *
+ * @param files the number of lines per file path relative to the project root directory
+ * @param modules the totals of each module with analyzed files
+ */
+record Baseline(Map<String, Integer> files, List<ModuleTotals> modules) {
+    private static final String HEADER = "# module-size-calculator baseline v2";
+    private static final String MODULE = "module";
+    private static final String UNDEFINED = "undefined";
+    private static final char SEPARATOR = '\t';
+
+    static Baseline of(Map<String, Integer> files, List<ModulePartialSummary> modules) {
+        return new Baseline(files, modules.stream()
+                .map(it -> new ModuleTotals(it.module().name(), it.module().definedModule().isPresent(), it.numberOfFiles(), it.moduleLinesOfCode()))
+                .toList());
+    }
+
+    static Baseline load(Path source) {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new ModuleSizeCalculatorException("File `%s` is not a baseline file.".formatted(source.toAbsolutePath()));
+            }
+            Map<String, Integer> files = new HashMap<>();
+            List<ModuleTotals> modules = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parseLine(line, files, modules);
+            }
+            return new Baseline(files, modules);
+        } catch (IOException | NumberFormatException | IndexOutOfBoundsException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on loading baseline from `%s`.".formatted(source.toAbsolutePath()), ex);
+        }
+    }
+
+    private static void parseLine(String line, Map<String, Integer> files, List<ModuleTotals> modules) {
+        if (line.startsWith(MODULE + SEPARATOR) || line.startsWith(UNDEFINED + SEPARATOR)) {
+            modules.add(ModuleTotals.parse(line.split(String.valueOf(SEPARATOR), ModuleTotals.FIELDS)));
+        } else {
+            int separatorIndex = line.indexOf(SEPARATOR);
+            files.put(line.substring(separatorIndex + 1), Integer.parseInt(line.substring(0, separatorIndex)));
+        }
+    }
+
+    void save(Path target) {
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (ModuleTotals module : modules) {
+                module.writeTo(writer);
+                writer.newLine();
+            }
+            for (Map.Entry<String, Integer> file : new TreeMap<>(files).entrySet()) {
+                writer.write(String.valueOf(file.getValue()));
+                writer.write(SEPARATOR);
+                writer.write(file.getKey());
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("IO error occur on saving baseline to %s.".formatted(target.toAbsolutePath()), ex);
+        }
+    }
+
+    /**
+     * Starts the aggregate from the baseline: the totals are added to the modules found by their names,
+     * and the files are kept only to subtract the changed ones.
+     *
+     * @param accumulator the empty aggregate of the incremental analysis
+     * @param moduleMatcher the matcher of the analyzed configuration
+     * @throws ModuleSizeCalculatorException if a module of the baseline is neither defined nor discoverable
+     */
+    void addTo(ModuleAccumulator accumulator, ModuleMatcher moduleMatcher) {
+        Map<String, Integer> ordinals = moduleMatcher.ordinals(modules.stream().filter(ModuleTotals::defined).map(ModuleTotals::name).toList());
+        for (ModuleTotals module : modules) {
+            accumulator.addModule(module.ordinal(ordinals), module.numberOfFiles(), module.linesOfCode());
+        }
+        accumulator.addFileDetails(files);
+    }
+
+    /**
+     * @param name the name of the module
+     * @param defined whether it is a defined or discovered module, otherwise the totals are of the files outside of all the modules
+     * @param numberOfFiles the number of files of the module
+     * @param linesOfCode the number of lines of the module
+     */
+    record ModuleTotals(String name, boolean defined, long numberOfFiles, long linesOfCode) {
+        private static final int FIELDS = 4;
+
+        static ModuleTotals parse(String[] values) {
+            boolean defined = MODULE.equals(values[0]);
+            String name = UNDEFINED;
+            if (defined) {
+                name = values[FIELDS - 1];
+            }
+            return new ModuleTotals(name, defined, Long.parseLong(values[1]), Long.parseLong(values[2]));
+        }
+
+        int ordinal(Map<String, Integer> ordinals) {
+            if (!defined) {
+                return ModuleMatcher.UNDEFINED;
+            }
+            Integer ordinal = ordinals.get(name);
+            if (ordinal == null) {
+                throw new ModuleSizeCalculatorException(
+                        "Module `%s` of the baseline is not defined. The baseline must be created with the same modules.".formatted(name));
+            }
+            return ordinal;
+        }
+
+        void writeTo(BufferedWriter writer) throws IOException {
+            if (defined) {
+                writer.write(MODULE + SEPARATOR + numberOfFiles + SEPARATOR + linesOfCode + SEPARATOR + name);
+            } else {
+                writer.write(UNDEFINED + SEPARATOR + numberOfFiles + SEPARATOR + linesOfCode);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tree filters of several configurations analyzed in a single traversal.
+ * <p>
+ * The state of a directory holds the ignore rules of each configuration, {@code null} for the configurations
+ * ignoring the directory. A directory is pruned only when all the configurations ignore it.
+ * </p>
+ */
+final class CombinedTreeFilter implements FileTreeWalker.DirectoryFilter<IgnoreRules[]> {
+    private final List<ProjectTreeFilter> filters;
+
+    CombinedTreeFilter(List<ProjectTreeFilter> filters) {
+        this.filters = filters;
+    }
+
+    @Override
+    public IgnoreRules[] rootState() {
+        return filters.stream()
+                .map(ProjectTreeFilter::rootState)
+                .toArray(IgnoreRules[]::new);
+    }
+
+    @Override
+    public Optional<IgnoreRules[]> enterDirectory(Path directory, IgnoreRules[] parentState) {
+        IgnoreRules[] state = new IgnoreRules[parentState.length];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = enterDirectory(i, directory, parentState[i]);
+        }
+        if (Arrays.stream(state).allMatch(it -> it == null)) {
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    private IgnoreRules enterDirectory(int configuration, Path directory, IgnoreRules parentRules) {
+        if (parentRules == null) {
+            return null;
+        }
+        return filters.get(configuration).enterDirectory(directory, parentRules).orElse(null);
+    }
+
+    /**
+     * @param configuration the index of the configuration
+     * @param file the visited file
+     * @param state the state of the directory of the file
+     * @return whether the configuration ignores the file
+     */
+    boolean isIgnoredFile(int configuration, Path file, IgnoreRules[] state) {
+        IgnoreRules rules = state[configuration];
+        return rules == null || filters.get(configuration).isIgnoredFile(file, rules);
+    }
+}
@@ -0,0 +1,43 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Passes each call to all the reporters, so many reports are written in a single pass over a summary.
+ */
+final class CompositeReporter implements SummaryReporter {
+    private final List<SummaryReporter> reporters;
+
+    CompositeReporter(List<SummaryReporter> reporters) {
+        this.reporters = reporters;
+    }
+
+    @Override
+    public void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException {
+        for (SummaryReporter reporter : reporters) {
+            reporter.start(totalNumberOfFiles, totalLinesOfCode);
+        }
+    }
+
+    @Override
+    public void module(ProjectSummary.ModuleSummary module) throws IOException {
+        for (SummaryReporter reporter : reporters) {
+            reporter.module(module);
+        }
+    }
+
+    @Override
+    public void file(String file, int linesOfCode) throws IOException {
+        for (SummaryReporter reporter : reporters) {
+            reporter.file(file, linesOfCode);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        for (SummaryReporter reporter : reporters) {
+            reporter.end();
+        }
+    }
+}
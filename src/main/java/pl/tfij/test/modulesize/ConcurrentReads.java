@@ -0,0 +1,21 @@
+package pl.tfij.test.modulesize;
+
+import java.time.Duration;
+
+/**
+ * Settings of reading files concurrently on a high-latency file system.
+ *
+ * @param maxInFlightReads the maximum number of files read at the same time
+ * @param readTimeout the time after which a read of a single file is abandoned and the file is reported as timed out
+ */
+record ConcurrentReads(int maxInFlightReads, Duration readTimeout) {
+
+    ConcurrentReads {
+        if (maxInFlightReads < 1) {
+            throw new IllegalArgumentException("The number of in-flight reads must be positive number. Given value is %s.".formatted(maxInFlightReads));
+        }
+        if (readTimeout == null || readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("The read timeout must be positive duration. Given value is %s.".formatted(readTimeout));
+        }
+    }
+}
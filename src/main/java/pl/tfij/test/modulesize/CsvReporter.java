@@ -0,0 +1,58 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The CSV report, as in RFC 4180: a header row, a {@code module} row for each module and a {@code file} row for each file.
+ * A file row has the number of files of one and no classified lines nor relative size. A value containing a comma,
+ * a quote or a line break is quoted.
+ */
+final class CsvReporter implements SummaryReporter {
+    private static final String HEADER = "type,name,files,lines,code_lines,comment_lines,blank_lines,relative_size\r\n";
+
+    private final Writer out;
+
+    CsvReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException {
+        out.write(HEADER);
+    }
+
+    @Override
+    public void module(ProjectSummary.ModuleSummary module) throws IOException {
+        out.write("module,");
+        writeValue(module.moduleName());
+        out.write("," + module.totalNumberOfFiles() + "," + module.totalLinesOfCode() + "," + module.codeLines()
+                + "," + module.commentLines() + "," + module.blankLines() + ",");
+        if (Double.isFinite(module.relativeSize())) {
+            out.write(String.valueOf(module.relativeSize()));
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void file(String file, int linesOfCode) throws IOException {
+        out.write("file,");
+        writeValue(file);
+        out.write(",1," + linesOfCode + ",,,,\r\n");
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(value);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package pl.tfij.test.modulesize;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.file.Path;
+
+/**
+ * JFR event of a directory visited by the traversal. The duration includes the subdirectories,
+ * the numbers of files and bytes cover the files directly in the directory.
+ */
+@Name("pl.tfij.modulesize.DirectoryVisit")
+@Label("Module Size Directory Visit")
+@Category("Module Size Calculator")
+@Description("Directory visited by the analysis, including its subdirectories")
+final class DirectoryVisitEvent extends Event {
+    @Label("Directory")
+    private String directory;
+
+    @Label("Files")
+    private int files;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    void fileVisited(long size) {
+        files++;
+        bytes += size;
+    }
+
+    void commit(Path visitedDirectory) {
+        if (shouldCommit()) {
+            directory = visitedDirectory.toString();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Optional;
+
+/**
+ * A change of a single file since the baseline, e.g. one line of {@code git diff --name-status}.
+ * Paths are relative to the project root directory and use {@code /} as a separator.
+ *
+ * @param type the type of the change
+ * @param path the path of the file after the change. For deleted file, it is the path of the deleted file.
+ * @param previousPath the path of the file before the change. It differs from the path only for renamed file.
+ */
+public record FileChange(Type type, String path, String previousPath) {
+
+    /**
+     * @param path the path of the added file
+     * @return the change representing an added file
+     */
+    public static FileChange added(String path) {
+        return new FileChange(Type.ADDED, path, path);
+    }
+
+    /**
+     * @param path the path of the modified file
+     * @return the change representing a modified file
+     */
+    public static FileChange modified(String path) {
+        return new FileChange(Type.MODIFIED, path, path);
+    }
+
+    /**
+     * @param path the path of the deleted file
+     * @return the change representing a deleted file
+     */
+    public static FileChange deleted(String path) {
+        return new FileChange(Type.DELETED, path, path);
+    }
+
+    /**
+     * @param previousPath the path of the file before the rename
+     * @param path the path of the file after the rename
+     * @return the change representing a renamed file
+     */
+    public static FileChange renamed(String previousPath, String path) {
+        return new FileChange(Type.RENAMED, path, previousPath);
+    }
+
+    Optional<String> removedPath() {
+        if (type == Type.ADDED) {
+            return Optional.empty();
+        }
+        return Optional.of(previousPath);
+    }
+
+    Optional<String> addedPath() {
+        if (type == Type.DELETED) {
+            return Optional.empty();
+        }
+        return Optional.of(path);
+    }
+
+    /**
+     * The type of the file change.
+     */
+    public enum Type {
+        ADDED,
+        MODIFIED,
+        DELETED,
+        RENAMED
+    }
+}
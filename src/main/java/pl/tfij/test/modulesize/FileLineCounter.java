@@ -0,0 +1,13 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Strategy of getting the number of lines of a file, e.g. reading it or taking it from a cache.
+ */
+@FunctionalInterface
+interface FileLineCounter {
+
+    int countLines(Path file) throws IOException;
+}
@@ -0,0 +1,15 @@
+package pl.tfij.test.modulesize;
+
+/**
+ * The numbers of classified lines of a single file.
+ */
+interface FileLines {
+
+    int lines();
+
+    int codeLines();
+
+    int commentLines();
+
+    int blankLines();
+}
@@ -0,0 +1,43 @@
+package pl.tfij.test.modulesize;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+import java.nio.file.Path;
+
+/**
+ * JFR event of a file read slower than the threshold of the event, 10 ms by default.
+ * The threshold can be changed in the recording settings, e.g. {@code pl.tfij.modulesize.FileRead#threshold=1 ms}.
+ */
+@Name("pl.tfij.modulesize.FileRead")
+@Label("Module Size File Read")
+@Category("Module Size Calculator")
+@Description("File read and counted by the analysis")
+@Threshold("10 ms")
+final class FileReadEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Module")
+    private String module;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Lines of Code")
+    private long linesOfCode;
+
+    void commit(Path readFile, String fileModule, long size, long fileLinesOfCode) {
+        file = readFile.toString();
+        module = fileModule;
+        bytes = size;
+        linesOfCode = fileLinesOfCode;
+        commit();
+    }
+}
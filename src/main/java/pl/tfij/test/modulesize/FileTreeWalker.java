@@ -0,0 +1,225 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Visits regular files of the project tree without collecting them.
+ * <p>
+ * Sequentially, the tree is visited by {@link Files#walkFileTree}. In parallel, every directory is a fork-join task
+ * listing its entries and forking a task per subdirectory, so idle workers steal the pending directories.
+ * Each worker folds the files into its own state, e.g. an aggregate, and all the states are returned at the end.
+ * Directories rejected by the filter are pruned, their content is never listed. Each visited file comes with
+ * the state the filter assigned to its directory, e.g. the ignore rules in effect.
+ * Every visited directory is reported as a {@link DirectoryVisitEvent} to the Flight Recorder.
+ * </p>
+ *
+ * @param <S> the state of a visited directory
+ */
+final class FileTreeWalker<S> {
+    private final Path rootDir;
+    private final DirectoryFilter<S> filter;
+    private final int parallelism;
+
+    FileTreeWalker(Path rootDir, DirectoryFilter<S> filter, int parallelism) {
+        this.rootDir = rootDir;
+        this.filter = filter;
+        this.parallelism = parallelism;
+    }
+
+    <T> List<T> walk(Supplier<T> workerState, FileVisitor<T, S> fileVisitor) {
+        if (Files.isRegularFile(rootDir)) {
+            return visitRootFile(workerState, fileVisitor);
+        }
+        if (parallelism > 1) {
+            return walkInParallel(workerState, fileVisitor);
+        }
+        T state = workerState.get();
+        try {
+            Files.walkFileTree(rootDir, new SequentialVisitor((file, size, directoryState) -> fileVisitor.visit(state, file, size, directoryState)));
+        } catch (IOException ex) {
+            throw scanningError(ex);
+        }
+        return List.of(state);
+    }
+
+    // the root is a file when an archive of the project is analyzed, its entries are read by the file visitor
+    private <T> List<T> visitRootFile(Supplier<T> workerState, FileVisitor<T, S> fileVisitor) {
+        T state = workerState.get();
+        try {
+            fileVisitor.visit(state, rootDir, Files.size(rootDir), filter.rootState());
+        } catch (IOException ex) {
+            throw scanningError(ex);
+        }
+        return List.of(state);
+    }
+
+    private <T> List<T> walkInParallel(Supplier<T> workerState, FileVisitor<T, S> fileVisitor) {
+        Queue<T> states = new ConcurrentLinkedQueue<>();
+        ThreadLocal<T> workerStates = ThreadLocal.withInitial(() -> {
+            T state = workerState.get();
+            states.add(state);
+            return state;
+        });
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(
+                    rootDir,
+                    filter.rootState(),
+                    (file, size, directoryState) -> fileVisitor.visit(workerStates.get(), file, size, directoryState)));
+        } finally {
+            pool.shutdown();
+        }
+        return List.copyOf(states);
+    }
+
+    private static boolean isRegularFile(Path file, BasicFileAttributes attributes) {
+        return attributes.isRegularFile() || attributes.isSymbolicLink() && Files.isRegularFile(file);
+    }
+
+    // the attributes of a symbolic link describe the link, not the linked file
+    private static long size(Path file, BasicFileAttributes attributes) throws IOException {
+        if (attributes.isSymbolicLink()) {
+            return Files.size(file);
+        }
+        return attributes.size();
+    }
+
+    private ModuleSizeCalculatorException scanningError(IOException ex) {
+        return new ModuleSizeCalculatorException("Error occur on scanning project in `%s` directory.".formatted(rootDir.toAbsolutePath()), ex);
+    }
+
+    /**
+     * Decides which directories are entered.
+     *
+     * @param <S> the state of a visited directory
+     */
+    interface DirectoryFilter<S> {
+        S rootState();
+
+        /**
+         * @param directory the subdirectory to enter
+         * @param parentState the state of its parent directory
+         * @return the state of the directory, or empty if the directory is skipped
+         */
+        Optional<S> enterDirectory(Path directory, S parentState);
+    }
+
+    @FunctionalInterface
+    interface FileVisitor<T, S> {
+        void visit(T workerState, Path file, long size, S directoryState);
+    }
+
+    @FunctionalInterface
+    private interface WorkerFileVisitor<S> {
+        void visit(Path file, long size, S directoryState);
+    }
+
+    private final class SequentialVisitor extends SimpleFileVisitor<Path> {
+        private final Deque<S> directoryStates = new ArrayDeque<>();
+        private final Deque<DirectoryVisitEvent> directoryEvents = new ArrayDeque<>();
+        private final WorkerFileVisitor<S> fileVisitor;
+
+        SequentialVisitor(WorkerFileVisitor<S> fileVisitor) {
+            this.fileVisitor = fileVisitor;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+            if (directoryStates.isEmpty()) {
+                enter(filter.rootState());
+                return FileVisitResult.CONTINUE;
+            }
+            Optional<S> state = filter.enterDirectory(directory, directoryStates.peek());
+            if (state.isEmpty()) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            enter(state.get());
+            return FileVisitResult.CONTINUE;
+        }
+
+        private void enter(S state) {
+            directoryStates.push(state);
+            DirectoryVisitEvent event = new DirectoryVisitEvent();
+            event.begin();
+            directoryEvents.push(event);
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+            if (isRegularFile(file, attributes)) {
+                long size = size(file, attributes);
+                directoryEvents.peek().fileVisited(size);
+                fileVisitor.visit(file, size, directoryStates.peek());
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+            directoryStates.pop();
+            directoryEvents.pop().commit(directory);
+            return super.postVisitDirectory(directory, exception);
+        }
+    }
+
+    // the tasks only live in the pool of a single walk and are never serialized
+    @SuppressWarnings("serial")
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final S state;
+        private final WorkerFileVisitor<S> fileVisitor;
+
+        DirectoryTask(Path directory, S state, WorkerFileVisitor<S> fileVisitor) {
+            this.directory = directory;
+            this.state = state;
+            this.fileVisitor = fileVisitor;
+        }
+
+        @Override
+        protected void compute() {
+            DirectoryVisitEvent event = new DirectoryVisitEvent();
+            event.begin();
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    visit(entry, Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS), subdirectories, event);
+                }
+            } catch (IOException ex) {
+                throw scanningError(ex);
+            }
+            subdirectories.forEach(DirectoryTask::join);
+            event.commit(directory);
+        }
+
+        private void visit(Path entry, BasicFileAttributes attributes, List<DirectoryTask> subdirectories, DirectoryVisitEvent event) throws IOException {
+            if (attributes.isDirectory()) {
+                filter.enterDirectory(entry, state).ifPresent(subdirectoryState -> {
+                    DirectoryTask subdirectory = new DirectoryTask(entry, subdirectoryState, fileVisitor);
+                    subdirectory.fork();
+                    subdirectories.add(subdirectory);
+                });
+            } else if (isRegularFile(entry, attributes)) {
+                long size = size(entry, attributes);
+                event.fileVisited(size);
+                fileVisitor.visit(entry, size, state);
+            }
+        }
+    }
+}
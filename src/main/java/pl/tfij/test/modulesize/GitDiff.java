@@ -0,0 +1,88 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Lists files changed in a local git repository, to be used as the input of an incremental analysis.
+ */
+public final class GitDiff {
+
+    private GitDiff() {
+    }
+
+    /**
+     * Lists the files changed between the given revision and the working tree, as reported by {@code git diff --name-status}.
+     * Only changes inside the project directory are listed, with paths relative to it.
+     * Untracked files are not reported by git, so they have to be added to the index first.
+     *
+     * @param projectDir The root directory of the project, the same as used for the analysis.
+     * @param baseRevision The revision the baseline was created for, e.g. the merge base of a pull request.
+     * @return The list of changed files.
+     * @throws ModuleSizeCalculatorException if git fails or cannot be started.
+     */
+    public static List<FileChange> changedFiles(Path projectDir, String baseRevision) {
+        try {
+            Path errorFile = Files.createTempFile("module-size-git", ".err");
+            try {
+                return changedFiles(projectDir, baseRevision, errorFile);
+            } finally {
+                Files.deleteIfExists(errorFile);
+            }
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on running git in `%s` directory.".formatted(projectDir.toAbsolutePath()), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ModuleSizeCalculatorException("Interrupted on running git in `%s` directory.".formatted(projectDir.toAbsolutePath()), ex);
+        }
+    }
+
+    // the errors are written to a file, so git never blocks on a full error pipe while the output is read
+    private static List<FileChange> changedFiles(Path projectDir, String baseRevision, Path errorFile) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("git", "diff", "--name-status", "-z", "-M", "--relative", baseRevision, "--")
+                .directory(projectDir.toFile())
+                .redirectError(errorFile.toFile())
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new ModuleSizeCalculatorException("Error occur on listing changes since `%s` in `%s` directory: %s"
+                    .formatted(baseRevision, projectDir.toAbsolutePath(), new String(Files.readAllBytes(errorFile), StandardCharsets.UTF_8).trim()));
+        }
+        return parse(output);
+    }
+
+    /**
+     * Parses the output of {@code git diff --name-status -z}.
+     *
+     * @param nameStatusOutput NUL separated status and paths of the changed files
+     * @return The list of changed files.
+     */
+    static List<FileChange> parse(String nameStatusOutput) {
+        List<FileChange> changes = new ArrayList<>();
+        Iterator<String> tokens = Arrays.asList(nameStatusOutput.split("\0")).iterator();
+        while (tokens.hasNext()) {
+            String status = tokens.next();
+            if (!status.isEmpty()) {
+                changes.add(parseChange(status.charAt(0), tokens));
+            }
+        }
+        return changes;
+    }
+
+    private static FileChange parseChange(char status, Iterator<String> paths) {
+        String path = paths.next();
+        return switch (status) {
+            case 'A' -> FileChange.added(path);
+            case 'D' -> FileChange.deleted(path);
+            case 'R' -> FileChange.renamed(path, paths.next());
+            case 'C' -> FileChange.added(paths.next());
+            default -> FileChange.modified(path);
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single pattern in the .gitignore syntax, compiled to a regular expression.
+ * <p>
+ * Supported are comments, negation with {@code !}, directory-only patterns ending with {@code /},
+ * patterns anchored to their base directory by a {@code /} at the beginning or in the middle,
+ * and the {@code *}, {@code ?}, {@code [...]} and {@code **} wildcards.
+ * A pattern without a slash matches the name of a file or directory at any level.
+ * </p>
+ *
+ * @param regex the compiled pattern
+ * @param negated whether the pattern re-includes matching paths
+ * @param directoryOnly whether the pattern matches directories only
+ * @param anchored whether the pattern is matched against the path relative to its base directory instead of the name
+ */
+record IgnoreRule(Pattern regex, boolean negated, boolean directoryOnly, boolean anchored) {
+    private static final Pattern GLOB_TOKEN = Pattern.compile("\\*\\*/|\\*\\*|\\*|\\?|\\[[^\\]]*]|[^*?\\[]+|.");
+    private static final Map<String, String> WILDCARDS = Map.of(
+            "**/", "(?:.*/)?",
+            "**", ".*",
+            "*", "[^/]*",
+            "?", "[^/]");
+
+    static Optional<IgnoreRule> parse(String line) {
+        String pattern = line.stripTrailing();
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return Optional.empty();
+        }
+        boolean negated = pattern.startsWith("!");
+        pattern = unescape(removePrefix(pattern, "!"));
+        boolean directoryOnly = pattern.endsWith("/");
+        pattern = removeSuffix(pattern, "/");
+        boolean anchored = pattern.contains("/");
+        pattern = removePrefix(pattern, "/");
+        return Optional.of(new IgnoreRule(Pattern.compile(toRegex(pattern)), negated, directoryOnly, anchored));
+    }
+
+    boolean matches(String path, String name, boolean directory) {
+        if (directoryOnly && !directory) {
+            return false;
+        }
+        if (anchored) {
+            return regex.matcher(path).matches();
+        }
+        return regex.matcher(name).matches();
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        Matcher tokens = GLOB_TOKEN.matcher(glob);
+        while (tokens.find()) {
+            regex.append(tokenToRegex(tokens.group()));
+        }
+        return regex.toString();
+    }
+
+    private static String tokenToRegex(String token) {
+        String wildcard = WILDCARDS.get(token);
+        if (wildcard != null) {
+            return wildcard;
+        }
+        if (token.length() > 2 && token.startsWith("[")) {
+            return "[" + token.substring(1, token.length() - 1).replaceFirst("^!", "^") + "]";
+        }
+        return Pattern.quote(token);
+    }
+
+    private static String unescape(String pattern) {
+        return removePrefix(pattern, "\\");
+    }
+
+    private static String removePrefix(String text, String prefix) {
+        if (text.startsWith(prefix)) {
+            return text.substring(prefix.length());
+        }
+        return text;
+    }
+
+    private static String removeSuffix(String text, String suffix) {
+        if (text.endsWith(suffix)) {
+            return text.substring(0, text.length() - suffix.length());
+        }
+        return text;
+    }
+}
@@ -0,0 +1,72 @@
+package pl.tfij.test.modulesize;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ignore rules in effect for a directory: its own compiled patterns and the rules of its parent directory.
+ * <p>
+ * Paths are relative to the project root directory and use {@code /} as a separator.
+ * Each level matches them relative to its own base directory. Like in git, the last matching pattern of the
+ * deepest level with a match decides. A directory without its own patterns shares the rules of its parent,
+ * so the patterns are compiled once per directory level.
+ * </p>
+ */
+final class IgnoreRules {
+    static final IgnoreRules NONE = new IgnoreRules(null, "", 0, List.of());
+
+    private final IgnoreRules parent;
+    private final String prefix;
+    private final int baseLength;
+    private final List<IgnoreRule> rules;
+
+    private IgnoreRules(IgnoreRules parent, String prefix, int baseLength, List<IgnoreRule> rules) {
+        this.parent = parent;
+        this.prefix = prefix;
+        this.baseLength = baseLength;
+        this.rules = rules;
+    }
+
+    /**
+     * Creates the rules of a subdirectory, or of a directory above the project root directory.
+     *
+     * @param levelPrefix the path prepended to the matched paths, i.e. the project root relative to a directory above it
+     * @param levelBaseLength the length of the directory path removed from the matched paths, i.e. for a subdirectory
+     * @param patterns the lines of the ignore file
+     * @return the rules of the directory
+     */
+    IgnoreRules child(String levelPrefix, int levelBaseLength, List<String> patterns) {
+        List<IgnoreRule> compiled = patterns.stream()
+                .flatMap(it -> IgnoreRule.parse(it).stream())
+                .toList();
+        if (compiled.isEmpty()) {
+            return this;
+        }
+        return new IgnoreRules(this, levelPrefix, levelBaseLength, compiled);
+    }
+
+    boolean isEmpty() {
+        return this == NONE;
+    }
+
+    boolean isIgnored(String path, boolean directory) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        for (IgnoreRules level = this; level != null; level = level.parent) {
+            Optional<Boolean> decision = level.decide(level.prefix + path.substring(level.baseLength), name, directory);
+            if (decision.isPresent()) {
+                return decision.get();
+            }
+        }
+        return false;
+    }
+
+    private Optional<Boolean> decide(String path, String name, boolean directory) {
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            IgnoreRule rule = rules.get(i);
+            if (rule.matches(path, name, directory)) {
+                return Optional.of(!rule.negated());
+            }
+        }
+        return Optional.empty();
+    }
+}
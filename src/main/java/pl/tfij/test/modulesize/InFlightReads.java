@@ -0,0 +1,119 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A window of file reads running concurrently on reader threads, for file systems where each read waits for the network.
+ * <p>
+ * The reads are submitted by a single thread and their results are consumed on the same thread, in the order
+ * of submission, so the consumer needs no synchronization. When the window is full, submitting a read waits
+ * for the oldest one. A read running longer than the timeout is cancelled and abandoned: its reader thread
+ * may stay blocked in the file system, but it no longer holds up the analysis.
+ * </p>
+ * <p>
+ * There are as many reader threads as reads in the window, so a hung file system cannot grow the number of threads.
+ * The timeout counts from the start of a read, not from its submission. A read that has not even started within the timeout
+ * is abandoned as well, as then all the reader threads are blocked in abandoned reads.
+ * </p>
+ * <p>
+ * The reader threads are platform threads reused across files, so the buffers pooled per thread are reused too.
+ * A blocking file read would pin a virtual thread to its carrier anyway.
+ * </p>
+ *
+ * @param <T> the result of a read
+ */
+final class InFlightReads<T> implements AutoCloseable {
+    private static final long NOT_STARTED = -1;
+
+    private final ConcurrentReads settings;
+    private final ExecutorService readers;
+    private final Deque<PendingRead<T>> pendingReads = new ArrayDeque<>();
+
+    InFlightReads(ConcurrentReads settings) {
+        this.settings = settings;
+        this.readers = Executors.newFixedThreadPool(settings.maxInFlightReads(), Thread.ofPlatform().name("module-size-reader-", 0).daemon().factory());
+    }
+
+    /**
+     * @param file the read file
+     * @param read reads the file on a reader thread
+     * @param onRead consumes the result of the read on the submitting thread
+     * @param onTimeout called on the submitting thread if the read times out
+     */
+    void submit(Path file, Callable<T> read, Consumer<T> onRead, Runnable onTimeout) {
+        if (pendingReads.size() >= settings.maxInFlightReads()) {
+            completeOldest();
+        }
+        AtomicLong start = new AtomicLong(NOT_STARTED);
+        Future<T> result = readers.submit(() -> {
+            start.set(System.nanoTime());
+            return read.call();
+        });
+        pendingReads.add(new PendingRead<>(file, result, start, onRead, onTimeout));
+    }
+
+    void awaitAll() {
+        while (!pendingReads.isEmpty()) {
+            completeOldest();
+        }
+    }
+
+    private void completeOldest() {
+        PendingRead<T> pendingRead = pendingReads.poll();
+        try {
+            pendingRead.onRead().accept(await(pendingRead));
+        } catch (TimeoutException ex) {
+            pendingRead.result().cancel(true);
+            pendingRead.onTimeout().run();
+        } catch (ExecutionException ex) {
+            throw readError(pendingRead.file(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ModuleSizeCalculatorException("Interrupted while waiting for `%s` file to be read.".formatted(pendingRead.file()), ex);
+        }
+    }
+
+    // waits the whole timeout for a read not started yet, and then until the timeout since its start if it started meanwhile
+    private T await(PendingRead<T> pendingRead) throws InterruptedException, ExecutionException, TimeoutException {
+        long timeout = settings.readTimeout().toNanos();
+        long start = pendingRead.start().get();
+        if (start == NOT_STARTED) {
+            try {
+                return pendingRead.result().get(timeout, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                start = pendingRead.start().get();
+                if (start == NOT_STARTED) {
+                    throw ex;
+                }
+            }
+        }
+        return pendingRead.result().get(start + timeout - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private static RuntimeException readError(Path file, Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new ModuleSizeCalculatorException("Error occur on counting lines of `%s` file.".formatted(file), cause);
+    }
+
+    // the reader threads blocked in timed out reads are interrupted, they end once the file system lets them
+    @Override
+    public void close() {
+        readers.shutdownNow();
+    }
+
+    private record PendingRead<T>(Path file, Future<T> result, AtomicLong start, Consumer<T> onRead, Runnable onTimeout) {
+    }
+}
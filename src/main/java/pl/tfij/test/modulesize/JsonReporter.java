@@ -0,0 +1,100 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The JSON report: an object with the project totals, the {@code modules} array and the {@code files} array,
+ * the latter only if the project was analyzed with file details. The fields of a module are named as the components
+ * of {@link ProjectSummary.ModuleSummary}, the relative size of a project without lines is {@code null}.
+ */
+final class JsonReporter implements SummaryReporter {
+    private static final char FIRST_PRINTABLE = 0x20;
+
+    private final Writer out;
+    private boolean firstModule = true;
+    private boolean firstFile = true;
+
+    JsonReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException {
+        out.write("{\"totalNumberOfFiles\":%s,\"totalLinesOfCode\":%s,\"modules\":[".formatted(totalNumberOfFiles, totalLinesOfCode));
+    }
+
+    @Override
+    public void module(ProjectSummary.ModuleSummary module) throws IOException {
+        if (!firstModule) {
+            out.write(',');
+        }
+        firstModule = false;
+        out.write('{');
+        writeModuleFields(out, module);
+        out.write('}');
+    }
+
+    // the modules array is closed by the first file
+    @Override
+    public void file(String file, int linesOfCode) throws IOException {
+        if (firstFile) {
+            out.write("],\"files\":[");
+        } else {
+            out.write(',');
+        }
+        firstFile = false;
+        out.write('{');
+        writeFileFields(out, file, linesOfCode);
+        out.write('}');
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write("]}");
+        out.flush();
+    }
+
+    static void writeModuleFields(Writer out, ProjectSummary.ModuleSummary module) throws IOException {
+        out.write("\"moduleName\":");
+        writeString(out, module.moduleName());
+        out.write(",\"totalNumberOfFiles\":" + module.totalNumberOfFiles() + ",\"totalLinesOfCode\":" + module.totalLinesOfCode() + ",\"relativeSize\":");
+        if (Double.isFinite(module.relativeSize())) {
+            out.write(String.valueOf(module.relativeSize()));
+        } else {
+            out.write("null");
+        }
+        out.write(",\"codeLines\":" + module.codeLines() + ",\"commentLines\":" + module.commentLines() + ",\"blankLines\":" + module.blankLines());
+    }
+
+    static void writeFileFields(Writer out, String file, int linesOfCode) throws IOException {
+        out.write("\"file\":");
+        writeString(out, file);
+        out.write(",\"linesOfCode\":" + linesOfCode);
+    }
+
+    // the runs of characters not escaped are written at once, control characters are written as unicode escapes
+    private static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < FIRST_PRINTABLE) {
+                out.write(value, run, i - run);
+                writeEscaped(out, c);
+                run = i + 1;
+            }
+        }
+        out.write(value, run, value.length() - run);
+        out.write('"');
+    }
+
+    private static void writeEscaped(Writer out, char c) throws IOException {
+        if (c < FIRST_PRINTABLE) {
+            out.write("\\u%04x".formatted((int) c));
+        } else {
+            out.write('\\');
+            out.write(c);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classifies lines of a source file as code, comment or blank lines in a single pass over its raw bytes.
+ * <p>
+ * The comment syntax is the one of Java and similar languages: {@code //} and {@code /* ... *}{@code /} comments,
+ * with comment markers inside string and character literals and text blocks being code.
+ * A line is blank if it contains only whitespace, a comment line if all its other characters belong to comments,
+ * and a code line otherwise. Lines are terminated like in {@link LineCounter}, and a leading UTF-8 BOM is skipped.
+ * </p>
+ * <p>
+ * The state machine keeps only primitive fields and looks up precomputed transitions, and the classifier with its buffer is pooled
+ * per thread, so classifying a file allocates nothing but the file channel. The numbers of lines are valid until
+ * the next file is classified on the same thread.
+ * </p>
+ */
+final class LineClassifier implements FileLines {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CODE = SourceCodeState.CODE_MARK;
+    private static final int COMMENT = SourceCodeState.COMMENT_MARK;
+    private static final int OPEN = 4;
+    private static final int AFTER_CARRIAGE_RETURN = 8;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long SPACES = ONES * ' ';
+    private static final long SLASHES = ONES * '/';
+    private static final long QUOTES = ONES * '"';
+    private static final long APOSTROPHES = ONES * '\'';
+    private static final int CODE_STATE = SourceCodeState.CODE.ordinal();
+    private static final int LINE_COMMENT_STATE = SourceCodeState.LINE_COMMENT.ordinal();
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final ThreadLocal<LineClassifier> CLASSIFIERS = ThreadLocal.withInitial(LineClassifier::new);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The ordinal of the current {@link SourceCodeState}.
+     */
+    private int state;
+
+    /**
+     * Bit flags of the current line: whether it contains code, comments, anything at all,
+     * and whether its previous line was terminated by CR.
+     */
+    private int line;
+    private int lines;
+    private int commentLines;
+    private int blankLines;
+
+    private LineClassifier() {
+    }
+
+    static LineClassifier classify(Path file) throws IOException {
+        LineClassifier classifier = CLASSIFIERS.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            classifier.count(channel);
+        }
+        return classifier;
+    }
+
+    /**
+     * @param content the content of a file, e.g. inflated from an archive, it is read to the end but not closed
+     * @return the classifier of the thread holding the numbers of lines of the content
+     * @throws IOException if the content can not be read
+     */
+    static LineClassifier classify(InputStream content) throws IOException {
+        LineClassifier classifier = CLASSIFIERS.get();
+        classifier.count(Channels.newChannel(content));
+        return classifier;
+    }
+
+    @Override
+    public int lines() {
+        return lines;
+    }
+
+    @Override
+    public int codeLines() {
+        return lines - commentLines - blankLines;
+    }
+
+    @Override
+    public int commentLines() {
+        return commentLines;
+    }
+
+    @Override
+    public int blankLines() {
+        return blankLines;
+    }
+
+    private void count(ReadableByteChannel channel) throws IOException {
+        state = SourceCodeState.CODE.ordinal();
+        line = 0;
+        lines = 0;
+        commentLines = 0;
+        blankLines = 0;
+        buffer.clear();
+        boolean first = true;
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            skipBom(first);
+            first = false;
+            scan(buffer);
+            buffer.clear();
+        }
+        if ((line & OPEN) != 0) {
+            endLine();
+        }
+    }
+
+    // the BOM is a part of the first line, like in line counter, but never makes it a code line
+    private void skipBom(boolean first) {
+        if (first && startsWithBom()) {
+            buffer.position(BOM.length);
+            line = OPEN;
+        }
+    }
+
+    private boolean startsWithBom() {
+        for (int i = 0; i < BOM.length; i++) {
+            if (buffer.remaining() <= i || buffer.get(i) != BOM[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the bytes are taken a whole word at a time, so the position of the buffer is not updated for each of them
+    private void scan(ByteBuffer bytes) {
+        while (bytes.remaining() >= Long.BYTES) {
+            long word = bytes.getLong();
+            if (!skipPlainWord(word)) {
+                scanWord(word);
+            }
+        }
+        while (bytes.hasRemaining()) {
+            scanByte(bytes.get());
+        }
+    }
+
+    private void scanWord(long word) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            scanByte((byte) (word >>> shift));
+        }
+    }
+
+    /**
+     * Most words of code and line comments change nothing but the marks of the line,
+     * only words with a line terminator, whitespace other than space, or the beginning of a comment or a literal
+     * are scanned byte by byte.
+     *
+     * @param word eight bytes of the file
+     * @return whether the word is consumed
+     */
+    private boolean skipPlainWord(long word) {
+        if (containsControlCharacter(word)) {
+            return false;
+        }
+        if (state == LINE_COMMENT_STATE) {
+            openLine(0);
+            return true;
+        }
+        return state == CODE_STATE && skipPlainCode(word);
+    }
+
+    private boolean skipPlainCode(long word) {
+        if ((zeroBytes(word ^ SLASHES) | zeroBytes(word ^ QUOTES) | zeroBytes(word ^ APOSTROPHES)) != 0) {
+            return false;
+        }
+        if (word == SPACES) {
+            openLine(0);
+        } else {
+            openLine(CODE);
+        }
+        return true;
+    }
+
+    // bytes of non-ASCII characters are never control characters
+    private static boolean containsControlCharacter(long word) {
+        return ((word - SPACES) & ~word & HIGH_BITS) != 0;
+    }
+
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGH_BITS;
+    }
+
+    private void scanByte(byte value) {
+        if (value == '\n' || value == '\r') {
+            lineTerminator(value);
+        } else {
+            int transition = SourceCodeState.transition(state, value);
+            openLine(transition & SourceCodeState.MARKS);
+            state = transition >>> SourceCodeState.STATE_SHIFT;
+        }
+    }
+
+    private void openLine(int marks) {
+        line = line & ~AFTER_CARRIAGE_RETURN | OPEN | marks;
+    }
+
+    // LF directly after CR is a part of the CRLF terminator
+    private void lineTerminator(byte value) {
+        if (value == '\n' && (line & AFTER_CARRIAGE_RETURN) != 0) {
+            line = 0;
+            return;
+        }
+        endLine();
+        if (value == '\r') {
+            line = AFTER_CARRIAGE_RETURN;
+        }
+    }
+
+    private void endLine() {
+        int transition = SourceCodeState.lineEndTransition(state);
+        line |= transition & SourceCodeState.MARKS;
+        state = transition >>> SourceCodeState.STATE_SHIFT;
+        lines++;
+        if ((line & (CODE | COMMENT)) == COMMENT) {
+            commentLines++;
+        } else if ((line & (CODE | COMMENT)) == 0) {
+            blankLines++;
+        }
+        line = 0;
+    }
+}
@@ -0,0 +1,194 @@
+package pl.tfij.test.modulesize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Line counts of files stored on disk between analyses.
+ * <p>
+ * A file is served from the cache when its size, last modification time and file key did not change.
+ * The cache file is read lazily on the first lookup and only new or changed entries are written back.
+ * Saving merges them into the current content of the cache file under a file lock, writes the result to a temporary
+ * file and atomically moves it in place. That makes the cache safe for several JVMs (e.g. Gradle test forks)
+ * and a crash during the write leaves the previous content untouched. A file with an invalid checksum is ignored.
+ * The entries of files that no longer exist, e.g. deleted, renamed or of a removed checkout, are dropped whenever
+ * the cache is written, so it does not grow forever. The existence is checked only for the entries not looked up in this run.
+ * </p>
+ */
+final class LineCountCache implements FileLineCounter {
+    private static final int MAGIC = 0x4D534343;
+    private static final int VERSION = 1;
+    private static final Object SAVE_LOCK = new Object();
+
+    private final Path cacheFile;
+    private final Map<String, Entry> dirtyEntries = new ConcurrentHashMap<>();
+    private final Set<String> lookedUpKeys = ConcurrentHashMap.newKeySet();
+    private volatile Map<String, Entry> entries;
+
+    LineCountCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @Override
+    public int countLines(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = file.toAbsolutePath().normalize().toString();
+        lookedUpKeys.add(key);
+        Entry cached = entries().get(key);
+        if (cached != null && cached.matches(attributes)) {
+            return cached.lines();
+        }
+        Entry counted = Entry.of(attributes, LineCounter.countLines(file));
+        dirtyEntries.put(key, counted);
+        return counted.lines();
+    }
+
+    void save() {
+        if (dirtyEntries.isEmpty()) {
+            return;
+        }
+        synchronized (SAVE_LOCK) {
+            try {
+                Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+                Path lockFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".lock");
+                try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    FileLock lock = lockChannel.lock();
+                    try {
+                        write(merge(read(cacheFile)));
+                    } finally {
+                        lock.release();
+                    }
+                }
+                dirtyEntries.clear();
+            } catch (IOException ex) {
+                throw new ModuleSizeCalculatorException("Error occur on saving line count cache to `%s`.".formatted(cacheFile.toAbsolutePath()), ex);
+            }
+        }
+    }
+
+    // the entries saved meanwhile by other JVMs are kept as long as their files exist
+    private Map<String, Entry> merge(Map<String, Entry> saved) {
+        Map<String, Entry> merged = new HashMap<>(saved);
+        merged.keySet().removeIf(key -> !lookedUpKeys.contains(key) && !Files.exists(Path.of(key)));
+        merged.putAll(dirtyEntries);
+        return merged;
+    }
+
+    private Map<String, Entry> entries() {
+        Map<String, Entry> result = entries;
+        if (result == null) {
+            synchronized (this) {
+                if (entries == null) {
+                    entries = read(cacheFile);
+                }
+                result = entries;
+            }
+        }
+        return result;
+    }
+
+    private void write(Map<String, Entry> content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(content.size());
+        for (Map.Entry<String, Entry> it : content.entrySet()) {
+            output.writeUTF(it.getKey());
+            it.getValue().writeTo(output);
+        }
+        output.writeLong(checksum(bytes.toByteArray(), bytes.size()));
+        Path tempFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+                channel.force(true);
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // a failed write leaves no temp file behind, after the move there is nothing to delete
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static Map<String, Entry> read(Path cacheFile) {
+        try {
+            byte[] bytes = Files.readAllBytes(cacheFile);
+            int contentLength = bytes.length - Long.BYTES;
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (contentLength < 0 || !hasValidHeader(input)) {
+                return Map.of();
+            }
+            Map<String, Entry> content = readEntries(input);
+            if (input.readLong() != checksum(bytes, contentLength)) {
+                return Map.of();
+            }
+            return content;
+        } catch (IOException ex) {
+            return Map.of();
+        }
+    }
+
+    private static boolean hasValidHeader(DataInputStream input) throws IOException {
+        return input.readInt() == MAGIC && input.readInt() == VERSION;
+    }
+
+    private static Map<String, Entry> readEntries(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        Map<String, Entry> content = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            content.put(input.readUTF(), Entry.readFrom(input));
+        }
+        return content;
+    }
+
+    private static long checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+
+    private record Entry(long size, long lastModified, String fileKey, int lines) {
+
+        static Entry of(BasicFileAttributes attributes, int lines) {
+            return new Entry(
+                    attributes.size(),
+                    attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    Objects.toString(attributes.fileKey(), ""),
+                    lines);
+        }
+
+        static Entry readFrom(DataInputStream input) throws IOException {
+            return new Entry(input.readLong(), input.readLong(), input.readUTF(), input.readInt());
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return equals(of(attributes, lines));
+        }
+
+        void writeTo(DataOutputStream output) throws IOException {
+            output.writeLong(size);
+            output.writeLong(lastModified);
+            output.writeUTF(fileKey);
+            output.writeInt(lines);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Counts lines of a file working on raw bytes, so the file encoding does not matter.
+ * <p>
+ * The rules are the same as for {@link java.io.BufferedReader#readLine()}: a line is terminated by LF, CR or CRLF,
+ * and the last line is counted even if it is not terminated. A BOM is just a part of the first line.
+ * The buffer is pooled per thread, and the bytes are scanned a whole word at a time,
+ * so counting a file allocates nothing but the file channel.
+ * </p>
+ */
+final class LineCounter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LINE_FEEDS = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+    private static final ThreadLocal<LineCounter> COUNTERS = ThreadLocal.withInitial(LineCounter::new);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int lines;
+    private boolean afterCarriageReturn;
+    private boolean lineOpen;
+
+    private LineCounter() {
+    }
+
+    static int countLines(Path file) throws IOException {
+        return COUNTERS.get().count(file);
+    }
+
+    /**
+     * @param content the content of a file, e.g. inflated from an archive, it is read to the end but not closed
+     * @return the number of lines of the content
+     * @throws IOException if the content can not be read
+     */
+    static int countLines(InputStream content) throws IOException {
+        return COUNTERS.get().count(Channels.newChannel(content));
+    }
+
+    private int count(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return count(channel);
+        }
+    }
+
+    private int count(ReadableByteChannel channel) throws IOException {
+        lines = 0;
+        afterCarriageReturn = false;
+        lineOpen = false;
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            scan(buffer);
+            buffer.clear();
+        }
+        if (lineOpen) {
+            lines++;
+        }
+        return lines;
+    }
+
+    private void scan(ByteBuffer bytes) {
+        while (bytes.remaining() >= Long.BYTES) {
+            long word = bytes.getLong();
+            if (containsLineTerminator(word)) {
+                scanWord(word);
+            } else {
+                afterCarriageReturn = false;
+                lineOpen = true;
+            }
+        }
+        while (bytes.hasRemaining()) {
+            scanByte(bytes.get());
+        }
+    }
+
+    private void scanWord(long word) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            scanByte((byte) (word >>> shift));
+        }
+    }
+
+    private void scanByte(byte value) {
+        boolean lineTerminator = value == '\n' || value == '\r';
+        if (lineTerminator && !(value == '\n' && afterCarriageReturn)) {
+            lines++;
+        }
+        afterCarriageReturn = value == '\r';
+        lineOpen = !lineTerminator;
+    }
+
+    private static boolean containsLineTerminator(long word) {
+        return containsZeroByte(word ^ LINE_FEEDS) || containsZeroByte(word ^ CARRIAGE_RETURNS);
+    }
+
+    private static boolean containsZeroByte(long word) {
+        return ((word - ONES) & ~word & HIGH_BITS) != 0;
+    }
+}
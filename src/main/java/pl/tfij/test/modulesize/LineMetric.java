@@ -0,0 +1,31 @@
+package pl.tfij.test.modulesize;
+
+/**
+ * The kind of lines the size of a module is measured in.
+ * <p>
+ * All the metrics but {@link #LINES} require the lines to be classified during the analysis.
+ * </p>
+ *
+ * @see ModuleSizeCalculator.ModuleSizeCalculatorBuilder#classifyLines()
+ */
+public enum LineMetric {
+    /**
+     * All physical lines of the files.
+     */
+    LINES,
+
+    /**
+     * Lines containing anything but whitespace and comments.
+     */
+    CODE_LINES,
+
+    /**
+     * Lines containing only comments and whitespace.
+     */
+    COMMENT_LINES,
+
+    /**
+     * Lines containing only whitespace.
+     */
+    BLANK_LINES
+}
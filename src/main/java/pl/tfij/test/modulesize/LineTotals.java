@@ -0,0 +1,26 @@
+package pl.tfij.test.modulesize;
+
+/**
+ * Numbers of lines of a module or of the whole project, for each {@link LineMetric}.
+ * The code, comment and blank lines are zero unless the lines were classified.
+ *
+ * @param lines all physical lines
+ * @param codeLines lines containing code
+ * @param commentLines lines containing only comments
+ * @param blankLines lines containing only whitespace
+ */
+record LineTotals(long lines, long codeLines, long commentLines, long blankLines) {
+
+    long get(LineMetric metric) {
+        return switch (metric) {
+            case LINES -> lines;
+            case CODE_LINES -> codeLines;
+            case COMMENT_LINES -> commentLines;
+            case BLANK_LINES -> blankLines;
+        };
+    }
+
+    LineTotals plus(LineTotals other) {
+        return new LineTotals(lines + other.lines, codeLines + other.codeLines, commentLines + other.commentLines, blankLines + other.blankLines);
+    }
+}
@@ -0,0 +1,72 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The Mermaid pie chart of the number of lines of code of each module, sorted by the module name.
+ */
+final class MermaidPieChart implements SummaryReporter {
+    private final Writer out;
+    private boolean firstModule = true;
+
+    MermaidPieChart(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @param modules the analyzed modules, sorted by the module name
+     * @param totalLinesOfCode the number of lines of code of the project
+     * @return the chart
+     */
+    static String create(List<ProjectSummary.ModuleSummary> modules, long totalLinesOfCode) {
+        StringWriter chart = new StringWriter();
+        try {
+            write(new MermaidPieChart(chart), modules, totalLinesOfCode);
+        } catch (IOException ex) {
+            throw new IllegalStateException("StringWriter does not throw IOException.", ex);
+        }
+        return chart.toString();
+    }
+
+    // the chart is streamed to the file, without creating it in memory
+    static void save(List<ProjectSummary.ModuleSummary> modules, long totalLinesOfCode, Path target) {
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            write(new MermaidPieChart(writer), modules, totalLinesOfCode);
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("IO error occur on saving mermaid chart to %s.".formatted(target.toAbsolutePath()), ex);
+        }
+    }
+
+    private static void write(MermaidPieChart chart, List<ProjectSummary.ModuleSummary> modules, long totalLinesOfCode) throws IOException {
+        chart.start(modules.stream().mapToLong(ProjectSummary.ModuleSummary::totalNumberOfFiles).sum(), totalLinesOfCode);
+        for (ProjectSummary.ModuleSummary module : modules) {
+            chart.module(module);
+        }
+        chart.end();
+    }
+
+    @Override
+    public void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException {
+        out.write("pie showData title Modules size (Total LOC: %d)\n".formatted(totalLinesOfCode));
+    }
+
+    @Override
+    public void module(ProjectSummary.ModuleSummary module) throws IOException {
+        if (!firstModule) {
+            out.write('\n');
+        }
+        firstModule = false;
+        out.write("    \"" + module.moduleName() + "\" : " + module.totalLinesOfCode());
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+}
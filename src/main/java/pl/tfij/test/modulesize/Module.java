@@ -3,17 +3,17 @@ package pl.tfij.test.modulesize;
 import java.nio.file.Path;
 import java.util.Optional;
 
-record FileInModule(String file, Optional<Module> module, int lineOfCode) {
+sealed interface Module permits Module.DefinedModule, Module.UndefinedModule {
 
-    sealed interface Module permits DefinedModule, UndefinedModule {
+    String name();
+    Optional<DefinedModule> definedModule();
 
-        String name();
-        Optional<DefinedModule> definedModule();
+    Module UNDEFINED_MODULE = new UndefinedModule();
 
-        Module UNDEFINED_MODULE = new UndefinedModule();
-    }
+    final class UndefinedModule implements Module {
+        private UndefinedModule() {
+        }
 
-    private static final class UndefinedModule implements Module {
         @Override
         public String name() {
             return "undefined";
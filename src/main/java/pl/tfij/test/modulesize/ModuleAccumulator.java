@@ -0,0 +1,140 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Mutable, not thread-safe aggregate of files per module.
+ * Every worker of a scan fills its own instance, all of them are merged at the end.
+ * Counters are primitive arrays indexed by the module ordinal of {@link ModuleMatcher},
+ * so adding a file allocates nothing unless file details are kept.
+ * The classified lines are kept in a single array with a slot for each kind of line per module.
+ * The arrays grow when a file of a module discovered during the scan is added.
+ */
+final class ModuleAccumulator {
+    private static final int CODE_LINES = 0;
+    private static final int COMMENT_LINES = 1;
+    private static final int BLANK_LINES = 2;
+    private static final int LINE_KINDS = 3;
+
+    private long[] numberOfFiles;
+    private long[] linesOfCode;
+    private long[] classifiedLines;
+    private final boolean fileDetails;
+    private final Map<String, Integer> filesLinesOfCode = new HashMap<>();
+
+    ModuleAccumulator(int numberOfModules, boolean fileDetails) {
+        this.numberOfFiles = new long[numberOfModules];
+        this.linesOfCode = new long[numberOfModules];
+        this.classifiedLines = new long[numberOfModules * LINE_KINDS];
+        this.fileDetails = fileDetails;
+    }
+
+    boolean keepsFileDetails() {
+        return fileDetails;
+    }
+
+    void add(int module, int fileLinesOfCode) {
+        ensureModule(module);
+        numberOfFiles[module]++;
+        linesOfCode[module] += fileLinesOfCode;
+    }
+
+    void add(String file, int module, int fileLinesOfCode) {
+        add(module, fileLinesOfCode);
+        if (fileDetails) {
+            filesLinesOfCode.put(file, fileLinesOfCode);
+        }
+    }
+
+    void addModule(int module, long moduleNumberOfFiles, long moduleLinesOfCode) {
+        ensureModule(module);
+        numberOfFiles[module] += moduleNumberOfFiles;
+        linesOfCode[module] += moduleLinesOfCode;
+    }
+
+    // the files are already counted in the totals of their modules
+    void addFileDetails(Map<String, Integer> files) {
+        if (fileDetails) {
+            filesLinesOfCode.putAll(files);
+        }
+    }
+
+    void addClassified(int module, int codeLines, int commentLines, int blankLines) {
+        ensureModule(module);
+        classifiedLines[module * LINE_KINDS + CODE_LINES] += codeLines;
+        classifiedLines[module * LINE_KINDS + COMMENT_LINES] += commentLines;
+        classifiedLines[module * LINE_KINDS + BLANK_LINES] += blankLines;
+    }
+
+    // the arrays at least double, so a scan discovering many modules grows them a few times only
+    private void ensureModule(int module) {
+        if (module >= numberOfFiles.length) {
+            int numberOfModules = Math.max(module + 1, numberOfFiles.length * 2);
+            numberOfFiles = Arrays.copyOf(numberOfFiles, numberOfModules);
+            linesOfCode = Arrays.copyOf(linesOfCode, numberOfModules);
+            classifiedLines = Arrays.copyOf(classifiedLines, numberOfModules * LINE_KINDS);
+        }
+    }
+
+    // requires file details to know the number of lines of the removed file
+    void remove(String file, int module) {
+        Integer fileLinesOfCode = filesLinesOfCode.remove(file);
+        if (fileLinesOfCode != null) {
+            numberOfFiles[module]--;
+            linesOfCode[module] -= fileLinesOfCode;
+        }
+    }
+
+    List<String> filesIn(String directoryPrefix) {
+        return filesLinesOfCode.keySet().stream()
+                .filter(it -> it.startsWith(directoryPrefix))
+                .toList();
+    }
+
+    ModuleAccumulator merge(ModuleAccumulator other) {
+        ensureModule(other.numberOfFiles.length - 1);
+        for (int module = 0; module < other.numberOfFiles.length; module++) {
+            numberOfFiles[module] += other.numberOfFiles[module];
+            linesOfCode[module] += other.linesOfCode[module];
+        }
+        for (int i = 0; i < other.classifiedLines.length; i++) {
+            classifiedLines[i] += other.classifiedLines[i];
+        }
+        filesLinesOfCode.putAll(other.filesLinesOfCode);
+        return this;
+    }
+
+    Map<Module, ModulePartialSummary> summarize(ModuleMatcher moduleMatcher) {
+        LineTotals projectLines = new LineTotals(0, 0, 0, 0);
+        for (int module = 0; module < numberOfFiles.length; module++) {
+            projectLines = projectLines.plus(lineTotals(module));
+        }
+        Map<Module, ModulePartialSummary> summary = new HashMap<>();
+        for (int module = 0; module < numberOfFiles.length; module++) {
+            if (numberOfFiles[module] > 0) {
+                Module definition = moduleMatcher.module(module);
+                summary.put(definition, new ModulePartialSummary(definition, numberOfFiles[module], lineTotals(module), projectLines));
+            }
+        }
+        return summary;
+    }
+
+    private LineTotals lineTotals(int module) {
+        return new LineTotals(
+                linesOfCode[module],
+                classifiedLines[module * LINE_KINDS + CODE_LINES],
+                classifiedLines[module * LINE_KINDS + COMMENT_LINES],
+                classifiedLines[module * LINE_KINDS + BLANK_LINES]);
+    }
+
+    Optional<Map<String, Integer>> fileDetails() {
+        if (!fileDetails) {
+            return Optional.empty();
+        }
+        return Optional.of(Map.copyOf(filesLinesOfCode));
+    }
+}
@@ -0,0 +1,156 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Immutable index of the modules of a project summary, built once when the summary is created.
+ * <p>
+ * The totals, the modules by name, the empty modules, the modules and their public summaries sorted by name, the largest module
+ * of each {@link LineMetric} and the {@link ModuleTree} are computed up front, so every query of the summary is a lookup instead of a pass
+ * over all the modules. The Mermaid pie chart and the files sorted by path are created once, on the first request.
+ * If several defined modules have the same name, the first one is found by the name.
+ * </p>
+ */
+final class ModuleIndex {
+    private final Map<String, Module> definedModulesByName = new HashMap<>();
+    private final Map<Module, ModulePartialSummary> analyzedModules;
+    private final List<ModulePartialSummary> modulesByName;
+    private final List<ProjectSummary.ModuleSummary> modulesSummary;
+    private final List<Module> emptyModules;
+    private final Map<LineMetric, ModulePartialSummary> largestModules = new EnumMap<>(LineMetric.class);
+    private final boolean linesClassified;
+    private final long numberOfFiles;
+    private final long linesOfCode;
+    private final ModuleTree moduleTree;
+    private final Optional<Map<String, Integer>> fileDetails;
+
+    /**
+     * The memoized chart. A race only creates an equal chart twice, the String is safely published by its final fields.
+     */
+    private String mermaidPieChart;
+
+    /**
+     * The memoized sorted files. A race only sorts the files twice, the sorted files are safely published by their final fields.
+     */
+    private SortedFiles sortedFiles;
+
+    ModuleIndex(
+            List<Module> definedModules,
+            Map<Module, ModulePartialSummary> analyzedModules,
+            boolean linesClassified,
+            Optional<Map<String, Integer>> fileDetails) {
+        definedModules.forEach(module -> definedModulesByName.putIfAbsent(module.name(), module));
+        this.analyzedModules = analyzedModules;
+        modulesByName = analyzedModules.values().stream().sorted(Comparator.comparing(it -> it.module().name())).toList();
+        modulesSummary = modulesByName.stream().map(ModuleIndex::moduleSummary).toList();
+        emptyModules = definedModules.stream().filter(it -> !analyzedModules.containsKey(it)).toList();
+        for (LineMetric metric : LineMetric.values()) {
+            modulesByName.stream()
+                    .max(Comparator.comparingDouble(it -> it.relativeModuleSize(metric)))
+                    .ifPresent(it -> largestModules.put(metric, it));
+        }
+        this.linesClassified = linesClassified;
+        numberOfFiles = modulesByName.stream().mapToLong(ModulePartialSummary::numberOfFiles).sum();
+        linesOfCode = modulesByName.stream().mapToLong(ModulePartialSummary::moduleLinesOfCode).sum();
+        moduleTree = new ModuleTree(definedModules, analyzedModules);
+        this.fileDetails = fileDetails;
+    }
+
+    Optional<Module> definedModule(String name) {
+        return Optional.ofNullable(definedModulesByName.get(name));
+    }
+
+    Optional<ModulePartialSummary> analyzedModule(Module module) {
+        return Optional.ofNullable(analyzedModules.get(module));
+    }
+
+    /**
+     * Verifies a rule of a single defined module by a lookup, without a pass over all the modules.
+     *
+     * @param name the name of the defined module
+     * @param rule creates the rule once the module is found, so an undefined module is reported before invalid arguments of the rule
+     * @throws IllegalArgumentException if the module is not defined or the arguments of the rule are invalid
+     * @throws IllegalStateException    if the rule requires classified lines and the lines were not classified
+     * @throws AssertionError           if the module violates the rule
+     */
+    void verifyModule(String name, Supplier<ModuleRule> rule) {
+        Module module = definedModule(name)
+                .orElseThrow(() -> new IllegalArgumentException("Module `%s` was not defined.".formatted(name)));
+        ModuleRule moduleRule = rule.get();
+        moduleRule.verifyLinesClassified(linesClassified);
+        analyzedModule(module).ifPresent(moduleRule::verify);
+    }
+
+    List<Module> emptyModules() {
+        return emptyModules;
+    }
+
+    Optional<ModulePartialSummary> largestModule(LineMetric metric) {
+        return Optional.ofNullable(largestModules.get(metric));
+    }
+
+    List<ModulePartialSummary> modulesByName() {
+        return modulesByName;
+    }
+
+    String mermaidPieChart() {
+        String chart = mermaidPieChart;
+        if (chart == null) {
+            chart = MermaidPieChart.create(modulesSummary, linesOfCode);
+            mermaidPieChart = chart;
+        }
+        return chart;
+    }
+
+    Optional<Map<String, Integer>> fileDetails() {
+        return fileDetails;
+    }
+
+    Optional<SortedFiles> sortedFiles() {
+        return fileDetails.map(files -> {
+            SortedFiles sorted = sortedFiles;
+            if (sorted == null) {
+                sorted = SortedFiles.of(files);
+                sortedFiles = sorted;
+            }
+            return sorted;
+        });
+    }
+
+    List<ProjectSummary.ModuleSummary> modulesSummary() {
+        return modulesSummary;
+    }
+
+    ModuleTree moduleTree() {
+        return moduleTree;
+    }
+
+    boolean linesClassified() {
+        return linesClassified;
+    }
+
+    long numberOfFiles() {
+        return numberOfFiles;
+    }
+
+    long linesOfCode() {
+        return linesOfCode;
+    }
+
+    static ProjectSummary.ModuleSummary moduleSummary(ModulePartialSummary module) {
+        return new ProjectSummary.ModuleSummary(
+                module.module().name(),
+                module.numberOfFiles(),
+                module.moduleLinesOfCode(),
+                module.relativeModuleSize(),
+                module.moduleLines().codeLines(),
+                module.moduleLines().commentLines(),
+                module.moduleLines().blankLines());
+    }
+}
@@ -0,0 +1,214 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Matches files to modules using a trie of module directory names.
+ * <p>
+ * A file belongs to the module with the longest directory being a prefix of the file path,
+ * so nested modules resolve to the most specific one regardless of the registration order.
+ * Modules are identified by dense ordinals, {@link #UNDEFINED} for files outside of all the modules,
+ * then the defined modules in the registration order, so the aggregates can be indexed arrays.
+ * The module of each directory is resolved once and memoized, files of the same directory reuse it.
+ * It is safe to use by many threads.
+ * </p>
+ * <p>
+ * Modules can also be discovered: every directory the given number of levels below a package prefix is a module
+ * named after its package. It is registered when the first directory inside it is matched, so the modules are found
+ * in the same traversal that counts the files, and get the next ordinals. A directory already being a defined module
+ * is not discovered again, and the longest prefix rule applies to the discovered modules the same way.
+ * The trie changes only below the package prefixes, so only the directories inside them are matched under a lock.
+ * </p>
+ */
+final class ModuleMatcher {
+    static final int UNDEFINED = 0;
+    private static final String DISCOVERY_PROBE = "module";
+
+    private final Node root = new Node();
+    private final List<Module> modules = new CopyOnWriteArrayList<>();
+    private final Map<Path, Integer> directoryModules = new ConcurrentHashMap<>();
+    private final List<ModuleDiscovery> discoveries;
+
+    ModuleMatcher(List<Module> definedModules) {
+        this(definedModules, List.of());
+    }
+
+    ModuleMatcher(List<Module> definedModules, List<ModuleDiscovery> discoveries) {
+        modules.add(Module.UNDEFINED_MODULE);
+        definedModules.stream()
+                .flatMap(it -> it.definedModule().stream())
+                .forEach(this::register);
+        discoveries.forEach(it -> node(it.prefixDir()).discovery = Optional.of(it));
+        this.discoveries = List.copyOf(discoveries);
+    }
+
+    private void register(Module.DefinedModule module) {
+        int ordinal = modules.size();
+        modules.add(module);
+        Node node = node(module.moduleDir());
+        if (node.module == UNDEFINED) {
+            node.module = ordinal;
+        }
+    }
+
+    private Node node(Path directory) {
+        Node node = root;
+        for (Path name : directory) {
+            node = node.children.computeIfAbsent(name.toString(), it -> new Node());
+        }
+        return node;
+    }
+
+    /**
+     * @param file the file path starting with the project root directory
+     * @return the ordinal of the module of the file
+     */
+    int match(Path file) {
+        Path directory = file.getParent();
+        if (directory == null) {
+            return UNDEFINED;
+        }
+        return directoryModules.computeIfAbsent(directory, this::matchDirectory);
+    }
+
+    // without a package prefix on the path, the nodes read were all created with the matcher and never change
+    private int matchDirectory(Path directory) {
+        int module = UNDEFINED;
+        Node node = root;
+        for (int i = 0; i < directory.getNameCount(); i++) {
+            if (node.discovery.isPresent()) {
+                return matchDiscovering(directory);
+            }
+            node = node.children.get(directory.getName(i).toString());
+            if (node == null) {
+                return module;
+            }
+            if (node.module != UNDEFINED) {
+                module = node.module;
+            }
+        }
+        return module;
+    }
+
+    // synchronized as it may register a discovered module, it runs once per directory
+    private synchronized int matchDiscovering(Path directory) {
+        int module = UNDEFINED;
+        Node node = root;
+        for (int i = 0; i < directory.getNameCount(); i++) {
+            discover(node, directory, i);
+            node = node.children.get(directory.getName(i).toString());
+            if (node == null) {
+                return module;
+            }
+            if (node.module != UNDEFINED) {
+                module = node.module;
+            }
+        }
+        return module;
+    }
+
+    private void discover(Node prefixNode, Path directory, int prefixLength) {
+        prefixNode.discovery
+                .filter(it -> directory.getNameCount() >= prefixLength + it.depth())
+                .ifPresent(it -> discover(it, directory, prefixLength, prefixLength + it.depth()));
+    }
+
+    private void discover(ModuleDiscovery discovery, Path directory, int prefixLength, int moduleLength) {
+        Path moduleDir = directory;
+        while (moduleDir.getNameCount() > moduleLength) {
+            moduleDir = moduleDir.getParent();
+        }
+        Node node = node(moduleDir);
+        if (node.module == UNDEFINED) {
+            node.module = modules.size();
+            modules.add(new Module.DefinedModule(discovery.moduleName(moduleDir.subpath(prefixLength, moduleLength)), moduleDir));
+        }
+    }
+
+    /**
+     * Finds the modules by their names, e.g. of a baseline, without matching their files.
+     * A discoverable module is registered as if a file of its directory was matched.
+     *
+     * @param moduleNames the names of defined or discoverable modules
+     * @return the ordinal of the first module of each of the names, the names of no module are missing
+     */
+    Map<String, Integer> ordinals(List<String> moduleNames) {
+        for (String moduleName : moduleNames) {
+            discoveries.stream()
+                    .flatMap(it -> it.moduleDir(moduleName).stream())
+                    .findFirst()
+                    .ifPresent(moduleDir -> match(moduleDir.resolve(DISCOVERY_PROBE)));
+        }
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int ordinal = UNDEFINED + 1; ordinal < modules.size(); ordinal++) {
+            ordinals.putIfAbsent(modules.get(ordinal).name(), ordinal);
+        }
+        return ordinals;
+    }
+
+    Module module(int ordinal) {
+        return modules.get(ordinal);
+    }
+
+    List<Module> definedModules() {
+        return List.copyOf(modules.subList(UNDEFINED + 1, modules.size()));
+    }
+
+    /**
+     * @return the number of module ordinals so far, including the undefined module, discovered modules are added later
+     */
+    int numberOfModules() {
+        return modules.size();
+    }
+
+    /**
+     * @param packagePrefix the package of the discovered modules, empty for the top-level packages
+     * @param prefixDir the directory of the package prefix
+     * @param depth the number of levels below the package prefix, positive
+     */
+    record ModuleDiscovery(String packagePrefix, Path prefixDir, int depth) {
+
+        String moduleName(Path packageDirs) {
+            Stream<String> packages = IntStream.range(0, packageDirs.getNameCount()).mapToObj(i -> packageDirs.getName(i).toString());
+            return Stream.concat(Stream.of(packagePrefix).filter(it -> !it.isEmpty()), packages).collect(Collectors.joining("."));
+        }
+
+        /**
+         * @param moduleName the name of a module
+         * @return the directory of the module of the name, if it would be discovered by this discovery
+         */
+        Optional<Path> moduleDir(String moduleName) {
+            String packages = moduleName;
+            if (!packagePrefix.isEmpty()) {
+                if (!moduleName.startsWith(packagePrefix + ".")) {
+                    return Optional.empty();
+                }
+                packages = moduleName.substring(packagePrefix.length() + 1);
+            }
+            List<String> names = List.of(packages.split("\\."));
+            if (names.size() != depth) {
+                return Optional.empty();
+            }
+            Path moduleDir = prefixDir;
+            for (String name : names) {
+                moduleDir = moduleDir.resolve(name);
+            }
+            return Optional.of(moduleDir);
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private int module = UNDEFINED;
+        private Optional<ModuleDiscovery> discovery = Optional.empty();
+    }
+}
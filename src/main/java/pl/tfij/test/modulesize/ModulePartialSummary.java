@@ -1,17 +1,24 @@
 package pl.tfij.test.modulesize;
 
-import java.util.List;
+record ModulePartialSummary(Module module, long numberOfFiles, LineTotals moduleLines, LineTotals projectLines) {
 
-record ModulePartialSummary(FileInModule.Module module, int numberOfFiles, int moduleLinesOfCode, int projectLinesOfCode) {
-
-    static ModulePartialSummary aggregate(List<FileInModule> fileInModules, int projectLinesOfCode) {
-        FileInModule.Module module = fileInModules.get(0).module().orElse(FileInModule.Module.UNDEFINED_MODULE);
-        int numberOfFiles = fileInModules.size();
-        int totalLinesOfCode = fileInModules.stream().mapToInt(it -> it.lineOfCode()).sum();
-        return new ModulePartialSummary(module, numberOfFiles, totalLinesOfCode, projectLinesOfCode);
+    long moduleLinesOfCode() {
+        return moduleLines.lines();
     }
 
     double relativeModuleSize() {
-        return 1.0 * moduleLinesOfCode / projectLinesOfCode;
+        return relativeModuleSize(LineMetric.LINES);
+    }
+
+    double relativeModuleSize(LineMetric metric) {
+        return relativeSize(moduleLines.get(metric), projectLines.get(metric));
+    }
+
+    // a project without lines has no module taking any part of it, instead of dividing zero by zero
+    static double relativeSize(long moduleLines, long projectLines) {
+        if (projectLines == 0) {
+            return 0;
+        }
+        return 1.0 * moduleLines / projectLines;
     }
 }
@@ -0,0 +1,33 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Optional;
+
+/**
+ * A rule of the size of a single analyzed module. The arguments of a rule are validated when it is created,
+ * whether the project was analyzed the way the rule requires is checked before the modules are verified.
+ */
+interface ModuleRule {
+
+    /**
+     * @param module the analyzed module
+     * @return the description of the violation of the rule by the module, or empty if the module obeys the rule
+     */
+    Optional<String> violation(ModulePartialSummary module);
+
+    /**
+     * @return the kind of lines the rule measures the module in
+     */
+    LineMetric metric();
+
+    default void verifyLinesClassified(boolean linesClassified) {
+        if (metric() != LineMetric.LINES && !linesClassified) {
+            throw new IllegalStateException("%s require classified lines. Analyze the project with classifyLines().".formatted(metric()));
+        }
+    }
+
+    default void verify(ModulePartialSummary module) {
+        violation(module).ifPresent(message -> {
+            throw new AssertionError(message);
+        });
+    }
+}
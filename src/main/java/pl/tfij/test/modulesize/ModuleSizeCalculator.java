@@ -1,19 +1,10 @@
 package pl.tfij.test.modulesize;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 /**
  * The ModuleSizeCalculator class calculates the size of modules in a project.
@@ -22,101 +13,41 @@ import java.util.stream.Stream;
  * This class uses the ModuleSizeCalculatorBuilder inner class to provide a fluent API for configuring modules.
  * </p>
  */
-public class ModuleSizeCalculator {
-    private final List<FileInModule.Module> modules;
-    private final String rootDir;
+public final class ModuleSizeCalculator {
 
-    /**
-     * Accept all if empty.
-     * To include file without extension the collection should contains empty string
-     */
-    private final Set<String> includeOnlyFilesWithExtension;
-
-    ModuleSizeCalculator(List<FileInModule.Module> modules, String rootDir, Set<String> includeOnlyFilesWithExtension) {
-        this.includeOnlyFilesWithExtension = includeOnlyFilesWithExtension;
-        this.modules = modules;
-        this.rootDir = rootDir;
+    private ModuleSizeCalculator() {
     }
 
     /**
      * Creates a new ModuleSizeCalculatorBuilder instance for a project located at the specified root directory.
+     * The root may also be a zip, jar or gzip archive of the project, read without extracting it.
      *
-     * @param rootDir The root directory of the project.
+     * @param rootDir The root directory of the project, or its archive.
      * @return A ModuleSizeCalculatorBuilder instance initialized with the project's root directory.
      */
     public static ModuleSizeCalculatorBuilder project(String rootDir) {
         return new ModuleSizeCalculatorBuilder(rootDir);
     }
 
-    private Map<FileInModule.Module, ModulePartialSummary> calculate() {
-        List<FileInModule> pathStream = getAllFilesInDirectory(Paths.get(rootDir)).stream()
-                .filter(this::includeFile)
-                .map(it -> new FileInModule(
-                        it.toString(),
-                        matchModule(it, modules),
-                        countLines(it)))
-                .toList();
-        int projectLinesOfCode = pathStream.stream().mapToInt(it -> it.lineOfCode()).sum();
-        return pathStream.stream()
-                .collect(Collectors.groupingBy(it -> it.module()))
-                .values()
-                .stream()
-                .map(it -> ModulePartialSummary.aggregate(it, projectLinesOfCode))
-                .collect(Collectors.toMap(it -> it.module(), it -> it));
-    }
-
-    private boolean includeFile(Path path) {
-        if (includeOnlyFilesWithExtension.isEmpty()) {
-            return true;
-        }
-        return includeOnlyFilesWithExtension.contains(getFileExtension(path));
-    }
-
-    private static String getFileExtension(Path path) {
-        String fileName = path.getFileName().toString();
-        int dotIndex = fileName.lastIndexOf('.');
-        if (dotIndex == -1 || dotIndex == fileName.length() - 1) {
-            return "";
-        }
-        return fileName.substring(dotIndex + 1);
-    }
-
-    private Optional<FileInModule.Module> matchModule(Path file, List<FileInModule.Module> modules) {
-        return modules.stream()
-                .flatMap(it -> it.definedModule().stream())
-                .filter(module -> isSubpath(file, module.moduleDir()))
-                .<FileInModule.Module>map(it -> it)
-                .findFirst();
-    }
-
-    private static boolean isSubpath(Path path1, Path path2) {
-        if (path1.getNameCount() < path2.getNameCount()) {
-            return false;
-        }
-        Path subpath = path1.subpath(0, path2.getNameCount());
-        return subpath.equals(path2);
-    }
-
-    private static List<Path> getAllFilesInDirectory(Path directory) {
-        try (Stream<Path> paths = Files.walk(directory)) {
-            return paths.filter(Files::isRegularFile).toList();
-        } catch (IOException ex) {
-            throw new ModuleSizeCalculatorException("Error occur on scanning project in `%s` directory.".formatted(directory.toAbsolutePath()), ex);
-        }
-    }
-
-    private static int countLines(Path filePath) {
-        try {
-            int lineCount = 0;
-            try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-                while (reader.readLine() != null) {
-                    lineCount++;
-                }
-            }
-            return lineCount;
-        } catch (IOException ex) {
-            throw new ModuleSizeCalculatorException("Error occur on counting lines of `%s` file.".formatted(filePath), ex);
-        }
+    /**
+     * Analyzes several configurations of the same project, e.g. with different modules or included files,
+     * in a single traversal of the project tree. Each file is read at most once and its number of lines
+     * is added to every configuration including it. Directories are skipped only if excluded by all the configurations.
+     * <p>
+     * The traversal uses the highest parallelism of the configurations, and the line count cache and concurrent reads of the first configuration having them.
+     * </p>
+     *
+     * @param configurations The configurations of the same project root directory.
+     * @return The summary of each configuration, in the order of the given configurations.
+     * @throws IllegalArgumentException if no configuration is given or the configurations have different root directories
+     * @throws IllegalStateException if the archives are read with concurrent reads
+     */
+    public static List<ProjectSummary> analyzeTogether(ModuleSizeCalculatorBuilder... configurations) {
+        List<ModuleSizeCalculatorBuilder> builders = List.of(configurations);
+        ProjectAnalysis analysis = ProjectAnalysis.together(
+                builders.stream().map(ModuleSizeCalculatorBuilder::configuration).toList(),
+                builders.stream().map(it -> it.scanOptions).toList());
+        return analysis.analyze();
     }
 
     /**
@@ -127,12 +58,13 @@ public class ModuleSizeCalculator {
      * </p>
      */
     public static class ModuleSizeCalculatorBuilder {
-        private final String rootDir;
-        private final List<FileInModule.Module> modules = new ArrayList<>();
-        private final Set<String> includeOnlyFilesWithExtension = new HashSet<>();
+        private final ProjectLayout layout;
+        private ScanOptions scanOptions = ScanOptions.SEQUENTIAL;
+        private boolean fileDetails;
+        private boolean classifyLines;
 
         ModuleSizeCalculatorBuilder(String rootDir) {
-            this.rootDir = rootDir;
+            this.layout = new ProjectLayout(rootDir);
         }
 
         /**
@@ -142,8 +74,7 @@ public class ModuleSizeCalculator {
          * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
          */
         public ModuleSizeCalculatorBuilder withModule(String modulePackage) {
-            FileInModule.Module module = new FileInModule.DefinedModule(modulePackage, Paths.get(rootDir + "/" + modulePackage.replaceAll("\\.", "/")));
-            modules.add(module);
+            layout.addPackageModule(modulePackage);
             return this;
         }
 
@@ -154,7 +85,23 @@ public class ModuleSizeCalculator {
          * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
          */
         public ModuleSizeCalculatorBuilder withDirModule(String path) {
-            modules.add(new FileInModule.DefinedModule(path, Paths.get(rootDir + "/" + path)));
+            layout.addDirModule(path);
+            return this;
+        }
+
+        /**
+         * Makes every package the given number of levels below the package prefix a module, e.g. with the prefix {@code com.example}
+         * and the depth one, {@code com.example.orders} is a module and {@code com.example.orders.api} is a part of it.
+         * The packages are discovered during the traversal of the project. The summary is the same as for declaring each of them
+         * with {@link #withModule(String)}, but a package without analyzed files is not a module. Declared modules take precedence.
+         *
+         * @param packagePrefix The package of the discovered modules. Empty for the top-level packages.
+         * @param depth The number of package levels below the prefix. One for the direct subpackages.
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @throws IllegalArgumentException if the depth is not a positive number.
+         */
+        public ModuleSizeCalculatorBuilder discoverModules(String packagePrefix, int depth) {
+            layout.discoverPackageModules(packagePrefix, depth);
             return this;
         }
 
@@ -167,7 +114,128 @@ public class ModuleSizeCalculator {
          * @return The instance of the builder class on which the method was called.
          */
         public ModuleSizeCalculatorBuilder include(String... fileExtension) {
-            includeOnlyFilesWithExtension.addAll(Arrays.asList(fileExtension));
+            layout.include(Arrays.asList(fileExtension));
+            return this;
+        }
+
+        /**
+         * Excludes files and directories matching any of the given patterns from the analysis.
+         * The patterns use the .gitignore syntax and are relative to the project root directory,
+         * e.g. {@code build/}, {@code /generated/} or {@code *.min.js}.
+         * Excluded directories are skipped during the traversal, so their content is never read.
+         *
+         * @param patterns The patterns of excluded files and directories.
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         */
+        public ModuleSizeCalculatorBuilder exclude(String... patterns) {
+            layout.exclude(Arrays.asList(patterns));
+            return this;
+        }
+
+        /**
+         * Skips files and directories ignored by git: the rules of the .gitignore files, both in the project
+         * and in its parent directories up to the repository root, and of {@code .git/info/exclude}.
+         * The {@code .git} directory is skipped as well. Ignored directories are not entered during the traversal.
+         *
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         */
+        public ModuleSizeCalculatorBuilder respectGitignore() {
+            layout.respectGitignore();
+            return this;
+        }
+
+        /**
+         * Counts the files packed in the zip, jar and gzip archives found in the project instead of the archives themselves.
+         * An archive root is read anyway. An archive that cannot be read is counted as a plain file.
+         *
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         */
+        public ModuleSizeCalculatorBuilder readArchives() {
+            layout.readArchives();
+            return this;
+        }
+
+        /**
+         * Counts the files in parallel using as many threads as there are available processors.
+         * The resulting summary is the same as for the sequential analysis.
+         *
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         */
+        public ModuleSizeCalculatorBuilder parallel() {
+            return parallel(Runtime.getRuntime().availableProcessors());
+        }
+
+        /**
+         * Counts the files in parallel using the given number of threads.
+         * Each thread aggregates its own part of the files and the partial results are merged at the end,
+         * so the resulting summary is the same as for the sequential analysis.
+         *
+         * @param parallelism The number of threads counting files. One means sequential analysis.
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @throws IllegalArgumentException if the parallelism is not a positive number.
+         */
+        public ModuleSizeCalculatorBuilder parallel(int parallelism) {
+            scanOptions = scanOptions.withParallelism(parallelism);
+            return this;
+        }
+
+        /**
+         * Stores the number of lines of each analyzed file in the given cache file, e.g. {@code build/module-size.cache}.
+         * The next analysis reads only the files whose size, last modification time or file key changed since then.
+         * The cache file can be safely shared by several JVMs, e.g. Gradle test forks.
+         *
+         * @param cacheFile The path of the cache file. It is created if it does not exist.
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @throws IllegalArgumentException if the cacheFile is null
+         */
+        public ModuleSizeCalculatorBuilder withLineCountCache(Path cacheFile) {
+            if (cacheFile == null) {
+                throw new IllegalArgumentException("The cacheFile argument must be not null.");
+            }
+            scanOptions = scanOptions.withLineCountCache(cacheFile);
+            return this;
+        }
+
+        /**
+         * Keeps many file reads in flight at once, for file systems where each read takes milliseconds, e.g. NFS.
+         * The project tree is traversed on the calling thread, while the files are read by a pool of reader threads.
+         * A file whose read takes longer than the timeout is abandoned and reported in {@link ScanMetrics#timedOutFiles()},
+         * its lines are not counted. The incremental analysis and the watch mode read the files as usual. Archives cannot be read this way.
+         *
+         * @param maxInFlightReads The maximum number of files read at the same time.
+         * @param readTimeout The maximum time of reading a single file.
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @throws IllegalArgumentException if the number of reads or the timeout is not positive.
+         */
+        public ModuleSizeCalculatorBuilder withConcurrentReads(int maxInFlightReads, Duration readTimeout) {
+            scanOptions = scanOptions.withConcurrentReads(new ConcurrentReads(maxInFlightReads, readTimeout));
+            return this;
+        }
+
+        /**
+         * Keeps the number of lines of each analyzed file in the summary.
+         * It is required to save the summary as a baseline of an incremental analysis.
+         *
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @see ProjectSummary#saveBaseline(Path)
+         */
+        public ModuleSizeCalculatorBuilder withFileDetails() {
+            fileDetails = true;
+            return this;
+        }
+
+        /**
+         * Classifies the lines of each file as code, comment or blank lines, in the same pass over the file
+         * as counting them. The comment syntax is the one of Java and similar languages, i.e. {@code //} and
+         * {@code /* ... *}{@code /} comments, with string literals and text blocks being code.
+         * The classified lines are read bypassing the line count cache, and are not supported by the incremental
+         * analysis and the watch mode.
+         *
+         * @return The ModuleSizeCalculatorBuilder instance to allow method chaining.
+         * @see ProjectSummary#verifyEachModuleRelativeSizeIsSmallerThan(double, LineMetric)
+         */
+        public ModuleSizeCalculatorBuilder classifyLines() {
+            classifyLines = true;
             return this;
         }
 
@@ -175,12 +243,58 @@ public class ModuleSizeCalculator {
          * Analyzes the modules using the provided configuration and returns a summary of the project.
          *
          * @return A ProjectSummary instance containing the summary of the analyzed project.
+         * @throws IllegalStateException if the archives are read with concurrent reads.
          */
         public ProjectSummary analyze() {
-            ModuleSizeCalculator moduleSizeCalculator = new ModuleSizeCalculator(modules, rootDir, includeOnlyFilesWithExtension);
-            Map<FileInModule.Module, ModulePartialSummary> analyzedModules = moduleSizeCalculator.calculate();
-            return new ProjectSummary(modules, analyzedModules);
+            return analyzeTogether(this).get(0);
+        }
+
+        /**
+         * Analyzes the modules incrementally, starting from a baseline saved by {@link ProjectSummary#saveBaseline(Path)}.
+         * Only the added, modified and renamed files are read, so the cost depends on the size of the change instead of the size of the project.
+         * The result is the same as for {@link #analyze()} if the baseline has the same configuration. The summary keeps file details for the next baseline.
+         *
+         * @param baselineFile The baseline file.
+         * @param changes The files changed since the baseline, e.g. listed by {@link GitDiff#changedFiles(Path, String)}.
+         * @return A ProjectSummary instance containing the summary of the analyzed project.
+         * @throws ModuleSizeCalculatorException if the baseline cannot be loaded.
+         * @throws IllegalStateException if the lines are classified or the archives are read.
+         */
+        public ProjectSummary analyzeChanges(Path baselineFile, List<FileChange> changes) {
+            AnalysisConfiguration configuration = configuration().verifySingleFilesRecountable("the incremental analysis");
+            Baseline baseline = Baseline.load(baselineFile);
+            return new ProjectAnalysis(List.of(configuration), scanOptions).analyzeChanges(baseline, changes);
+        }
+
+        /**
+         * Analyzes the modules and keeps the summary up to date while the files of the project change.
+         *
+         * @return The started watcher. It must be closed to stop watching the project.
+         * @throws ModuleSizeCalculatorException if the project cannot be watched.
+         * @throws IllegalStateException if the lines are classified or the archives are read.
+         * @see #watch(Consumer)
+         */
+        public ModuleSizeWatcher watch() {
+            return watch(summary -> { });
+        }
+
+        /**
+         * Analyzes the modules and keeps the summary up to date while the files of the project change.
+         * Every directory of the project is registered in the file system watch service once, new subdirectories as they appear.
+         * Only the created, modified and deleted files are re-counted. Bursts of changes are coalesced into a single update. The line count cache is not used.
+         *
+         * @param onUpdate Called with the initial summary, and then on the watcher thread with the summary after each update.
+         * @return The started watcher. It must be closed to stop watching the project.
+         * @throws ModuleSizeCalculatorException if the project cannot be watched.
+         * @throws IllegalStateException if the lines are classified or the archives are read.
+         */
+        public ModuleSizeWatcher watch(Consumer<ProjectSummary> onUpdate) {
+            AnalysisConfiguration configuration = configuration().verifySingleFilesRecountable("the watch mode");
+            return ModuleSizeWatcher.start(new ProjectWatch(configuration, scanOptions.parallelism()), onUpdate);
+        }
+
+        private AnalysisConfiguration configuration() {
+            return layout.configuration(fileDetails, classifyLines);
         }
     }
 }
-
@@ -4,7 +4,13 @@ package pl.tfij.test.modulesize;
  * The ModuleSizeCalculatorException class represents an exception that can occur during the calculation of module sizes.
  */
 public class ModuleSizeCalculatorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     ModuleSizeCalculatorException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    ModuleSizeCalculatorException(String message) {
+        super(message);
+    }
 }
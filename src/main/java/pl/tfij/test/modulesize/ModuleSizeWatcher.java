@@ -0,0 +1,137 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the summary of a project up to date while its files are edited, e.g. during local development.
+ * <p>
+ * The project is analyzed once when the watcher starts. Then a background thread waits for the changes reported
+ * by the file system and re-counts only the created, modified and deleted files. Each update publishes a new
+ * immutable {@link ProjectSummary}, so {@link #summary()} never blocks and always returns a consistent snapshot.
+ * </p>
+ * <p>
+ * A failed update, e.g. a file deleted before it is read, does not stop the watcher.
+ * The failure is available by {@link #lastFailure()} and the whole project is scanned again to recover.
+ * An exception thrown by the listener of an update is only recorded as the last failure, as the summary is already up to date.
+ * If the initial analysis or its listener fails, the project is not watched and the exception is thrown by {@code watch}.
+ * </p>
+ * <p>
+ * The watcher must be closed to stop the background thread.
+ * </p>
+ *
+ * @see ModuleSizeCalculator.ModuleSizeCalculatorBuilder#watch(Consumer)
+ */
+public final class ModuleSizeWatcher implements AutoCloseable {
+    private final ProjectWatch watch;
+    private final Consumer<ProjectSummary> listener;
+    private final AtomicReference<ProjectSummary> summary = new AtomicReference<>();
+    private final AtomicReference<RuntimeException> lastFailure = new AtomicReference<>();
+    private final Thread thread;
+
+    private ModuleSizeWatcher(ProjectWatch watch, Consumer<ProjectSummary> listener) {
+        this.watch = watch;
+        this.listener = listener;
+        this.thread = Thread.ofPlatform()
+                .name("module-size-watcher")
+                .daemon()
+                .unstarted(this::watchChanges);
+    }
+
+    static ModuleSizeWatcher start(ProjectWatch watch, Consumer<ProjectSummary> listener) {
+        ModuleSizeWatcher watcher = new ModuleSizeWatcher(watch, listener);
+        try {
+            watcher.summary.set(watch.start());
+            listener.accept(watcher.summary());
+        } catch (RuntimeException ex) {
+            closeAfterFailure(watch, ex);
+            throw ex;
+        }
+        watcher.thread.start();
+        return watcher;
+    }
+
+    private static void closeAfterFailure(ProjectWatch watch, RuntimeException failure) {
+        try {
+            watch.close();
+        } catch (RuntimeException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Returns the latest summary of the project.
+     *
+     * @return the summary of the project after the last applied update.
+     */
+    public ProjectSummary summary() {
+        return summary.get();
+    }
+
+    /**
+     * Returns the failure of the last failed update. The summary is the one of the last successful update until the project
+     * is scanned again.
+     *
+     * @return the exception thrown by the last failed update or by the listener, empty if no update failed.
+     */
+    public Optional<RuntimeException> lastFailure() {
+        return Optional.ofNullable(lastFailure.get());
+    }
+
+    /**
+     * Stops watching the project. The last summary remains available.
+     */
+    @Override
+    public void close() {
+        watch.close();
+        thread.interrupt();
+    }
+
+    private void watchChanges() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                update(watch.awaitChanges());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // the watcher is closed
+        }
+    }
+
+    private void update(Set<Path> changes) {
+        try {
+            publish(watch.apply(changes));
+        } catch (ClosedWatchServiceException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            lastFailure.set(ex);
+            recover();
+        }
+    }
+
+    // a failed rescan is retried by the next update, the watch scans the whole project until a scan succeeds
+    private void recover() {
+        try {
+            publish(watch.rescan());
+        } catch (ClosedWatchServiceException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            lastFailure.set(ex);
+        }
+    }
+
+    // the summary is up to date even if the listener fails, so the project is not scanned again
+    private void publish(ProjectSummary projectSummary) {
+        summary.set(projectSummary);
+        try {
+            listener.accept(projectSummary);
+        } catch (RuntimeException ex) {
+            lastFailure.set(ex);
+        }
+    }
+}
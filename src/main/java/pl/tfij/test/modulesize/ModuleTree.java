@@ -0,0 +1,163 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The defined modules arranged by their directories: a module in a subdirectory of another module is its submodule,
+ * e.g. {@code com.acme.billing.invoices} of {@code com.acme.billing}.
+ * <p>
+ * Each file is counted once, in the most specific module containing it, as in {@link ProjectSummary#modulesSummary()}.
+ * The counts of the modules are then rolled up to their ancestors in a single bottom-up pass: the modules are visited
+ * from the deepest directories up, so the totals of a module are complete before they are added to its parent.
+ * The relative size of a module with its submodules is available against the whole project and against its parent module.
+ * </p>
+ * <p>
+ * The tree is built once, when the summary is created, and is immutable.
+ * </p>
+ */
+public final class ModuleTree {
+    private static final LineTotals NO_LINES = new LineTotals(0, 0, 0, 0);
+
+    private final List<Node> modules;
+    private final List<Node> roots;
+    private final Map<String, Node> modulesByName = new HashMap<>();
+
+    ModuleTree(List<Module> definedModules, Map<Module, ModulePartialSummary> analyzedModules) {
+        LineTotals projectLines = analyzedModules.values().stream().findFirst().map(ModulePartialSummary::projectLines).orElse(NO_LINES);
+        List<Node> nodes = definedModules.stream()
+                .flatMap(it -> it.definedModule().stream())
+                .map(it -> new Node(it, Optional.ofNullable(analyzedModules.get(it)), projectLines))
+                .toList();
+        Map<Path, Node> modulesByDir = new HashMap<>();
+        nodes.forEach(node -> modulesByDir.putIfAbsent(node.module.moduleDir(), node));
+        nodes.forEach(node -> node.parent = ancestor(modulesByDir, node.module.moduleDir().getParent()));
+        nodes.stream()
+                .sorted(Comparator.comparingInt((Node it) -> it.module.moduleDir().getNameCount()).reversed())
+                .forEach(Node::rollUp);
+        nodes.forEach(node -> node.children = sortedByName(node.children));
+        nodes.forEach(node -> modulesByName.putIfAbsent(node.moduleName(), node));
+        modules = sortedByName(nodes);
+        roots = modules.stream().filter(it -> it.parent.isEmpty()).toList();
+    }
+
+    private static Optional<Node> ancestor(Map<Path, Node> modulesByDir, Path directory) {
+        for (Path dir = directory; dir != null; dir = dir.getParent()) {
+            Node node = modulesByDir.get(dir);
+            if (node != null) {
+                return Optional.of(node);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Node> sortedByName(List<Node> nodes) {
+        return nodes.stream().sorted(Comparator.comparing(Node::moduleName)).toList();
+    }
+
+    /**
+     * @return An immutable list of the modules not nested in any other module, sorted by the module name.
+     */
+    public List<Node> roots() {
+        return roots;
+    }
+
+    /**
+     * @return An immutable list of all the modules of the tree, sorted by the module name.
+     */
+    public List<Node> modules() {
+        return modules;
+    }
+
+    /**
+     * @param moduleName the name of the module. If several modules have the same name, the first defined one is found.
+     * @return The module, or empty if no such module is defined.
+     */
+    public Optional<Node> module(String moduleName) {
+        return Optional.ofNullable(modulesByName.get(moduleName));
+    }
+
+    /**
+     * A module of the tree with the totals of its own files and of all its submodules.
+     */
+    public static final class Node {
+        private final Module.DefinedModule module;
+        private final ModulePartialSummary own;
+        private List<Node> children = new ArrayList<>();
+        private Optional<Node> parent = Optional.empty();
+        private long numberOfFiles;
+        private LineTotals lines;
+
+        private Node(Module.DefinedModule module, Optional<ModulePartialSummary> own, LineTotals projectLines) {
+            this.module = module;
+            this.own = own.orElse(new ModulePartialSummary(module, 0, NO_LINES, projectLines));
+            this.numberOfFiles = this.own.numberOfFiles();
+            this.lines = this.own.moduleLines();
+        }
+
+        // called once the totals are complete, the submodules are rolled up before
+        private void rollUp() {
+            parent.ifPresent(it -> {
+                it.numberOfFiles += numberOfFiles;
+                it.lines = it.lines.plus(lines);
+                it.children.add(this);
+            });
+        }
+
+        /**
+         * @return the name of the module
+         */
+        public String moduleName() {
+            return module.name();
+        }
+
+        /**
+         * @return the module containing this one in its directory, or empty for a root module
+         */
+        public Optional<Node> parent() {
+            return parent;
+        }
+
+        /**
+         * @return An immutable list of the direct submodules, sorted by the module name.
+         */
+        public List<Node> children() {
+            return children;
+        }
+
+        /**
+         * @return the totals of the module with all its submodules, its relative size is against the whole project
+         */
+        public ProjectSummary.ModuleSummary summary() {
+            return ModuleIndex.moduleSummary(rolledUp());
+        }
+
+        /**
+         * @return the totals of the files of the module outside of its submodules, as in {@link ProjectSummary#modulesSummary()}
+         */
+        public ProjectSummary.ModuleSummary ownSummary() {
+            return ModuleIndex.moduleSummary(own);
+        }
+
+        /**
+         * @return the number of lines of the module with its submodules relative to the parent module with all its submodules,
+         *         or to the whole project for a root module. It is a number in the range of 0-1.
+         */
+        public double relativeSizeToParent() {
+            return withinParent().relativeModuleSize();
+        }
+
+        ModulePartialSummary rolledUp() {
+            return new ModulePartialSummary(module, numberOfFiles, lines, own.projectLines());
+        }
+
+        ModulePartialSummary withinParent() {
+            return new ModulePartialSummary(module, numberOfFiles, lines, parent.map(it -> it.lines).orElse(own.projectLines()));
+        }
+    }
+}
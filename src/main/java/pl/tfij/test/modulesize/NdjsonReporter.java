@@ -0,0 +1,41 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The newline-delimited JSON report: a {@code project} object with the totals, a {@code module} object for each module
+ * and a {@code file} object for each file, one per line, distinguished by the {@code type} field.
+ * The fields are the same as in the {@link JsonReporter JSON report}, so a consumer reads the report line by line.
+ */
+final class NdjsonReporter implements SummaryReporter {
+    private final Writer out;
+
+    NdjsonReporter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException {
+        out.write("{\"type\":\"project\",\"totalNumberOfFiles\":%s,\"totalLinesOfCode\":%s}\n".formatted(totalNumberOfFiles, totalLinesOfCode));
+    }
+
+    @Override
+    public void module(ProjectSummary.ModuleSummary module) throws IOException {
+        out.write("{\"type\":\"module\",");
+        JsonReporter.writeModuleFields(out, module);
+        out.write("}\n");
+    }
+
+    @Override
+    public void file(String file, int linesOfCode) throws IOException {
+        out.write("{\"type\":\"file\",");
+        JsonReporter.writeFileFields(out, file, linesOfCode);
+        out.write("}\n");
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,111 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A single run of the analysis of one or more configurations of a project.
+ * The files are read through the line count cache, if configured, which is saved at the end.
+ * The run is reported as an {@link AnalysisEvent} to the Flight Recorder.
+ */
+final class ProjectAnalysis {
+    private final List<AnalysisConfiguration> configurations;
+    private final ScanOptions scanOptions;
+
+    ProjectAnalysis(List<AnalysisConfiguration> configurations, ScanOptions scanOptions) {
+        this.configurations = configurations;
+        this.scanOptions = scanOptions;
+    }
+
+    /**
+     * @param configurations the configurations analyzed in a single traversal
+     * @param scanOptions the scan options of each configuration
+     * @return the analysis of the configurations with their scan options combined
+     * @throws IllegalArgumentException if no configuration is given or the configurations have different root directories
+     */
+    static ProjectAnalysis together(List<AnalysisConfiguration> configurations, List<ScanOptions> scanOptions) {
+        if (configurations.isEmpty()) {
+            throw new IllegalArgumentException("At least one configuration must be given.");
+        }
+        Set<Path> rootDirs = configurations.stream().map(AnalysisConfiguration::rootDir).collect(Collectors.toCollection(TreeSet::new));
+        if (rootDirs.size() > 1) {
+            throw new IllegalArgumentException("All configurations must have the same root directory. Given root directories are %s.".formatted(rootDirs));
+        }
+        return new ProjectAnalysis(configurations, ScanOptions.combine(scanOptions));
+    }
+
+    /**
+     * @return the summary of each configuration, in the order of the configurations
+     * @throws IllegalStateException if the archives are read with concurrent reads
+     */
+    List<ProjectSummary> analyze() {
+        verifyArchivesNotReadConcurrently();
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Optional<LineCountCache> lineCountCache = scanOptions.lineCountCacheFile().map(LineCountCache::new);
+        ProjectScanner.ScanResult result = scanner(lineCountCache).scan();
+        lineCountCache.ifPresent(LineCountCache::save);
+        List<ProjectSummary> summaries = summaries(result, start);
+        event.commit(rootDir(), configurations.size(), summaries.get(0));
+        return summaries;
+    }
+
+    /**
+     * @param baseline the number of lines of each file before the changes
+     * @param changes the files changed since the baseline
+     * @return the summary of the single configuration after the changes
+     */
+    ProjectSummary analyzeChanges(Baseline baseline, List<FileChange> changes) {
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Optional<LineCountCache> lineCountCache = scanOptions.lineCountCacheFile().map(LineCountCache::new);
+        ProjectScanner.ScanResult result = scanner(lineCountCache).scanChanges(baseline, changes);
+        lineCountCache.ifPresent(LineCountCache::save);
+        ProjectSummary summary = summaries(result, start).get(0);
+        event.commit(rootDir(), 1, summary);
+        return summary;
+    }
+
+    // the entries of an archive are streamed one after another, so an archive cannot be read within the read timeout
+    private void verifyArchivesNotReadConcurrently() {
+        if (scanOptions.concurrentReads().isPresent() && configurations.stream().anyMatch(AnalysisConfiguration::readsArchives)) {
+            throw new IllegalStateException("Archives are not supported by the concurrent reads.");
+        }
+    }
+
+    private String rootDir() {
+        return configurations.get(0).rootDir().toString();
+    }
+
+    private ProjectScanner scanner(Optional<LineCountCache> lineCountCache) {
+        FileLineCounter lineCounter = lineCountCache.<FileLineCounter>map(it -> it).orElse(LineCounter::countLines);
+        return new ProjectScanner(configurations, scanOptions.parallelism(), lineCounter, scanOptions.concurrentReads());
+    }
+
+    // summarizing the modules is the last part of the aggregate phase
+    private List<ProjectSummary> summaries(ProjectScanner.ScanResult result, long start) {
+        long summarizeStart = System.nanoTime();
+        List<Map<Module, ModulePartialSummary>> modules = IntStream.range(0, configurations.size())
+                .mapToObj(i -> result.accumulators().get(i).summarize(configurations.get(i).moduleMatcher()))
+                .toList();
+        long end = result.metrics().lap(ScanMetricsRecorder.Phase.AGGREGATE, summarizeStart);
+        ScanMetrics metrics = result.metrics().toScanMetrics(Duration.ofNanos(end - start), result.walkTime());
+        return IntStream.range(0, configurations.size())
+                .mapToObj(i -> new ProjectSummary(
+                        configurations.get(i).moduleMatcher().definedModules(),
+                        modules.get(i),
+                        configurations.get(i).classifyLines(),
+                        result.accumulators().get(i).fileDetails(),
+                        metrics))
+                .toList();
+    }
+}
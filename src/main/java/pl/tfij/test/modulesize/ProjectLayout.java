@@ -0,0 +1,73 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Where the modules of a project are: the project root directory, the defined and discovered modules,
+ * and the files included in and excluded from the analysis.
+ */
+final class ProjectLayout {
+    private final String rootDir;
+    private final List<Module> modules = new ArrayList<>();
+    private final List<ModuleMatcher.ModuleDiscovery> discoveries = new ArrayList<>();
+    private final Set<String> includeOnlyFilesWithExtension = new HashSet<>();
+    private final List<String> excludePatterns = new ArrayList<>();
+    private boolean gitignore;
+    private boolean readArchives;
+
+    ProjectLayout(String rootDir) {
+        this.rootDir = rootDir;
+    }
+
+    void addPackageModule(String modulePackage) {
+        modules.add(new Module.DefinedModule(modulePackage, packageDir(modulePackage)));
+    }
+
+    void addDirModule(String path) {
+        modules.add(new Module.DefinedModule(path, Paths.get(rootDir + "/" + path)));
+    }
+
+    void discoverPackageModules(String packagePrefix, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth must be positive number. Given value is %s.".formatted(depth));
+        }
+        discoveries.add(new ModuleMatcher.ModuleDiscovery(packagePrefix, packageDir(packagePrefix), depth));
+    }
+
+    void include(List<String> fileExtensions) {
+        includeOnlyFilesWithExtension.addAll(fileExtensions);
+    }
+
+    void exclude(List<String> patterns) {
+        excludePatterns.addAll(patterns);
+    }
+
+    void respectGitignore() {
+        gitignore = true;
+    }
+
+    void readArchives() {
+        readArchives = true;
+    }
+
+    AnalysisConfiguration configuration(boolean fileDetails, boolean classifyLines) {
+        Path root = Paths.get(rootDir);
+        return new AnalysisConfiguration(
+                root,
+                new ModuleMatcher(modules, discoveries),
+                Set.copyOf(includeOnlyFilesWithExtension),
+                new ProjectTreeFilter(root, excludePatterns, gitignore),
+                fileDetails,
+                classifyLines,
+                readArchives);
+    }
+
+    private Path packageDir(String modulePackage) {
+        return Paths.get(rootDir + "/" + modulePackage.replaceAll("\\.", "/"));
+    }
+}
@@ -0,0 +1,268 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+/**
+ * Walks the project, counts lines of the included files and aggregates them per module.
+ * <p>
+ * Several configurations of the same project are analyzed in a single traversal. Each file is read at most once,
+ * and its number of lines is added to every configuration including it. The time of each phase of the work
+ * on a file is recorded in the scan metrics. For the configurations reading archives, the files packed in zip, jar and gzip archives
+ * are counted instead of the archives, see {@link ArchiveScan}.
+ * </p>
+ * <p>
+ * With concurrent reads, the tree is traversed on the calling thread and only the reads run on reader threads.
+ * Their results are folded on the calling thread in the order the files were visited.
+ * </p>
+ */
+final class ProjectScanner {
+    private static final int NOT_COUNTED = -1;
+    private static final IntPredicate NOT_READ_AS_ARCHIVE = configuration -> false;
+
+    private final List<AnalysisConfiguration> configurations;
+
+    /**
+     * Number of threads counting files. One means the files are counted on the calling thread.
+     */
+    private final int parallelism;
+    private final FileLineCounter lineCounter;
+
+    /**
+     * Whether any configuration classifies lines. Then every file is classified,
+     * its number of lines is the same for the configurations not classifying lines.
+     */
+    private final boolean classifyLines;
+    private final Optional<ConcurrentReads> concurrentReads;
+    private final ArchiveScan archiveScan;
+
+    ProjectScanner(List<AnalysisConfiguration> configurations, int parallelism, FileLineCounter lineCounter, Optional<ConcurrentReads> concurrentReads) {
+        this.configurations = configurations;
+        this.parallelism = parallelism;
+        this.lineCounter = lineCounter;
+        this.classifyLines = configurations.stream().anyMatch(AnalysisConfiguration::classifyLines);
+        this.concurrentReads = concurrentReads;
+        this.archiveScan = new ArchiveScan(configurations, classifyLines);
+    }
+
+    /**
+     * Folds each included file straight into the aggregates of a worker, without collecting the files,
+     * so the memory depends on the number of modules and directories rather than files.
+     *
+     * @return the aggregate of the project for each configuration, in the order of the configurations
+     */
+    ScanResult scan() {
+        CombinedTreeFilter filter = new CombinedTreeFilter(configurations.stream().map(AnalysisConfiguration::treeFilter).toList());
+        long start = System.nanoTime();
+        List<ScanWorker> workers = concurrentReads.map(reads -> walkReadingConcurrently(filter, reads)).orElseGet(() -> walk(filter));
+        Duration walkTime = Duration.ofNanos(System.nanoTime() - start);
+        ScanWorker result = newWorker();
+        result.startLap();
+        for (ScanWorker worker : workers) {
+            for (int i = 0; i < configurations.size(); i++) {
+                result.accumulators().get(i).merge(worker.accumulators().get(i));
+            }
+            result.metrics().merge(worker.metrics());
+        }
+        result.lap(ScanMetricsRecorder.Phase.AGGREGATE);
+        return new ScanResult(result.accumulators(), result.metrics(), walkTime);
+    }
+
+    /**
+     * Applies the changes to the baseline. The aggregate starts from the module totals of the baseline, only the changed paths
+     * are matched to modules and only the added and modified files are read, so the cost depends on the size of the change.
+     * An incremental analysis has a single configuration.
+     *
+     * @param baseline the number of lines of each file before the changes
+     * @param changes the files changed since the baseline
+     * @return the aggregate of the project after the changes, with file details
+     */
+    ScanResult scanChanges(Baseline baseline, List<FileChange> changes) {
+        long start = System.nanoTime();
+        AnalysisConfiguration configuration = configurations.get(0);
+        ScanWorker worker = new ScanWorker(List.of(new ModuleAccumulator(configuration.moduleMatcher().numberOfModules(), true)));
+        ModuleAccumulator accumulator = worker.accumulators().get(0);
+        baseline.addTo(accumulator, configuration.moduleMatcher());
+        ProjectTreeFilter.ChangedFiles changedFiles = configuration.treeFilter().changedFiles();
+        for (FileChange change : changes) {
+            change.removedPath().ifPresent(path -> accumulator.remove(path, configuration.matchModule(configuration.resolve(path))));
+            change.addedPath()
+                    .map(configuration::resolve)
+                    .filter(file -> Files.isRegularFile(file) && configuration.includes(file) && !changedFiles.isIgnored(file))
+                    .ifPresent(file -> addChangedFile(worker, configuration, file));
+        }
+        return new ScanResult(worker.accumulators(), worker.metrics(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private List<ScanWorker> walk(CombinedTreeFilter filter) {
+        return new FileTreeWalker<>(configurations.get(0).rootDir(), filter, parallelism)
+                .walk(this::newWorker, (worker, file, size, rules) -> visitFile(worker, file, size, filter, rules));
+    }
+
+    private List<ScanWorker> walkReadingConcurrently(CombinedTreeFilter filter, ConcurrentReads reads) {
+        try (InFlightReads<CountedFile> inFlightReads = new InFlightReads<>(reads)) {
+            List<ScanWorker> workers = new FileTreeWalker<>(configurations.get(0).rootDir(), filter, 1)
+                    .walk(this::newWorker, (worker, file, size, rules) -> submitFile(worker, inFlightReads, file, size, filter, rules));
+            inFlightReads.awaitAll();
+            return workers;
+        }
+    }
+
+    private void addChangedFile(ScanWorker worker, AnalysisConfiguration configuration, Path file) {
+        long size = fileSize(file);
+        worker.metrics().fileVisited(size);
+        worker.startLap();
+        worker.add(worker.accumulators().get(0), configuration, file, countLinesOnce(worker, configuration, file, size, NOT_COUNTED));
+    }
+
+    private ScanWorker newWorker() {
+        List<ModuleAccumulator> accumulators = new ArrayList<>(configurations.size());
+        for (AnalysisConfiguration configuration : configurations) {
+            accumulators.add(new ModuleAccumulator(configuration.moduleMatcher().numberOfModules(), configuration.fileDetails()));
+        }
+        return new ScanWorker(accumulators);
+    }
+
+    private void visitFile(ScanWorker worker, Path file, long size, CombinedTreeFilter filter, IgnoreRules[] rules) {
+        worker.metrics().fileVisited(size);
+        worker.startLap();
+        if (Archives.isArchive(file)) {
+            countFile(worker, file, size, filter, rules, archiveScan.visit(worker, file, size, filter, rules)::get);
+        } else {
+            countFile(worker, file, size, filter, rules, NOT_READ_AS_ARCHIVE);
+        }
+    }
+
+    private void countFile(ScanWorker worker, Path file, long size, CombinedTreeFilter filter, IgnoreRules[] rules, IntPredicate readAsArchive) {
+        int linesOfCode = NOT_COUNTED;
+        for (int i = 0; i < configurations.size(); i++) {
+            AnalysisConfiguration configuration = configurations.get(i);
+            boolean included = !readAsArchive.test(i) && isIncluded(i, file, filter, rules);
+            worker.lap(ScanMetricsRecorder.Phase.FILTER);
+            if (included) {
+                linesOfCode = countLinesOnce(worker, configuration, file, size, linesOfCode);
+                worker.add(worker.accumulators().get(i), configuration, file, linesOfCode);
+            }
+        }
+    }
+
+    private boolean isIncluded(int configuration, Path file, CombinedTreeFilter filter, IgnoreRules[] rules) {
+        return configurations.get(configuration).includes(file) && !filter.isIgnoredFile(configuration, file, rules);
+    }
+
+    // the archives are not read with concurrent reads, so they are plain files here
+    private void submitFile(ScanWorker worker, InFlightReads<CountedFile> inFlightReads, Path file, long size, CombinedTreeFilter filter, IgnoreRules[] rules) {
+        worker.metrics().fileVisited(size);
+        worker.startLap();
+        BitSet included = new BitSet(configurations.size());
+        for (int i = 0; i < configurations.size(); i++) {
+            if (isIncluded(i, file, filter, rules)) {
+                included.set(i);
+            }
+        }
+        worker.lap(ScanMetricsRecorder.Phase.FILTER);
+        if (!included.isEmpty()) {
+            inFlightReads.submit(
+                    file,
+                    () -> countFile(configurations.get(included.nextSetBit(0)), file, size),
+                    counted -> addCounted(worker, file, size, included, counted),
+                    () -> worker.metrics().fileTimedOut(file));
+        }
+    }
+
+    // the read time was measured on the reader thread
+    private void addCounted(ScanWorker worker, Path file, long size, BitSet included, CountedFile counted) {
+        worker.metrics().fileRead(file, size, counted.readNanos());
+        worker.metrics().add(ScanMetricsRecorder.Phase.COUNT, counted.readNanos());
+        worker.classified(counted);
+        worker.startLap();
+        included.stream().forEach(i -> worker.add(worker.accumulators().get(i), configurations.get(i), file, counted.lines()));
+    }
+
+    // runs on a reader thread, the lines are copied out of the classifier pooled by the thread before it reads another file
+    private CountedFile countFile(AnalysisConfiguration configuration, Path file, long size) {
+        FileReadEvent event = new FileReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CountedFile counted = countFile(file, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(file, configuration.moduleMatcher().module(configuration.matchModule(file)).name(), size, counted.lines());
+        }
+        return counted;
+    }
+
+    private CountedFile countFile(Path file, long start) {
+        if (classifyLines) {
+            LineClassifier classified = classify(file);
+            return new CountedFile(classified.lines(), classified.codeLines(), classified.commentLines(), classified.blankLines(), System.nanoTime() - start);
+        }
+        return new CountedFile(countLines(file), 0, 0, 0, System.nanoTime() - start);
+    }
+
+    // the event is not allocated unless the recording is enabled, it does not escape
+    private int countLinesOnce(ScanWorker worker, AnalysisConfiguration configuration, Path file, long size, int linesOfCode) {
+        if (linesOfCode != NOT_COUNTED) {
+            return linesOfCode;
+        }
+        FileReadEvent event = new FileReadEvent();
+        event.begin();
+        int fileLinesOfCode = countLines(worker, file);
+        event.end();
+        worker.metrics().fileRead(file, size, worker.lap(ScanMetricsRecorder.Phase.COUNT));
+        if (event.shouldCommit()) {
+            event.commit(file, configuration.moduleMatcher().module(configuration.matchModule(file)).name(), size, fileLinesOfCode);
+        }
+        return fileLinesOfCode;
+    }
+
+    private int countLines(ScanWorker worker, Path filePath) {
+        if (classifyLines) {
+            return worker.classified(classify(filePath)).lines();
+        }
+        return countLines(filePath);
+    }
+
+    private int countLines(Path filePath) {
+        try {
+            return lineCounter.countLines(filePath);
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on counting lines of `%s` file.".formatted(filePath), ex);
+        }
+    }
+
+    private static LineClassifier classify(Path filePath) {
+        try {
+            return LineClassifier.classify(filePath);
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on counting lines of `%s` file.".formatted(filePath), ex);
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on counting lines of `%s` file.".formatted(file), ex);
+        }
+    }
+
+    /**
+     * @param accumulators the aggregate of the project for each configuration, in the order of the configurations
+     * @param metrics the metrics of all the workers
+     * @param walkTime the wall-clock time of the traversal
+     */
+    record ScanResult(List<ModuleAccumulator> accumulators, ScanMetricsRecorder metrics, Duration walkTime) {
+    }
+
+    // the lines of a file read on a reader thread, the classified ones are zero unless the lines are classified
+    private record CountedFile(int lines, int codeLines, int commentLines, int blankLines, long readNanos) implements FileLines {
+    }
+}
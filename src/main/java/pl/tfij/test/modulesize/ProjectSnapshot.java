@@ -0,0 +1,286 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+/**
+ * A project summary saved by {@link ProjectSummary#saveSnapshot(Path)}, e.g. for every CI build to track module sizes over time.
+ * <p>
+ * The snapshot is a versioned big-endian binary file: a fixed-size header, a table of modules sorted by name, a table of files
+ * sorted by their UTF-8 encoded paths and a pool of the UTF-8 encoded names. The entries of the tables have fixed sizes
+ * and refer to the names by their positions, so the loaded file is memory-mapped and queried in place.
+ * Only the header and the modules are decoded on load, a file is found by a binary search over the mapped bytes,
+ * so loading a snapshot takes the same time regardless of the number of files in it.
+ * </p>
+ * <p>
+ * The file stays mapped until the snapshot is garbage collected. The snapshot is immutable and safe to use by many threads.
+ * </p>
+ */
+public final class ProjectSnapshot {
+    private static final int MAGIC = 0x4D53534E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 36;
+    private static final int NAME_LENGTH = 4;
+    private static final int MODULE_FILES = 8;
+    private static final int MODULE_LINES = 16;
+    private static final int MODULE_CODE_LINES = 24;
+    private static final int MODULE_COMMENT_LINES = 32;
+    private static final int MODULE_BLANK_LINES = 40;
+    private static final int MODULE_ENTRY_SIZE = 48;
+    private static final int FILE_LINES = 8;
+    private static final int FILE_ENTRY_SIZE = 12;
+    private static final int FILE_DETAILS = 1;
+
+    private final ByteBuffer buffer;
+    private final Instant createdAt;
+    private final Duration scanTime;
+    private final boolean fileDetails;
+    private final List<ProjectSummary.ModuleSummary> modulesSummary;
+    private final int filesOffset;
+    private final int numberOfFileEntries;
+
+    // the tables are checked against the size of the file before reading any module, so the offsets within them fit in an int
+    private ProjectSnapshot(Path source, ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong());
+        this.scanTime = Duration.ofNanos(buffer.getLong());
+        this.fileDetails = (buffer.getInt() & FILE_DETAILS) != 0;
+        int numberOfModules = buffer.getInt();
+        this.numberOfFileEntries = buffer.getInt();
+        long modulesEnd = HEADER_SIZE + (long) numberOfModules * MODULE_ENTRY_SIZE;
+        long filesEnd = modulesEnd + (long) numberOfFileEntries * FILE_ENTRY_SIZE;
+        if (numberOfModules < 0 || numberOfFileEntries < 0 || filesEnd > buffer.limit()) {
+            throw new ModuleSizeCalculatorException("Snapshot `%s` is corrupted.".formatted(source.toAbsolutePath()));
+        }
+        this.filesOffset = (int) modulesEnd;
+        this.modulesSummary = readModules(numberOfModules);
+    }
+
+    /**
+     * Memory-maps the snapshot file, reading only its header and modules.
+     *
+     * @param source the snapshot file saved by {@link ProjectSummary#saveSnapshot(Path)}.
+     * @return The loaded snapshot.
+     * @throws ModuleSizeCalculatorException if the file cannot be read, is not a snapshot file, has an unsupported version or is corrupted.
+     */
+    public static ProjectSnapshot load(Path source) {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new ModuleSizeCalculatorException("File `%s` is not a snapshot file.".formatted(source.toAbsolutePath()));
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new ModuleSizeCalculatorException("Snapshot `%s` has unsupported version %s.".formatted(source.toAbsolutePath(), version));
+            }
+            return new ProjectSnapshot(source, buffer);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on loading snapshot from `%s`.".formatted(source.toAbsolutePath()), ex);
+        }
+    }
+
+    static void save(Path target, List<ProjectSummary.ModuleSummary> modules, Optional<Map<String, Integer>> files, Duration scanTime) {
+        SnapshotLayout layout = new SnapshotLayout(modules, files.orElse(Map.of()));
+        ByteBuffer buffer = ByteBuffer.allocate(layout.size());
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putLong(scanTime.toNanos());
+        buffer.putInt(files.map(it -> FILE_DETAILS).orElse(0)).putInt(modules.size()).putInt(layout.files.size());
+        layout.write(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("IO error occur on saving snapshot to %s.".formatted(target.toAbsolutePath()), ex);
+        }
+    }
+
+    /**
+     * @return the time the snapshot was saved.
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the wall-clock time of the analysis of the saved summary.
+     */
+    public Duration scanTime() {
+        return scanTime;
+    }
+
+    /**
+     * @return whether the snapshot keeps the number of lines of each file, i.e. the project was analyzed with file details.
+     */
+    public boolean hasFileDetails() {
+        return fileDetails;
+    }
+
+    /**
+     * @return An immutable list of the summaries of the analyzed modules, sorted by the module name, as in the saved summary.
+     */
+    public List<ProjectSummary.ModuleSummary> modulesSummary() {
+        return modulesSummary;
+    }
+
+    /**
+     * @return total number of files in the project.
+     */
+    public long totalNumberOfFiles() {
+        return modulesSummary.stream().mapToLong(ProjectSummary.ModuleSummary::totalNumberOfFiles).sum();
+    }
+
+    /**
+     * @return total number of lines of code in the project.
+     */
+    public long totalLinesOfCode() {
+        return modulesSummary.stream().mapToLong(ProjectSummary.ModuleSummary::totalLinesOfCode).sum();
+    }
+
+    /**
+     * @return the number of files with the number of lines kept in the snapshot, zero without file details.
+     */
+    public int numberOfFileEntries() {
+        return numberOfFileEntries;
+    }
+
+    /**
+     * Finds the file by a binary search over the mapped file entries, without decoding their paths.
+     *
+     * @param file the path of the file relative to the project root directory, with {@code /} as a separator.
+     * @return The number of lines of the file, or empty if the snapshot has no such file.
+     */
+    public OptionalInt fileLinesOfCode(String file) {
+        SortedFiles files = files();
+        ByteBuffer path = ByteBuffer.wrap(file.getBytes(StandardCharsets.UTF_8));
+        int low = 0;
+        int high = numberOfFileEntries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = SortedFiles.compare(files.path(middle), path);
+            if (comparison == 0) {
+                return OptionalInt.of(files.linesOfCode(middle));
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    SortedFiles files() {
+        return new MappedFiles();
+    }
+
+    // the relative sizes are computed from the totals, the same way as for an analyzed project
+    private List<ProjectSummary.ModuleSummary> readModules(int numberOfModules) {
+        long projectLinesOfCode = 0;
+        for (int i = 0; i < numberOfModules; i++) {
+            projectLinesOfCode += buffer.getLong(HEADER_SIZE + i * MODULE_ENTRY_SIZE + MODULE_LINES);
+        }
+        List<ProjectSummary.ModuleSummary> modules = new ArrayList<>(numberOfModules);
+        for (int i = 0; i < numberOfModules; i++) {
+            modules.add(readModule(HEADER_SIZE + i * MODULE_ENTRY_SIZE, projectLinesOfCode));
+        }
+        return List.copyOf(modules);
+    }
+
+    private ProjectSummary.ModuleSummary readModule(int entry, long projectLinesOfCode) {
+        long linesOfCode = buffer.getLong(entry + MODULE_LINES);
+        return new ProjectSummary.ModuleSummary(
+                string(buffer.getInt(entry), buffer.getInt(entry + NAME_LENGTH)),
+                buffer.getLong(entry + MODULE_FILES),
+                linesOfCode,
+                ModulePartialSummary.relativeSize(linesOfCode, projectLinesOfCode),
+                buffer.getLong(entry + MODULE_CODE_LINES),
+                buffer.getLong(entry + MODULE_COMMENT_LINES),
+                buffer.getLong(entry + MODULE_BLANK_LINES));
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The file entries read in place from the mapped file.
+     */
+    private final class MappedFiles implements SortedFiles {
+
+        @Override
+        public int size() {
+            return numberOfFileEntries;
+        }
+
+        @Override
+        public ByteBuffer path(int index) {
+            int entry = filesOffset + index * FILE_ENTRY_SIZE;
+            return buffer.slice(buffer.getInt(entry), buffer.getInt(entry + NAME_LENGTH));
+        }
+
+        @Override
+        public int linesOfCode(int index) {
+            return buffer.getInt(filesOffset + index * FILE_ENTRY_SIZE + FILE_LINES);
+        }
+    }
+
+    /**
+     * The positions of the names written after the tables.
+     */
+    private static final class SnapshotLayout {
+        private final List<ProjectSummary.ModuleSummary> modules;
+        private final byte[][] moduleNames;
+        private final SortedFiles files;
+
+        SnapshotLayout(List<ProjectSummary.ModuleSummary> modules, Map<String, Integer> files) {
+            this.modules = modules;
+            this.moduleNames = modules.stream().map(it -> it.moduleName().getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+            this.files = SortedFiles.of(files);
+        }
+
+        int size() {
+            long size = HEADER_SIZE + (long) modules.size() * MODULE_ENTRY_SIZE + (long) files.size() * FILE_ENTRY_SIZE
+                    + Arrays.stream(moduleNames).mapToLong(it -> it.length).sum()
+                    + IntStream.range(0, files.size()).mapToLong(it -> files.path(it).remaining()).sum();
+            if (size > Integer.MAX_VALUE) {
+                throw new ModuleSizeCalculatorException("The snapshot of %s files exceeds 2 GB.".formatted(files.size()));
+            }
+            return (int) size;
+        }
+
+        void write(ByteBuffer buffer) {
+            int namePosition = HEADER_SIZE + modules.size() * MODULE_ENTRY_SIZE + files.size() * FILE_ENTRY_SIZE;
+            for (int i = 0; i < modules.size(); i++) {
+                ProjectSummary.ModuleSummary module = modules.get(i);
+                buffer.putInt(namePosition).putInt(moduleNames[i].length);
+                buffer.putLong(module.totalNumberOfFiles()).putLong(module.totalLinesOfCode());
+                buffer.putLong(module.codeLines()).putLong(module.commentLines()).putLong(module.blankLines());
+                namePosition += moduleNames[i].length;
+            }
+            for (int i = 0; i < files.size(); i++) {
+                int pathLength = files.path(i).remaining();
+                buffer.putInt(namePosition).putInt(pathLength).putInt(files.linesOfCode(i));
+                namePosition += pathLength;
+            }
+            Arrays.stream(moduleNames).forEach(buffer::put);
+            IntStream.range(0, files.size()).forEach(it -> buffer.put(files.path(it)));
+        }
+    }
+}
@@ -1,39 +1,29 @@
 package pl.tfij.test.modulesize;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.nio.file.Path;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-
-import static pl.tfij.test.modulesize.FileInModule.Module.UNDEFINED_MODULE;
 
 /**
- * The ProjectSummary class provides methods for analyzing and summarizing project modules.
- * It allows to verify module sizes, generate Mermaid pie charts, save charts to files, and retrieve module summaries.
+ * The ProjectSummary class provides methods for verifying module sizes, generating Mermaid pie charts and retrieving module summaries.
+ * <p>
+ * The summary is immutable. The modules are indexed when the summary is created, so the totals, the module tree and the verifications
+ * do not scan the modules, and the Mermaid pie chart and the sorted files are created once, on the first request.
+ * </p>
  */
 public class ProjectSummary {
-    private final List<FileInModule.Module> definedModules;
-    private final Map<FileInModule.Module, ModulePartialSummary> analyzedModules;
-    private final DecimalFormat decimalFormat;
-
-    ProjectSummary(List<FileInModule.Module> modules, Map<FileInModule.Module, ModulePartialSummary> analyzedModules) {
-        definedModules = modules;
-        this.analyzedModules = analyzedModules;
-        decimalFormat = numberFormatter();
-    }
+    private final ModuleIndex modules;
+    private final ScanMetrics scanMetrics;
 
-    private DecimalFormat numberFormatter() {
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
-        symbols.setDecimalSeparator('.');
-        return new DecimalFormat("#.####", symbols);
+    ProjectSummary(
+            List<Module> modules,
+            Map<Module, ModulePartialSummary> analyzedModules,
+            boolean linesClassified,
+            Optional<Map<String, Integer>> filesLinesOfCode,
+            ScanMetrics scanMetrics) {
+        this.modules = new ModuleIndex(modules, analyzedModules, linesClassified, filesLinesOfCode);
+        this.scanMetrics = scanMetrics;
     }
 
     /**
@@ -43,8 +33,7 @@ public class ProjectSummary {
      * @throws AssertionError When any of the modules is empty.
      */
     public ProjectSummary verifyNoEmptyModules() {
-        Optional<FileInModule.Module> emptyModule = definedModules.stream().filter(it -> !analyzedModules.containsKey(it)).findFirst();
-        emptyModule.ifPresent(module -> {
+        modules.emptyModules().stream().findFirst().ifPresent(module -> {
             throw new AssertionError("Module `%s` is empty.".formatted(module.name()));
         });
         return this;
@@ -59,19 +48,23 @@ public class ProjectSummary {
      * @throws AssertionError           if any moduleName's relative size exceeds the threshold.
      */
     public ProjectSummary verifyEachModuleRelativeSizeIsSmallerThan(double threshold) {
-        verifyRelativeSizeThreshold(threshold);
-        Comparator<ModulePartialSummary> comparing = Comparator.comparing(ModulePartialSummary::relativeModuleSize);
-        Optional<ModulePartialSummary> biggestModule = analyzedModules.values().stream().max(comparing);
-        biggestModule.ifPresent(summary -> {
-            if (summary.relativeModuleSize() > threshold) {
-                throw new AssertionError("Module `%s` relative size is %s. Max allowed size is %s."
-                        .formatted(
-                                summary.module().name(),
-                                decimalFormat.format(summary.relativeModuleSize()),
-                                decimalFormat.format(threshold)
-                        ));
-            }
-        });
+        return verifyEachModuleRelativeSizeIsSmallerThan(threshold, LineMetric.LINES);
+    }
+
+    /**
+     * Verifies that the relative size of each moduleName, measured in the given kind of lines, is smaller than the given threshold.
+     *
+     * @param threshold The maximum relative size allowed for each moduleName. Must be a positive number in the range (0, 1].
+     * @param metric    The kind of lines the size is measured in.
+     * @return The ProjectSummary instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     * @throws IllegalStateException    if the metric requires classified lines and the lines were not classified.
+     * @throws AssertionError           if any moduleName's relative size exceeds the threshold.
+     */
+    public ProjectSummary verifyEachModuleRelativeSizeIsSmallerThan(double threshold, LineMetric metric) {
+        RelativeSizeRule rule = new RelativeSizeRule(threshold, metric);
+        rule.verifyLinesClassified(modules.linesClassified());
+        modules.largestModule(metric).ifPresent(rule::verify);
         return this;
     }
 
@@ -81,34 +74,27 @@ public class ProjectSummary {
      * @param module    The name of the moduleName to verify.
      * @param threshold The maximum relative size allowed for the moduleName.
      * @return The ProjectSummary instance to allow method chaining.
-     * @throws IllegalArgumentException if the specified moduleName is not defined.
-     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     * @throws IllegalArgumentException if the specified moduleName is not defined or the threshold is not within the valid range.
      * @throws AssertionError           if the relative size of the moduleName exceeds the threshold.
      */
     public ProjectSummary verifyModuleRelativeSizeIsSmallerThan(String module, double threshold) {
-        Optional<FileInModule.Module> definedModule = definedModules.stream().filter(it -> Objects.equals(it.name(), module)).findFirst();
-        if (definedModule.isEmpty()) {
-            throw new IllegalArgumentException("Module `%s` was not defined.".formatted(module));
-        }
-        verifyRelativeSizeThreshold(threshold);
-        Optional.ofNullable(analyzedModules.get(definedModule.get())).ifPresent(moduleSummary -> {
-            if (moduleSummary.relativeModuleSize() > threshold) {
-                throw new AssertionError("Module `%s` relative size is %s. Max allowed size is %s."
-                        .formatted(
-                                moduleSummary.module().name(),
-                                decimalFormat.format(moduleSummary.relativeModuleSize()),
-                                decimalFormat.format(threshold)
-                        ));
-            }
-        });
-        return this;
+        return verifyModuleRelativeSizeIsSmallerThan(module, threshold, LineMetric.LINES);
     }
 
-    private void verifyRelativeSizeThreshold(double threshold) {
-        if (threshold <= 0 || threshold > 1) {
-            throw new IllegalArgumentException("Threshold must be positive number in range (0, 1]. Given value is %s."
-                    .formatted(decimalFormat.format(threshold)));
-        }
+    /**
+     * Verifies that the relative size of the specified moduleName, measured in the given kind of lines, is smaller than the given threshold.
+     *
+     * @param module    The name of the moduleName to verify.
+     * @param threshold The maximum relative size allowed for the moduleName.
+     * @param metric    The kind of lines the size is measured in.
+     * @return The ProjectSummary instance to allow method chaining.
+     * @throws IllegalArgumentException if the specified moduleName is not defined or the threshold is not within the valid range.
+     * @throws IllegalStateException    if the metric requires classified lines and the lines were not classified.
+     * @throws AssertionError           if the relative size of the moduleName exceeds the threshold.
+     */
+    public ProjectSummary verifyModuleRelativeSizeIsSmallerThan(String module, double threshold, LineMetric metric) {
+        modules.verifyModule(module, () -> new RelativeSizeRule(threshold, metric));
+        return this;
     }
 
     /**
@@ -120,15 +106,21 @@ public class ProjectSummary {
      * @throws AssertionError           if the number of files in the undefined moduleName exceeds the allowedFileCount.
      */
     public ProjectSummary verifyUndefinedModuleNumberOfFilesIsSmallerThan(int allowedFileCount) {
-        if (allowedFileCount < 0) {
-            throw new IllegalArgumentException("allowedFileCount must be positive number or zero. Give value is %s.".formatted(allowedFileCount));
-        }
-        Optional.ofNullable(analyzedModules.get(UNDEFINED_MODULE)).ifPresent(it -> {
-            if (it.numberOfFiles() > allowedFileCount) {
-                throw new AssertionError("Number of files in undefined moduleName is %s. Max allowed count is %s."
-                        .formatted(it.numberOfFiles(), allowedFileCount));
-            }
-        });
+        modules.analyzedModule(Module.UNDEFINED_MODULE).ifPresent(new UndefinedFilesRule(allowedFileCount)::verify);
+        return this;
+    }
+
+    /**
+     * Verifies all the given rules in a single pass over the analyzed modules, and reports every violation at once.
+     *
+     * @param rules The rules to verify.
+     * @return The ProjectSummary instance to allow method chaining.
+     * @throws IllegalArgumentException if a rule refers to a module that is not defined.
+     * @throws IllegalStateException    if a rule requires classified lines and the lines were not classified.
+     * @throws AssertionError           listing every violated rule, or with the message of the violation if there is only one.
+     */
+    public ProjectSummary verify(SizeRules rules) {
+        rules.verify(modules);
         return this;
     }
 
@@ -138,16 +130,11 @@ public class ProjectSummary {
      * @return A string representing the Mermaid pie chart.
      */
     public String createMermaidPieChart() {
-        String pieChartHeader = "pie showData title Modules size (Total LOC: %d)\n".formatted(linesOfCode());
-        String pieChartData = analyzedModules.values().stream()
-                .sorted(Comparator.comparing(it -> it.module().name()))
-                .map(it -> "    \"%s\" : %s".formatted(it.module().name(), it.moduleLinesOfCode()))
-                .collect(Collectors.joining("\n"));
-        return pieChartHeader + pieChartData;
+        return modules.mermaidPieChart();
     }
 
     /**
-     * Saves the Mermaid pie chart representation of the project summary to the specified target path.
+     * Saves the Mermaid pie chart representation of the project summary to the specified target path, encoded in UTF-8.
      *
      * @param target the path where the Mermaid pie chart will be saved.
      * @return The ProjectSummary instance to allow method chaining.
@@ -158,46 +145,155 @@ public class ProjectSummary {
         if (target == null) {
             throw new IllegalArgumentException("The target argument must be not null.");
         }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(target.toFile()));) {
-            String mermaidPieChart = createMermaidPieChart();
-            writer.write(mermaidPieChart);
-            return this;
-        } catch (IOException ex) {
-            throw new ModuleSizeCalculatorException("IO error occur on saving mermaid chart to %s.".formatted(target.toAbsolutePath()), ex);
+        MermaidPieChart.save(modules.modulesSummary(), totalLinesOfCode(), target);
+        return this;
+    }
+
+    /**
+     * Saves the number of lines of each analyzed file as a baseline for an incremental analysis.
+     *
+     * @param target the path where the baseline will be saved.
+     * @return The ProjectSummary instance to allow method chaining.
+     * @throws ModuleSizeCalculatorException if an I/O error occurs while saving the baseline
+     * @throws IllegalArgumentException      if the target path is null
+     * @throws IllegalStateException         if the project was analyzed without file details
+     * @see ModuleSizeCalculator.ModuleSizeCalculatorBuilder#withFileDetails()
+     * @see ModuleSizeCalculator.ModuleSizeCalculatorBuilder#analyzeChanges(Path, List)
+     */
+    public ProjectSummary saveBaseline(Path target) {
+        if (target == null) {
+            throw new IllegalArgumentException("The target argument must be not null.");
         }
+        Map<String, Integer> files = modules.fileDetails().orElseThrow(
+                () -> new IllegalStateException("File details are required to save baseline. Analyze the project withFileDetails()."));
+        Baseline.of(files, modules.modulesByName()).save(target);
+        return this;
     }
 
     /**
-     * Generates a summary of the analyzed modules.
+     * Saves the summary as a binary snapshot, e.g. for every CI build to track module sizes over time. The snapshot keeps
+     * the totals of each analyzed module, the scan time, and the number of lines of each file if analyzed with file details.
      *
-     * @return A list containing ModuleSummary objects representing each analyzed moduleName.
+     * @param target the path where the snapshot will be saved.
+     * @return The ProjectSummary instance to allow method chaining.
+     * @throws ModuleSizeCalculatorException if an I/O error occurs while saving the snapshot
+     * @throws IllegalArgumentException      if the target path is null
+     * @see ProjectSnapshot#load(Path)
+     */
+    public ProjectSummary saveSnapshot(Path target) {
+        if (target == null) {
+            throw new IllegalArgumentException("The target argument must be not null.");
+        }
+        ProjectSnapshot.save(target, modules.modulesSummary(), modules.fileDetails(), scanMetrics.totalTime());
+        return this;
+    }
+
+    /**
+     * @return An immutable list containing ModuleSummary objects representing each analyzed moduleName, sorted by the module name.
      */
     public List<ModuleSummary> modulesSummary() {
-        return analyzedModules.values().stream()
-                .map(it -> new ModuleSummary(it.module().name(), it.numberOfFiles(), it.moduleLinesOfCode(), it.relativeModuleSize()))
-                .toList();
+        return modules.modulesSummary();
+    }
+
+    /**
+     * @return The defined modules nested in the directories of each other, with the sizes of submodules rolled up to their ancestors.
+     */
+    public ModuleTree moduleTree() {
+        return modules.moduleTree();
+    }
+
+    Optional<SortedFiles> sortedFiles() {
+        return modules.sortedFiles();
+    }
+
+    /**
+     * @return metrics of the scan that produced this summary, e.g. the time of each phase and the slowest files.
+     */
+    public ScanMetrics scanMetrics() {
+        return scanMetrics;
     }
 
     /**
      * @return total number of files in the project.
+     * @throws ArithmeticException if the number exceeds the int range, use {@link #totalNumberOfFiles()} instead.
      */
     public int numberOfFiles() {
-        return analyzedModules.values().stream().mapToInt(it -> it.numberOfFiles()).sum();
+        return Math.toIntExact(totalNumberOfFiles());
     }
 
     /**
      * @return total number of lines of code in the project.
+     * @throws ArithmeticException if the number exceeds the int range, use {@link #totalLinesOfCode()} instead.
      */
     public int linesOfCode() {
-        return analyzedModules.values().stream().mapToInt(it -> it.moduleLinesOfCode()).sum();
+        return Math.toIntExact(totalLinesOfCode());
+    }
+
+    /**
+     * @return total number of files in the project.
+     */
+    public long totalNumberOfFiles() {
+        return modules.numberOfFiles();
+    }
+
+    /**
+     * @return total number of lines of code in the project.
+     */
+    public long totalLinesOfCode() {
+        return modules.linesOfCode();
     }
 
     /**
      * @param moduleName the name of the analyzed moduleName
-     * @param numberOfFiles number of files in the moduleName
-     * @param linesOfCode total number of lines of code in the moduleName
+     * @param totalNumberOfFiles number of files in the moduleName
+     * @param totalLinesOfCode total number of lines of code in the moduleName
      * @param relativeSize relative size of the moduleName. It is a number in the range of 0-1.
      *        One represents 100%, indicating that all the code of the project is in this moduleName.
+     * @param codeLines number of lines containing code, zero unless the lines were classified
+     * @param commentLines number of lines containing only comments, zero unless the lines were classified
+     * @param blankLines number of lines containing only whitespace, zero unless the lines were classified
      */
-    public record ModuleSummary(String moduleName, int numberOfFiles, int linesOfCode, double relativeSize) { }
+    public record ModuleSummary(
+            String moduleName,
+            long totalNumberOfFiles,
+            long totalLinesOfCode,
+            double relativeSize,
+            long codeLines, long commentLines, long blankLines) {
+
+        /**
+         * @param moduleName the name of the analyzed moduleName
+         * @param totalNumberOfFiles number of files in the moduleName
+         * @param totalLinesOfCode total number of lines of code in the moduleName
+         * @param relativeSize relative size of the moduleName. It is a number in the range of 0-1.
+         */
+        public ModuleSummary(String moduleName, long totalNumberOfFiles, long totalLinesOfCode, double relativeSize) {
+            this(moduleName, totalNumberOfFiles, totalLinesOfCode, relativeSize, 0, 0, 0);
+        }
+
+        /**
+         * @param moduleName the name of the analyzed moduleName
+         * @param numberOfFiles number of files in the moduleName
+         * @param linesOfCode total number of lines of code in the moduleName
+         * @param relativeSize relative size of the moduleName. It is a number in the range of 0-1.
+         */
+        public ModuleSummary(String moduleName, int numberOfFiles, int linesOfCode, double relativeSize) {
+            this(moduleName, (long) numberOfFiles, (long) linesOfCode, relativeSize);
+        }
+
+        /**
+         * @return number of files in the moduleName
+         * @throws ArithmeticException if the number exceeds the int range, use {@link #totalNumberOfFiles()} instead.
+         */
+        public int numberOfFiles() {
+            return Math.toIntExact(totalNumberOfFiles);
+        }
+
+        /**
+         * @return total number of lines of code in the moduleName
+         * @throws ArithmeticException if the number exceeds the int range, use {@link #totalLinesOfCode()} instead.
+         */
+        public int linesOfCode() {
+            return Math.toIntExact(totalLinesOfCode);
+        }
+    }
 }
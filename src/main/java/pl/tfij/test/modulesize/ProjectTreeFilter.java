@@ -0,0 +1,181 @@
+package pl.tfij.test.modulesize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides during the traversal which directories and files of the project are skipped.
+ * <p>
+ * The exclude patterns of the analysis always apply. Optionally, the .gitignore files of the visited directories,
+ * the .gitignore files of the directories between the git repository root and the project root directory,
+ * and the {@code .git/info/exclude} file apply as well, like in git. An ignored directory is not entered at all.
+ * </p>
+ */
+final class ProjectTreeFilter implements FileTreeWalker.DirectoryFilter<IgnoreRules> {
+    private static final String GITIGNORE = ".gitignore";
+    private static final String GIT_DIR = ".git";
+
+    private final Path rootDir;
+    private final IgnoreRules excludes;
+    private final boolean gitignore;
+
+    ProjectTreeFilter(Path rootDir, List<String> excludePatterns, boolean gitignore) {
+        this.rootDir = rootDir;
+        this.excludes = IgnoreRules.NONE.child("", 0, withGitDir(excludePatterns, gitignore));
+        this.gitignore = gitignore;
+    }
+
+    private static List<String> withGitDir(List<String> excludePatterns, boolean gitignore) {
+        List<String> patterns = new ArrayList<>(excludePatterns);
+        if (gitignore) {
+            patterns.add(0, GIT_DIR);
+        }
+        return patterns;
+    }
+
+    /**
+     * @return the ignore rules in effect for the project root directory
+     */
+    @Override
+    public IgnoreRules rootState() {
+        if (!gitignore) {
+            return IgnoreRules.NONE;
+        }
+        Path root = rootDir.toAbsolutePath().normalize();
+        IgnoreRules rules = IgnoreRules.NONE;
+        Optional<Path> repository = findRepository(root);
+        if (repository.isPresent()) {
+            rules = rules.child(prefix(repository.get(), root), 0, readLines(repository.get().resolve(GIT_DIR).resolve("info/exclude")));
+            for (Path directory : directoriesBetween(repository.get(), root)) {
+                rules = rules.child(prefix(directory, root), 0, readLines(directory.resolve(GITIGNORE)));
+            }
+        }
+        return rules.child("", 0, readLines(root.resolve(GITIGNORE)));
+    }
+
+    /**
+     * @param directory the entered subdirectory
+     * @param parentRules the rules in effect for the parent directory
+     * @return the rules in effect for the directory, or empty if the directory is ignored
+     */
+    @Override
+    public Optional<IgnoreRules> enterDirectory(Path directory, IgnoreRules parentRules) {
+        if (isInactive(parentRules)) {
+            return Optional.of(parentRules);
+        }
+        String path = relativePath(directory);
+        if (isIgnored(path, true, parentRules)) {
+            return Optional.empty();
+        }
+        if (!gitignore) {
+            return Optional.of(parentRules);
+        }
+        return Optional.of(parentRules.child("", path.length() + 1, readLines(directory.resolve(GITIGNORE))));
+    }
+
+    boolean isIgnoredFile(Path file, IgnoreRules directoryRules) {
+        if (isInactive(directoryRules)) {
+            return false;
+        }
+        return isIgnored(relativePath(file), false, directoryRules);
+    }
+
+    /**
+     * @return a check of single files, e.g. of one batch of changes. The rules of each directory are read once per check,
+     *         the ignore files changed meanwhile are not seen.
+     */
+    ChangedFiles changedFiles() {
+        return new ChangedFiles();
+    }
+
+    private boolean isInactive(IgnoreRules rules) {
+        return excludes.isEmpty() && !gitignore && rules.isEmpty();
+    }
+
+    private boolean isIgnored(String path, boolean directory, IgnoreRules rules) {
+        return excludes.isIgnored(path, directory) || rules.isIgnored(path, directory);
+    }
+
+    private String relativePath(Path path) {
+        return rootDir.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Optional<Path> findRepository(Path directory) {
+        for (Path it = directory; it != null; it = it.getParent()) {
+            if (Files.exists(it.resolve(GIT_DIR))) {
+                return Optional.of(it);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Path> directoriesBetween(Path repository, Path root) {
+        List<Path> directories = new ArrayList<>();
+        for (Path it = root; !it.equals(repository); it = it.getParent()) {
+            directories.add(0, it.getParent());
+        }
+        return directories;
+    }
+
+    private static String prefix(Path directory, Path root) {
+        String path = directory.relativize(root).toString().replace(File.separatorChar, '/');
+        if (path.isEmpty()) {
+            return path;
+        }
+        return path + "/";
+    }
+
+    private static List<String> readLines(Path ignoreFile) {
+        if (!Files.isRegularFile(ignoreFile)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(ignoreFile, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("Error occur on reading `%s` file.".formatted(ignoreFile.toAbsolutePath()), ex);
+        }
+    }
+
+    /**
+     * Checks single files including all their parent directories up to the project root directory,
+     * memoizing the rules of each directory, so the ignore files are read once however many files of a directory are checked.
+     */
+    final class ChangedFiles {
+        private final Map<Path, Optional<IgnoreRules>> directoryRules = new HashMap<>();
+
+        /**
+         * @param file the file inside the project root directory
+         * @return whether the file is skipped by the traversal
+         */
+        boolean isIgnored(Path file) {
+            return directoryRules(file.getParent())
+                    .map(rules -> isIgnoredFile(file, rules))
+                    .orElse(true);
+        }
+
+        // empty if the directory or any of its parents is ignored, not computeIfAbsent as it recurses to the parents
+        private Optional<IgnoreRules> directoryRules(Path directory) {
+            Optional<IgnoreRules> rules = directoryRules.get(directory);
+            if (rules == null) {
+                rules = rulesOf(directory);
+                directoryRules.put(directory, rules);
+            }
+            return rules;
+        }
+
+        private Optional<IgnoreRules> rulesOf(Path directory) {
+            if (directory == null || directory.equals(rootDir)) {
+                return Optional.of(rootState());
+            }
+            return directoryRules(directory.getParent()).flatMap(parentRules -> enterDirectory(directory, parentRules));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the aggregate of a project up to date with the changes reported by a {@link WatchService}.
+ * <p>
+ * Every directory entered by the traversal is registered once. A new subdirectory is registered as it appears,
+ * together with its own subdirectories, and its files are counted. A created, modified or deleted file is re-counted
+ * alone, the numbers of the other files are kept in the aggregate. Events are coalesced until the project is quiet
+ * for a moment, so a burst of events, e.g. a checkout of another branch, is applied as a single update.
+ * When the watch service loses events, or a .gitignore file changes, the whole project is scanned again.
+ * An update failing midway leaves the aggregate outdated, so the next update scans the whole project as well.
+ * </p>
+ * <p>
+ * Not thread-safe, all the methods but {@link #close()} are called by a single thread.
+ * </p>
+ */
+final class ProjectWatch implements AutoCloseable {
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(100);
+    private static final String GITIGNORE = ".gitignore";
+
+    private final AnalysisConfiguration configuration;
+    private final int parallelism;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, IgnoreRules> directoryRules = new HashMap<>();
+    private ModuleAccumulator accumulator;
+
+    /**
+     * Whether the aggregate may miss some changes, because the last update or scan failed before its end.
+     */
+    private boolean outdated;
+
+    /**
+     * @param configuration the configuration of the analysis
+     * @param parallelism the number of threads of a full scan
+     */
+    ProjectWatch(AnalysisConfiguration configuration, int parallelism) {
+        this.configuration = configuration;
+        this.parallelism = parallelism;
+        try {
+            this.watchService = configuration.rootDir().getFileSystem().newWatchService();
+        } catch (IOException ex) {
+            throw watchingError(ex);
+        }
+    }
+
+    /**
+     * Registers the directories before the scan, so no change made during the scan is missed.
+     *
+     * @return the summary of the project
+     */
+    ProjectSummary start() {
+        return scan();
+    }
+
+    /**
+     * Blocks until something changes and then until the project is quiet.
+     *
+     * @return the changed paths, the project root directory if the events were lost
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws java.nio.file.ClosedWatchServiceException if the watch is closed
+     */
+    Set<Path> awaitChanges() throws InterruptedException {
+        Set<Path> changes = new LinkedHashSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            collect(key, changes);
+            key = watchService.poll(QUIET_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return changes;
+    }
+
+    /**
+     * @param changes the changed paths returned by {@link #awaitChanges()}
+     * @return the summary of the project after the changes
+     */
+    ProjectSummary apply(Set<Path> changes) {
+        if (outdated || requiresScan(changes)) {
+            return scan();
+        }
+        outdated = true;
+        for (Path path : changes) {
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                directoryChanged(path);
+            } else {
+                fileChanged(path);
+            }
+        }
+        outdated = false;
+        return summary(ScanMetrics.EMPTY);
+    }
+
+    /**
+     * @return the summary of the project scanned again, e.g. to recover from a failed update
+     */
+    ProjectSummary rescan() {
+        return scan();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ex) {
+            throw watchingError(ex);
+        }
+    }
+
+    // the ignore rules of the registered directories are read once, a changed .gitignore file may change all of them
+    private boolean requiresScan(Set<Path> changes) {
+        return changes.contains(configuration.rootDir())
+                || changes.stream().anyMatch(it -> it.getFileName().toString().equals(GITIGNORE));
+    }
+
+    private ProjectSummary scan() {
+        outdated = true;
+        long start = System.nanoTime();
+        watchedDirectories.clear();
+        directoryRules.clear();
+        registerTree(configuration.rootDir(), configuration.treeFilter().rootState(), false);
+        ProjectScanner scanner = new ProjectScanner(List.of(configuration.withFileDetails()), parallelism, LineCounter::countLines, Optional.empty());
+        ProjectScanner.ScanResult result = scanner.scan();
+        accumulator = result.accumulators().get(0);
+        outdated = false;
+        return summary(result.metrics().toScanMetrics(Duration.ofNanos(System.nanoTime() - start), result.walkTime()));
+    }
+
+    private ProjectSummary summary(ScanMetrics metrics) {
+        return new ProjectSummary(
+                configuration.moduleMatcher().definedModules(),
+                accumulator.summarize(configuration.moduleMatcher()),
+                configuration.classifyLines(),
+                fileDetails(),
+                metrics);
+    }
+
+    // the aggregate always keeps file details to re-count a single file, the summary only if configured
+    private Optional<Map<String, Integer>> fileDetails() {
+        if (!configuration.fileDetails()) {
+            return Optional.empty();
+        }
+        return accumulator.fileDetails();
+    }
+
+    private void collect(WatchKey key, Set<Path> changes) {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changes.add(configuration.rootDir());
+            } else if (directory != null) {
+                changes.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    // a directory already registered was only modified, e.g. its entries changed
+    private void directoryChanged(Path directory) {
+        IgnoreRules parentRules = directoryRules.get(directory.getParent());
+        if (parentRules == null || directoryRules.containsKey(directory)) {
+            return;
+        }
+        configuration.treeFilter().enterDirectory(directory, parentRules)
+                .ifPresent(rules -> registerTree(directory, rules, true));
+    }
+
+    private void fileChanged(Path path) {
+        accumulator.remove(configuration.relativePath(path), configuration.matchModule(path));
+        IgnoreRules rules = directoryRules.get(path.getParent());
+        if (rules != null && Files.isRegularFile(path)) {
+            addFile(path, rules);
+        } else if (Files.notExists(path, LinkOption.NOFOLLOW_LINKS)) {
+            directoryDeleted(path);
+        }
+    }
+
+    private void addFile(Path file, IgnoreRules rules) {
+        if (!configuration.includes(file) || configuration.treeFilter().isIgnoredFile(file, rules)) {
+            return;
+        }
+        countLines(file).ifPresent(lines -> accumulator.add(configuration.relativePath(file), configuration.matchModule(file), lines));
+    }
+
+    // the file can be deleted before it is read, its deletion is reported by the next event
+    private static OptionalInt countLines(Path file) {
+        try {
+            return OptionalInt.of(LineCounter.countLines(file));
+        } catch (IOException ex) {
+            return OptionalInt.empty();
+        }
+    }
+
+    // the deleted path may have been a directory, with no events for its files on some platforms
+    private void directoryDeleted(Path path) {
+        for (String file : accumulator.filesIn(configuration.relativePath(path) + "/")) {
+            accumulator.remove(file, configuration.matchModule(configuration.resolve(file)));
+        }
+        directoryRules.keySet().removeIf(it -> it.startsWith(path));
+        watchedDirectories.entrySet().removeIf(it -> it.getValue().startsWith(path));
+    }
+
+    private void registerTree(Path directory, IgnoreRules rules, boolean addFiles) {
+        new FileTreeWalker<>(directory, new RegisteringFilter(directory, rules), 1).walk(Object::new, (worker, file, size, fileRules) -> {
+            if (addFiles) {
+                addFile(file, fileRules);
+            }
+        });
+    }
+
+    private void register(Path directory, IgnoreRules rules) {
+        try {
+            WatchKey key = directory.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+            directoryRules.put(directory, rules);
+        } catch (IOException ex) {
+            throw watchingError(ex);
+        }
+    }
+
+    private ModuleSizeCalculatorException watchingError(IOException ex) {
+        return new ModuleSizeCalculatorException("Error occur on watching project in `%s` directory.".formatted(configuration.rootDir().toAbsolutePath()), ex);
+    }
+
+    /**
+     * The filter of the project tree registering every entered directory.
+     */
+    private final class RegisteringFilter implements FileTreeWalker.DirectoryFilter<IgnoreRules> {
+        private final Path rootDirectory;
+        private final IgnoreRules rootRules;
+
+        RegisteringFilter(Path rootDirectory, IgnoreRules rootRules) {
+            this.rootDirectory = rootDirectory;
+            this.rootRules = rootRules;
+        }
+
+        @Override
+        public IgnoreRules rootState() {
+            register(rootDirectory, rootRules);
+            return rootRules;
+        }
+
+        @Override
+        public Optional<IgnoreRules> enterDirectory(Path directory, IgnoreRules parentRules) {
+            Optional<IgnoreRules> rules = configuration.treeFilter().enterDirectory(directory, parentRules);
+            rules.ifPresent(it -> register(directory, it));
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package pl.tfij.test.modulesize;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Optional;
+
+/**
+ * The relative size of a module, measured in the given kind of lines, must not exceed a threshold.
+ */
+final class RelativeSizeRule implements ModuleRule {
+    private final double threshold;
+    private final LineMetric metric;
+    private final DecimalFormat decimalFormat = numberFormatter();
+
+    RelativeSizeRule(double threshold, LineMetric metric) {
+        this.threshold = threshold;
+        this.metric = metric;
+        verifyThreshold();
+    }
+
+    private static DecimalFormat numberFormatter() {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+        return new DecimalFormat("#.####", symbols);
+    }
+
+    @Override
+    public Optional<String> violation(ModulePartialSummary summary) {
+        return violation("Module `%s`".formatted(summary.module().name()), summary.relativeModuleSize(metric));
+    }
+
+    /**
+     * @param subject the description of what is measured, e.g. a module with its submodules
+     * @param relativeSize the measured relative size, in the kind of lines of the rule
+     * @return the description of the violation of the rule, or empty if the relative size does not exceed the threshold
+     */
+    Optional<String> violation(String subject, double relativeSize) {
+        if (relativeSize <= threshold) {
+            return Optional.empty();
+        }
+        return Optional.of("%s relative size is %s. Max allowed size is %s."
+                .formatted(
+                        subject,
+                        decimalFormat.format(relativeSize),
+                        decimalFormat.format(threshold)
+                ));
+    }
+
+    @Override
+    public LineMetric metric() {
+        return metric;
+    }
+
+    private void verifyThreshold() {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be positive number in range (0, 1]. Given value is %s."
+                    .formatted(decimalFormat.format(threshold)));
+        }
+    }
+}
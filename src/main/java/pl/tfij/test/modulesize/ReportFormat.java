@@ -0,0 +1,66 @@
+package pl.tfij.test.modulesize;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * The built-in formats of a project summary report. The reports written to a byte output are encoded in UTF-8.
+ *
+ * @see SummaryReporter#report(ProjectSummary, SummaryReporter...)
+ */
+public enum ReportFormat {
+    /**
+     * The Mermaid pie chart of the number of lines of each module, the same as {@link ProjectSummary#createMermaidPieChart()}.
+     */
+    MERMAID(MermaidPieChart::new),
+    /**
+     * A CSV table with a header row, a row for each module and a row for each file.
+     */
+    CSV(CsvReporter::new),
+    /**
+     * A JSON object with the project totals, the array of modules and the array of files.
+     */
+    JSON(JsonReporter::new),
+    /**
+     * Newline-delimited JSON: an object with the project totals, and then an object for each module and each file, one per line.
+     */
+    NDJSON(NdjsonReporter::new);
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Function<Writer, SummaryReporter> reporter;
+
+    ReportFormat(Function<Writer, SummaryReporter> reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * @param out the output of the report, flushed but not closed when the report ends
+     * @return a reporter writing the report in this format
+     */
+    public SummaryReporter reporter(Writer out) {
+        return reporter.apply(out);
+    }
+
+    /**
+     * @param out the output of the report, flushed but not closed when the report ends
+     * @return a reporter writing the report in this format, encoded in UTF-8
+     */
+    public SummaryReporter reporter(OutputStream out) {
+        return reporter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * @param out the output of the report, not closed when the report ends
+     * @return a reporter writing the report in this format, encoded in UTF-8
+     */
+    public SummaryReporter reporter(WritableByteChannel out) {
+        return reporter(new BufferedWriter(Channels.newWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+}
@@ -0,0 +1,184 @@
+package pl.tfij.test.modulesize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Metrics of the scan of a project: where the time was spent, how many files and bytes were visited and read,
+ * which files were the slowest to read, and which reads timed out.
+ * <p>
+ * The total and walk times are wall-clock times. The walk time covers the traversal together with all the work
+ * done on the visited files. The times of the filter, match, count and aggregate phases are summed over all the
+ * worker threads, so in a parallel analysis they can exceed the wall-clock time. The aggregate time includes
+ * merging the results of the workers.
+ * </p>
+ */
+public final class ScanMetrics {
+    static final int VISITED_FILES = 0;
+    static final int VISITED_BYTES = 1;
+    static final int INCLUDED_FILES = 2;
+    static final int INCLUDED_BYTES = 3;
+    static final int FILE_COUNTS = 4;
+    static final ScanMetrics EMPTY = new ScanMetrics(
+            Duration.ZERO,
+            Duration.ZERO,
+            new long[ScanMetricsRecorder.Phase.values().length],
+            new long[FILE_COUNTS],
+            List.of(),
+            List.of());
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Duration totalTime;
+    private final Duration walkTime;
+    private final long[] phaseNanos;
+    private final long[] fileCounts;
+    private final List<FileReadTime> slowestFiles;
+    private final List<String> timedOutFiles;
+
+    ScanMetrics(Duration totalTime, Duration walkTime, long[] phaseNanos, long[] fileCounts, List<FileReadTime> slowestFiles, List<String> timedOutFiles) {
+        this.totalTime = totalTime;
+        this.walkTime = walkTime;
+        this.phaseNanos = phaseNanos;
+        this.fileCounts = fileCounts;
+        this.slowestFiles = slowestFiles;
+        this.timedOutFiles = timedOutFiles;
+    }
+
+    /**
+     * @return the wall-clock time of the whole analysis
+     */
+    public Duration totalTime() {
+        return totalTime;
+    }
+
+    /**
+     * @return the wall-clock time of the traversal of the project tree, including the work on the visited files
+     */
+    public Duration walkTime() {
+        return walkTime;
+    }
+
+    /**
+     * @return the time of checking the extensions and exclusions of the visited files
+     */
+    public Duration filterTime() {
+        return phaseTime(ScanMetricsRecorder.Phase.FILTER);
+    }
+
+    /**
+     * @return the time of matching the included files to modules
+     */
+    public Duration matchTime() {
+        return phaseTime(ScanMetricsRecorder.Phase.MATCH);
+    }
+
+    /**
+     * @return the time of reading the included files and counting their lines
+     */
+    public Duration countTime() {
+        return phaseTime(ScanMetricsRecorder.Phase.COUNT);
+    }
+
+    /**
+     * @return the time of adding the files to the module totals and merging the totals of the workers
+     */
+    public Duration aggregateTime() {
+        return phaseTime(ScanMetricsRecorder.Phase.AGGREGATE);
+    }
+
+    /**
+     * @return the number of regular files visited by the traversal
+     */
+    public long visitedFiles() {
+        return fileCounts[VISITED_FILES];
+    }
+
+    /**
+     * @return the total size of the regular files visited by the traversal
+     */
+    public long visitedBytes() {
+        return fileCounts[VISITED_BYTES];
+    }
+
+    /**
+     * @return the number of files included in the analysis, each of them read once
+     */
+    public long includedFiles() {
+        return fileCounts[INCLUDED_FILES];
+    }
+
+    /**
+     * @return the total size of the files included in the analysis
+     */
+    public long includedBytes() {
+        return fileCounts[INCLUDED_BYTES];
+    }
+
+    /**
+     * @return the number of included files analyzed per second of the total time
+     */
+    public double filesPerSecond() {
+        return perSecond(includedFiles());
+    }
+
+    /**
+     * @return the number of bytes of included files analyzed per second of the total time
+     */
+    public double bytesPerSecond() {
+        return perSecond(includedBytes());
+    }
+
+    /**
+     * @return the files with the longest read times, the slowest first
+     */
+    public List<FileReadTime> slowestFiles() {
+        return slowestFiles;
+    }
+
+    /**
+     * @return the files whose reads timed out with concurrent reads, their lines are not counted
+     */
+    public List<String> timedOutFiles() {
+        return timedOutFiles;
+    }
+
+    private Duration phaseTime(ScanMetricsRecorder.Phase phase) {
+        return Duration.ofNanos(phaseNanos[phase.ordinal()]);
+    }
+
+    private double perSecond(long count) {
+        if (totalTime.isZero()) {
+            return 0;
+        }
+        return count * NANOS_PER_SECOND / totalTime.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return ("ScanMetrics{total=%s, walk=%s, filter=%s, match=%s, count=%s, aggregate=%s, "
+                + "visited=%d files/%d bytes, included=%d files/%d bytes, %.1f files/s, slowest=[%s], timedOut=%s}")
+                .formatted(
+                        totalTime,
+                        walkTime,
+                        filterTime(),
+                        matchTime(),
+                        countTime(),
+                        aggregateTime(),
+                        visitedFiles(),
+                        visitedBytes(),
+                        includedFiles(),
+                        includedBytes(),
+                        filesPerSecond(),
+                        slowestFiles.stream().map(it -> it.file() + " " + it.readTime()).collect(Collectors.joining(", ")),
+                        timedOutFiles);
+    }
+
+    /**
+     * @param file the path of the file
+     * @param size the size of the file in bytes
+     * @param readTime the time of reading the file and counting its lines
+     */
+    public record FileReadTime(String file, long size, Duration readTime) { }
+}
@@ -0,0 +1,87 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Mutable, not thread-safe metrics of a scan worker. Every worker records its own, all of them are merged at the end.
+ * <p>
+ * The phase times are measured by laps: each call of {@link #lap(Phase, long)} closes the phase started
+ * at the given time, so a file costs one {@link System#nanoTime()} call per phase. Only the slowest files are kept.
+ * </p>
+ */
+final class ScanMetricsRecorder {
+    static final int SLOWEST_FILES = 10;
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] fileCounts = new long[ScanMetrics.FILE_COUNTS];
+    private final PriorityQueue<ScanMetrics.FileReadTime> slowestFiles = new PriorityQueue<>(Comparator.comparing(ScanMetrics.FileReadTime::readTime));
+    private final List<String> timedOutFiles = new ArrayList<>();
+
+    enum Phase {
+        FILTER, MATCH, COUNT, AGGREGATE
+    }
+
+    /**
+     * @param phase the finished phase
+     * @param start the time the phase started at
+     * @return the time the phase finished at, i.e. the start of the next phase
+     */
+    long lap(Phase phase, long start) {
+        long end = System.nanoTime();
+        phaseNanos[phase.ordinal()] += end - start;
+        return end;
+    }
+
+    void add(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void fileVisited(long size) {
+        fileCounts[ScanMetrics.VISITED_FILES]++;
+        fileCounts[ScanMetrics.VISITED_BYTES] += size;
+    }
+
+    void fileRead(Path file, long size, long readNanos) {
+        fileCounts[ScanMetrics.INCLUDED_FILES]++;
+        fileCounts[ScanMetrics.INCLUDED_BYTES] += size;
+        if (slowestFiles.size() < SLOWEST_FILES || readNanos > slowestFiles.peek().readTime().toNanos()) {
+            slowestFiles.add(new ScanMetrics.FileReadTime(file.toString(), size, Duration.ofNanos(readNanos)));
+            trimSlowestFiles();
+        }
+    }
+
+    void fileTimedOut(Path file) {
+        timedOutFiles.add(file.toString());
+    }
+
+    ScanMetricsRecorder merge(ScanMetricsRecorder other) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+        for (int i = 0; i < fileCounts.length; i++) {
+            fileCounts[i] += other.fileCounts[i];
+        }
+        slowestFiles.addAll(other.slowestFiles);
+        trimSlowestFiles();
+        timedOutFiles.addAll(other.timedOutFiles);
+        return this;
+    }
+
+    ScanMetrics toScanMetrics(Duration totalTime, Duration walkTime) {
+        List<ScanMetrics.FileReadTime> slowest = slowestFiles.stream()
+                .sorted(Comparator.comparing(ScanMetrics.FileReadTime::readTime).reversed())
+                .toList();
+        return new ScanMetrics(totalTime, walkTime, phaseNanos.clone(), fileCounts.clone(), slowest, List.copyOf(timedOutFiles));
+    }
+
+    private void trimSlowestFiles() {
+        while (slowestFiles.size() > SLOWEST_FILES) {
+            slowestFiles.poll();
+        }
+    }
+}
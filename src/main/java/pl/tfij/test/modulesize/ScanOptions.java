@@ -0,0 +1,45 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * How the files of a project are read, independently of which files are analyzed.
+ *
+ * @param parallelism the number of threads counting files, one means the files are counted on the calling thread
+ * @param lineCountCacheFile the file of the line count cache
+ * @param concurrentReads the settings of reading many files at once on a high-latency file system
+ */
+record ScanOptions(int parallelism, Optional<Path> lineCountCacheFile, Optional<ConcurrentReads> concurrentReads) {
+    static final ScanOptions SEQUENTIAL = new ScanOptions(1, Optional.empty(), Optional.empty());
+
+    ScanOptions {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive number. Given value is %s.".formatted(parallelism));
+        }
+    }
+
+    /**
+     * @param options the options of the configurations analyzed together
+     * @return the highest parallelism, and the first line count cache and concurrent reads set
+     */
+    static ScanOptions combine(List<ScanOptions> options) {
+        return new ScanOptions(
+                options.stream().mapToInt(ScanOptions::parallelism).max().orElseThrow(),
+                options.stream().flatMap(it -> it.lineCountCacheFile.stream()).findFirst(),
+                options.stream().flatMap(it -> it.concurrentReads.stream()).findFirst());
+    }
+
+    ScanOptions withParallelism(int newParallelism) {
+        return new ScanOptions(newParallelism, lineCountCacheFile, concurrentReads);
+    }
+
+    ScanOptions withLineCountCache(Path cacheFile) {
+        return new ScanOptions(parallelism, Optional.of(cacheFile), concurrentReads);
+    }
+
+    ScanOptions withConcurrentReads(ConcurrentReads reads) {
+        return new ScanOptions(parallelism, lineCountCacheFile, Optional.of(reads));
+    }
+}
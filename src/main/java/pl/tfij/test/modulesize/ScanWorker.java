@@ -0,0 +1,58 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The state of a thread of the scan: the aggregate of the project for each configuration and the scan metrics.
+ * The lap measures the time since the end of the previous phase.
+ * The classified lines of the last counted file are held by the classifier of the thread, or copied from a reader thread.
+ */
+final class ScanWorker {
+    private final List<ModuleAccumulator> accumulators;
+    private final ScanMetricsRecorder metrics = new ScanMetricsRecorder();
+    private long lapStart;
+    private FileLines classified;
+
+    ScanWorker(List<ModuleAccumulator> accumulators) {
+        this.accumulators = accumulators;
+    }
+
+    List<ModuleAccumulator> accumulators() {
+        return accumulators;
+    }
+
+    ScanMetricsRecorder metrics() {
+        return metrics;
+    }
+
+    FileLines classified(FileLines lines) {
+        classified = lines;
+        return lines;
+    }
+
+    void startLap() {
+        lapStart = System.nanoTime();
+    }
+
+    long lap(ScanMetricsRecorder.Phase phase) {
+        long start = lapStart;
+        lapStart = metrics.lap(phase, start);
+        return lapStart - start;
+    }
+
+    // the relative path is only needed by file details
+    void add(ModuleAccumulator accumulator, AnalysisConfiguration configuration, Path file, int linesOfCode) {
+        int module = configuration.matchModule(file);
+        lap(ScanMetricsRecorder.Phase.MATCH);
+        if (accumulator.keepsFileDetails()) {
+            accumulator.add(configuration.relativePath(file), module, linesOfCode);
+        } else {
+            accumulator.add(module, linesOfCode);
+        }
+        if (configuration.classifyLines()) {
+            accumulator.addClassified(module, classified.codeLines(), classified.commentLines(), classified.blankLines());
+        }
+        lap(ScanMetricsRecorder.Phase.AGGREGATE);
+    }
+}
@@ -0,0 +1,238 @@
+package pl.tfij.test.modulesize;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static pl.tfij.test.modulesize.Module.UNDEFINED_MODULE;
+
+/**
+ * A set of module size rules verified together by {@link ProjectSummary#verify(SizeRules)}.
+ * <p>
+ * All the rules are evaluated in a single pass over the analyzed modules, and every violation is reported
+ * in one {@link AssertionError}, so a build shows all the modules to fix at once. The arguments of each rule
+ * are validated when the rule is added.
+ * </p>
+ */
+public final class SizeRules {
+    private final List<ModuleRule> eachModuleRules = new ArrayList<>();
+    private final Map<String, List<ModuleRule>> moduleRules = new LinkedHashMap<>();
+    private final List<ModuleRule> undefinedModuleRules = new ArrayList<>();
+    private final Map<String, List<RelativeSizeRule>> moduleTreeRules = new LinkedHashMap<>();
+    private final List<RelativeSizeRule> submoduleRules = new ArrayList<>();
+    private boolean noEmptyModules;
+
+    private SizeRules() {
+    }
+
+    /**
+     * @return An empty set of rules.
+     */
+    public static SizeRules create() {
+        return new SizeRules();
+    }
+
+    /**
+     * Requires the relative size of each module to be smaller than the threshold (relative to the total project size).
+     *
+     * @param threshold The maximum relative size of each module. Must be a positive number in the range (0, 1].
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     */
+    public SizeRules eachModuleRelativeSizeIsSmallerThan(double threshold) {
+        return eachModuleRelativeSizeIsSmallerThan(threshold, LineMetric.LINES);
+    }
+
+    /**
+     * Requires the relative size of each module, measured in the given kind of lines, to be smaller than the threshold.
+     *
+     * @param threshold The maximum relative size of each module. Must be a positive number in the range (0, 1].
+     * @param metric    The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     */
+    public SizeRules eachModuleRelativeSizeIsSmallerThan(double threshold, LineMetric metric) {
+        eachModuleRules.add(new RelativeSizeRule(threshold, metric));
+        return this;
+    }
+
+    /**
+     * Requires the number of lines of each module, of the given kind, to be at most the given number.
+     *
+     * @param maxLines The maximum number of lines of each module.
+     * @param metric   The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the maxLines is negative.
+     */
+    public SizeRules eachModuleHasAtMostLines(long maxLines, LineMetric metric) {
+        eachModuleRules.add(new AbsoluteSizeRule(maxLines, metric));
+        return this;
+    }
+
+    /**
+     * Requires the relative size of the given module, measured in the given kind of lines, to be smaller than the threshold.
+     *
+     * @param module    The name of the defined module.
+     * @param threshold The maximum relative size of the module. Must be a positive number in the range (0, 1].
+     * @param metric    The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     */
+    public SizeRules moduleRelativeSizeIsSmallerThan(String module, double threshold, LineMetric metric) {
+        moduleRules.computeIfAbsent(module, it -> new ArrayList<>()).add(new RelativeSizeRule(threshold, metric));
+        return this;
+    }
+
+    /**
+     * Requires the number of lines of the given module, of the given kind, to be at most the given number.
+     *
+     * @param module   The name of the defined module.
+     * @param maxLines The maximum number of lines of the module.
+     * @param metric   The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the maxLines is negative.
+     */
+    public SizeRules moduleHasAtMostLines(String module, long maxLines, LineMetric metric) {
+        moduleRules.computeIfAbsent(module, it -> new ArrayList<>()).add(new AbsoluteSizeRule(maxLines, metric));
+        return this;
+    }
+
+    /**
+     * Requires the relative size of the given module together with all its submodules, measured in the given kind of lines,
+     * to be smaller than the threshold (relative to the total project size).
+     *
+     * @param module    The name of the defined module.
+     * @param threshold The maximum relative size of the module with its submodules. Must be a positive number in the range (0, 1].
+     * @param metric    The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     * @see ModuleTree
+     */
+    public SizeRules moduleTreeRelativeSizeIsSmallerThan(String module, double threshold, LineMetric metric) {
+        moduleTreeRules.computeIfAbsent(module, it -> new ArrayList<>()).add(new RelativeSizeRule(threshold, metric));
+        return this;
+    }
+
+    /**
+     * Requires the relative size of each submodule together with its own submodules, measured in the given kind of lines,
+     * to be smaller than the threshold relative to the size of its parent module with all its submodules.
+     *
+     * @param threshold The maximum size of each submodule relative to its parent. Must be a positive number in the range (0, 1].
+     * @param metric    The kind of lines the size is measured in.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the threshold is not within the valid range.
+     * @see ModuleTree
+     */
+    public SizeRules eachSubmoduleRelativeSizeToParentIsSmallerThan(double threshold, LineMetric metric) {
+        submoduleRules.add(new RelativeSizeRule(threshold, metric));
+        return this;
+    }
+
+    /**
+     * Requires the number of files outside of all the defined modules to be at most the given number.
+     *
+     * @param allowedFileCount The maximum number of files in the undefined module. Must be positive or zero.
+     * @return The SizeRules instance to allow method chaining.
+     * @throws IllegalArgumentException if the allowedFileCount is negative.
+     */
+    public SizeRules undefinedModuleNumberOfFilesIsSmallerThan(int allowedFileCount) {
+        undefinedModuleRules.add(new UndefinedFilesRule(allowedFileCount));
+        return this;
+    }
+
+    /**
+     * Requires each defined module to contain at least one analyzed file.
+     *
+     * @return The SizeRules instance to allow method chaining.
+     */
+    public SizeRules noEmptyModules() {
+        noEmptyModules = true;
+        return this;
+    }
+
+    /**
+     * A single violation is reported with its own message, several are listed one per line.
+     *
+     * @param modules the index of the verified project summary
+     * @throws IllegalArgumentException if a rule refers to a module that is not defined
+     * @throws IllegalStateException    if a rule requires classified lines and the lines were not classified
+     * @throws AssertionError           listing every violation
+     */
+    void verify(ModuleIndex modules) {
+        report(violations(modules));
+    }
+
+    /**
+     * @param violations the messages of the violated rules
+     * @throws AssertionError listing every violation, or with the message of the violation if there is only one
+     */
+    static void report(List<String> violations) {
+        if (violations.size() == 1) {
+            throw new AssertionError(violations.get(0));
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Found %s violations of module size rules:\n%s"
+                    .formatted(violations.size(), violations.stream().map(it -> "- " + it).collect(Collectors.joining("\n"))));
+        }
+    }
+
+    // the rules of each analyzed module are resolved before the single pass over the modules
+    private List<String> violations(ModuleIndex modules) {
+        Map<Module, List<ModuleRule>> rulesByModule = rulesByModule(modules);
+        Stream.of(eachModuleRules, rulesByModule.values().stream().flatMap(List::stream).toList(), treeRules())
+                .flatMap(List::stream)
+                .forEach(rule -> rule.verifyLinesClassified(modules.linesClassified()));
+        List<String> violations = new ArrayList<>();
+        if (noEmptyModules) {
+            modules.emptyModules().forEach(module -> violations.add("Module `%s` is empty.".formatted(module.name())));
+        }
+        for (ModulePartialSummary module : modules.modulesByName()) {
+            List<ModuleRule> rules = rulesByModule.getOrDefault(module.module(), List.of());
+            Stream.concat(eachModuleRules.stream(), rules.stream()).forEach(rule -> rule.violation(module).ifPresent(violations::add));
+        }
+        violations.addAll(treeViolations(modules.moduleTree()));
+        return violations;
+    }
+
+    private List<ModuleRule> treeRules() {
+        return Stream.concat(moduleTreeRules.values().stream().flatMap(List::stream), submoduleRules.stream()).map(ModuleRule.class::cast).toList();
+    }
+
+    // the rolled up totals of the modules, so a module is measured with all its submodules
+    private List<String> treeViolations(ModuleTree tree) {
+        List<String> violations = new ArrayList<>();
+        moduleTreeRules.forEach((name, rules) -> {
+            ModuleTree.Node node = tree.module(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Module `%s` was not defined.".formatted(name)));
+            String subject = "Module `%s` with its submodules".formatted(name);
+            rules.forEach(rule -> treeViolation(rule, subject, node.rolledUp()).ifPresent(violations::add));
+        });
+        for (ModuleTree.Node node : tree.modules()) {
+            node.parent().ifPresent(parent -> {
+                String subject = "Module `%s` within `%s`".formatted(node.moduleName(), parent.moduleName());
+                submoduleRules.forEach(rule -> treeViolation(rule, subject, node.withinParent()).ifPresent(violations::add));
+            });
+        }
+        return violations;
+    }
+
+    private static Optional<String> treeViolation(RelativeSizeRule rule, String subject, ModulePartialSummary module) {
+        return rule.violation(subject, module.relativeModuleSize(rule.metric()));
+    }
+
+    private Map<Module, List<ModuleRule>> rulesByModule(ModuleIndex modules) {
+        Map<Module, List<ModuleRule>> rulesByModule = new HashMap<>();
+        moduleRules.forEach((name, rules) -> {
+            Module module = modules.definedModule(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Module `%s` was not defined.".formatted(name)));
+            rulesByModule.computeIfAbsent(module, it -> new ArrayList<>()).addAll(rules);
+        });
+        rulesByModule.computeIfAbsent(UNDEFINED_MODULE, it -> new ArrayList<>()).addAll(undefinedModuleRules);
+        return rulesByModule;
+    }
+}
@@ -0,0 +1,83 @@
+package pl.tfij.test.modulesize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of lines of the files of a project, sorted by their UTF-8 encoded paths compared as unsigned bytes,
+ * i.e. in the order of the code points. It is the order of the file entries of a snapshot, so the files of a snapshot
+ * are compared without decoding their paths.
+ */
+interface SortedFiles {
+
+    int size();
+
+    /**
+     * @param index the index of the file
+     * @return the UTF-8 encoded path of the file, a buffer of its own that can be consumed
+     */
+    ByteBuffer path(int index);
+
+    int linesOfCode(int index);
+
+    default String decodedPath(int index) {
+        return StandardCharsets.UTF_8.decode(path(index)).toString();
+    }
+
+    /**
+     * @param files the number of lines per file path
+     * @return the files with the paths encoded and sorted once
+     */
+    static SortedFiles of(Map<String, Integer> files) {
+        List<Map.Entry<byte[], Integer>> entries = files.entrySet().stream()
+                .map(it -> Map.entry(it.getKey().getBytes(StandardCharsets.UTF_8), it.getValue()))
+                .sorted((left, right) -> Arrays.compareUnsigned(left.getKey(), right.getKey()))
+                .toList();
+        return new EncodedFiles(
+                entries.stream().map(Map.Entry::getKey).toArray(byte[][]::new),
+                entries.stream().mapToInt(Map.Entry::getValue).toArray());
+    }
+
+    /**
+     * A shorter path being a prefix of a longer one is ordered first, as by {@link Arrays#compareUnsigned(byte[], byte[])}.
+     *
+     * @param left the UTF-8 encoded path
+     * @param right the other UTF-8 encoded path
+     * @return a negative number, zero or a positive number if the left path is ordered before, the same as or after the right one
+     */
+    static int compare(ByteBuffer left, ByteBuffer right) {
+        int mismatch = left.mismatch(right);
+        if (mismatch == -1) {
+            return 0;
+        }
+        if (mismatch == left.remaining() || mismatch == right.remaining()) {
+            return left.remaining() - right.remaining();
+        }
+        return Byte.compareUnsigned(left.get(left.position() + mismatch), right.get(right.position() + mismatch));
+    }
+
+    /**
+     * @param paths the UTF-8 encoded paths, sorted
+     * @param linesOfCode the number of lines of each file
+     */
+    record EncodedFiles(byte[][] paths, int[] linesOfCode) implements SortedFiles {
+
+        @Override
+        public int size() {
+            return paths.length;
+        }
+
+        @Override
+        public ByteBuffer path(int index) {
+            return ByteBuffer.wrap(paths[index]);
+        }
+
+        @Override
+        public int linesOfCode(int index) {
+            return linesOfCode[index];
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package pl.tfij.test.modulesize;
+
+/**
+ * The position in a source code file in the syntax of Java and similar languages, the state of {@link LineClassifier}.
+ * Each state consumes a byte other than a line terminator, marks the current line as containing code or comments,
+ * and returns the next state.
+ * <p>
+ * The states define the transitions, which are tabulated once for each state and class of bytes, so the classifier
+ * looks them up instead of calling a method of the current state for every byte.
+ * A transition is packed into an int: the ordinal of the next state shifted by {@link #STATE_SHIFT} and the marks.
+ * </p>
+ */
+enum SourceCodeState {
+    CODE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (isWhitespace(value)) {
+                return this;
+            }
+            if (value == '/') {
+                return SLASH;
+            }
+            marks.code();
+            return literalStart(value);
+        }
+    },
+    // a slash in code, starting a comment or being an operator
+    SLASH {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '/') {
+                marks.comment();
+                return LINE_COMMENT;
+            }
+            if (value == '*') {
+                marks.comment();
+                return BLOCK_COMMENT;
+            }
+            marks.code();
+            return CODE.next(marks, value);
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            marks.code();
+            return CODE;
+        }
+    },
+    LINE_COMMENT {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            return this;
+        }
+    },
+    BLOCK_COMMENT {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (!isWhitespace(value)) {
+                marks.comment();
+            }
+            if (value == '*') {
+                return BLOCK_COMMENT_STAR;
+            }
+            return this;
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return this;
+        }
+    },
+    BLOCK_COMMENT_STAR {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '/') {
+                marks.comment();
+                return CODE;
+            }
+            return BLOCK_COMMENT.next(marks, value);
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return BLOCK_COMMENT;
+        }
+    },
+    // a single quote, starting a string literal or a text block
+    QUOTE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '"') {
+                return QUOTES;
+            }
+            return STRING.next(marks, value);
+        }
+    },
+    // two quotes, an empty string literal or the beginning of a text block
+    QUOTES {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '"') {
+                return TEXT_BLOCK;
+            }
+            return CODE.next(marks, value);
+        }
+    },
+    STRING {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '\\') {
+                return STRING_ESCAPE;
+            }
+            if (value == '"') {
+                return CODE;
+            }
+            return this;
+        }
+    },
+    STRING_ESCAPE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            return STRING;
+        }
+    },
+    CHARACTER {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '\\') {
+                return CHARACTER_ESCAPE;
+            }
+            if (value == '\'') {
+                return CODE;
+            }
+            return this;
+        }
+    },
+    CHARACTER_ESCAPE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            return CHARACTER;
+        }
+    },
+    TEXT_BLOCK {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (isWhitespace(value)) {
+                return this;
+            }
+            marks.code();
+            if (value == '\\') {
+                return TEXT_BLOCK_ESCAPE;
+            }
+            if (value == '"') {
+                return TEXT_BLOCK_QUOTE;
+            }
+            return this;
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return this;
+        }
+    },
+    TEXT_BLOCK_ESCAPE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            return TEXT_BLOCK;
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return TEXT_BLOCK;
+        }
+    },
+    TEXT_BLOCK_QUOTE {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '"') {
+                return TEXT_BLOCK_QUOTES;
+            }
+            return TEXT_BLOCK.next(marks, value);
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return TEXT_BLOCK;
+        }
+    },
+    TEXT_BLOCK_QUOTES {
+        @Override
+        SourceCodeState next(Marks marks, byte value) {
+            if (value == '"') {
+                return CODE;
+            }
+            return TEXT_BLOCK.next(marks, value);
+        }
+
+        @Override
+        SourceCodeState endLine(Marks marks) {
+            return TEXT_BLOCK;
+        }
+    };
+
+    static final int CODE_MARK = 1;
+    static final int COMMENT_MARK = 2;
+    static final int MARKS = CODE_MARK | COMMENT_MARK;
+    static final int STATE_SHIFT = 2;
+
+    // a representative of each class of bytes, the other bytes are in the class of the first one
+    private static final byte[] REPRESENTATIVES = {'a', ' ', '\t', '\f', '/', '*', '"', '\'', '\\'};
+    private static final int BYTE_VALUES = 256;
+    private static final int BYTE_MASK = BYTE_VALUES - 1;
+    private static final byte[] BYTE_CLASSES = byteClasses();
+    private static final int[] TRANSITIONS = transitions();
+    private static final int[] LINE_END_TRANSITIONS = lineEndTransitions();
+
+    static int transition(int state, byte value) {
+        return TRANSITIONS[state * REPRESENTATIVES.length + BYTE_CLASSES[value & BYTE_MASK]];
+    }
+
+    static int lineEndTransition(int state) {
+        return LINE_END_TRANSITIONS[state];
+    }
+
+    private static byte[] byteClasses() {
+        byte[] classes = new byte[BYTE_VALUES];
+        for (byte i = 0; i < REPRESENTATIVES.length; i++) {
+            classes[REPRESENTATIVES[i]] = i;
+        }
+        return classes;
+    }
+
+    private static int[] transitions() {
+        SourceCodeState[] states = values();
+        int[] transitions = new int[states.length * REPRESENTATIVES.length];
+        for (SourceCodeState state : states) {
+            for (int i = 0; i < REPRESENTATIVES.length; i++) {
+                Marks marks = new Marks();
+                transitions[state.ordinal() * REPRESENTATIVES.length + i] = marks.transition(state.next(marks, REPRESENTATIVES[i]));
+            }
+        }
+        return transitions;
+    }
+
+    private static int[] lineEndTransitions() {
+        SourceCodeState[] states = values();
+        int[] transitions = new int[states.length];
+        for (SourceCodeState state : states) {
+            Marks marks = new Marks();
+            transitions[state.ordinal()] = marks.transition(state.endLine(marks));
+        }
+        return transitions;
+    }
+
+    abstract SourceCodeState next(Marks marks, byte value);
+
+    /**
+     * @param marks the marks of the terminated line
+     * @return the state at the beginning of the next line. Only comments and text blocks span several lines,
+     *         an unterminated literal ends with its line.
+     */
+    SourceCodeState endLine(Marks marks) {
+        return CODE;
+    }
+
+    private static SourceCodeState literalStart(byte value) {
+        if (value == '"') {
+            return QUOTE;
+        }
+        if (value == '\'') {
+            return CHARACTER;
+        }
+        return CODE;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\f';
+    }
+
+    /**
+     * The marks of the current line made by a transition.
+     */
+    private static final class Marks {
+        private int value;
+
+        void code() {
+            value |= CODE_MARK;
+        }
+
+        void comment() {
+            value |= COMMENT_MARK;
+        }
+
+        int transition(SourceCodeState next) {
+            return next.ordinal() << STATE_SHIFT | value;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package pl.tfij.test.modulesize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+/**
+ * The differences between two summaries of a project, e.g. of two builds: how many files and lines each module
+ * gained or lost, and optionally which files changed their number of lines.
+ * <p>
+ * The modules of a summary are sorted by name and the files by their UTF-8 encoded paths, so the differences are found
+ * by a single merge of the sorted entries, in linear time. The files of snapshots are compared in place,
+ * only the paths of the changed files are decoded. The files of an analyzed summary are sorted once, on the first request
+ * of the file differences, which requires file details of both summaries.
+ * </p>
+ */
+public final class SummaryDiff {
+    private final List<ModuleDiff> modules;
+    private final Supplier<Optional<SortedFiles>> filesBefore;
+    private final Supplier<Optional<SortedFiles>> filesAfter;
+
+    /**
+     * The memoized file differences. A race only computes equal differences twice, the list is immutable.
+     */
+    private volatile List<FileDiff> files;
+
+    private SummaryDiff(
+            List<ProjectSummary.ModuleSummary> modulesBefore,
+            List<ProjectSummary.ModuleSummary> modulesAfter,
+            Supplier<Optional<SortedFiles>> filesBefore,
+            Supplier<Optional<SortedFiles>> filesAfter) {
+        this.modules = diffModules(modulesBefore, modulesAfter);
+        this.filesBefore = filesBefore;
+        this.filesAfter = filesAfter;
+    }
+
+    /**
+     * Compares two analyzed summaries of a project.
+     *
+     * @param before The summary of the earlier version of the project.
+     * @param after The summary of the later version of the project.
+     * @return The differences of the modules, and of the files if both projects were analyzed with file details.
+     */
+    public static SummaryDiff between(ProjectSummary before, ProjectSummary after) {
+        return new SummaryDiff(
+                before.modulesSummary(),
+                after.modulesSummary(),
+                before::sortedFiles,
+                after::sortedFiles);
+    }
+
+    /**
+     * Compares two snapshots of a project, e.g. saved by two CI builds.
+     *
+     * @param before The snapshot of the earlier version of the project.
+     * @param after The snapshot of the later version of the project.
+     * @return The differences of the modules, and of the files if both snapshots keep file details.
+     */
+    public static SummaryDiff between(ProjectSnapshot before, ProjectSnapshot after) {
+        return new SummaryDiff(
+                before.modulesSummary(),
+                after.modulesSummary(),
+                () -> Optional.of(before.files()).filter(it -> before.hasFileDetails()),
+                () -> Optional.of(after.files()).filter(it -> after.hasFileDetails()));
+    }
+
+    /**
+     * @return An immutable list of the differences of all the modules of both summaries, sorted by the module name.
+     */
+    public List<ModuleDiff> modules() {
+        return modules;
+    }
+
+    /**
+     * @return An immutable list of the files whose number of lines changed, including the added and removed ones,
+     *         sorted by their UTF-8 encoded paths.
+     * @throws IllegalStateException if any of the summaries has no file details.
+     */
+    public List<FileDiff> files() {
+        List<FileDiff> diff = files;
+        if (diff == null) {
+            diff = diffFiles(requireFileDetails(filesBefore), requireFileDetails(filesAfter));
+            files = diff;
+        }
+        return diff;
+    }
+
+    /**
+     * Verifies that no module grew by more than the given number of lines.
+     *
+     * @param maxAddedLines The maximum number of lines a module may gain. Must be positive or zero.
+     * @return The SummaryDiff instance to allow method chaining.
+     * @throws IllegalArgumentException if the maxAddedLines is negative.
+     * @throws AssertionError listing every module that grew too much.
+     */
+    public SummaryDiff verifyEachModuleGrewByAtMost(long maxAddedLines) {
+        verifyMaxAddedLines(maxAddedLines);
+        SizeRules.report(modules.stream().flatMap(it -> growthViolation(it, maxAddedLines).stream()).toList());
+        return this;
+    }
+
+    /**
+     * Verifies that the given module did not grow by more than the given number of lines.
+     *
+     * @param module The name of the module.
+     * @param maxAddedLines The maximum number of lines the module may gain. Must be positive or zero.
+     * @return The SummaryDiff instance to allow method chaining.
+     * @throws IllegalArgumentException if the module is in none of the summaries or the maxAddedLines is negative.
+     * @throws AssertionError if the module grew too much.
+     */
+    public SummaryDiff verifyModuleGrewByAtMost(String module, long maxAddedLines) {
+        verifyMaxAddedLines(maxAddedLines);
+        ModuleDiff diff = modules.stream()
+                .filter(it -> it.moduleName().equals(module))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Module `%s` is in none of the compared summaries.".formatted(module)));
+        SizeRules.report(growthViolation(diff, maxAddedLines).stream().toList());
+        return this;
+    }
+
+    private static void verifyMaxAddedLines(long maxAddedLines) {
+        if (maxAddedLines < 0) {
+            throw new IllegalArgumentException("maxAddedLines must be positive number or zero. Given value is %s.".formatted(maxAddedLines));
+        }
+    }
+
+    private static Optional<String> growthViolation(ModuleDiff module, long maxAddedLines) {
+        if (module.linesOfCodeChange() <= maxAddedLines) {
+            return Optional.empty();
+        }
+        return Optional.of("Module `%s` grew by %s lines. Max allowed growth is %s."
+                .formatted(module.moduleName(), module.linesOfCodeChange(), maxAddedLines));
+    }
+
+    private static SortedFiles requireFileDetails(Supplier<Optional<SortedFiles>> files) {
+        return files.get().orElseThrow(
+                () -> new IllegalStateException("File details are required to compare files. Analyze the projects withFileDetails()."));
+    }
+
+    // both lists are sorted by the module name, a module missing on one side has no files there
+    private static List<ModuleDiff> diffModules(List<ProjectSummary.ModuleSummary> before, List<ProjectSummary.ModuleSummary> after) {
+        List<ModuleDiff> diff = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            int comparison = compareModules(before, i, after, j);
+            if (comparison < 0) {
+                diff.add(new ModuleDiff(before.get(i).moduleName(), before.get(i).totalNumberOfFiles(), 0, before.get(i).totalLinesOfCode(), 0));
+                i++;
+            } else if (comparison > 0) {
+                diff.add(new ModuleDiff(after.get(j).moduleName(), 0, after.get(j).totalNumberOfFiles(), 0, after.get(j).totalLinesOfCode()));
+                j++;
+            } else {
+                diff.add(ModuleDiff.of(before.get(i++), after.get(j++)));
+            }
+        }
+        return List.copyOf(diff);
+    }
+
+    private static int compareModules(List<ProjectSummary.ModuleSummary> before, int i, List<ProjectSummary.ModuleSummary> after, int j) {
+        if (j == after.size()) {
+            return -1;
+        }
+        if (i == before.size()) {
+            return 1;
+        }
+        return before.get(i).moduleName().compareTo(after.get(j).moduleName());
+    }
+
+    private static List<FileDiff> diffFiles(SortedFiles before, SortedFiles after) {
+        List<FileDiff> diff = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            int comparison = compareFiles(before, i, after, j);
+            if (comparison < 0) {
+                diff.add(new FileDiff(before.decodedPath(i), OptionalInt.of(before.linesOfCode(i)), OptionalInt.empty()));
+                i++;
+            } else if (comparison > 0) {
+                diff.add(new FileDiff(after.decodedPath(j), OptionalInt.empty(), OptionalInt.of(after.linesOfCode(j))));
+                j++;
+            } else {
+                diffFile(before, i++, after, j++).ifPresent(diff::add);
+            }
+        }
+        return List.copyOf(diff);
+    }
+
+    private static int compareFiles(SortedFiles before, int i, SortedFiles after, int j) {
+        if (j == after.size()) {
+            return -1;
+        }
+        if (i == before.size()) {
+            return 1;
+        }
+        return SortedFiles.compare(before.path(i), after.path(j));
+    }
+
+    // the path is decoded only if the number of lines changed
+    private static Optional<FileDiff> diffFile(SortedFiles before, int i, SortedFiles after, int j) {
+        if (before.linesOfCode(i) == after.linesOfCode(j)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileDiff(after.decodedPath(j), OptionalInt.of(before.linesOfCode(i)), OptionalInt.of(after.linesOfCode(j))));
+    }
+
+    /**
+     * @param moduleName the name of the module
+     * @param numberOfFilesBefore number of files of the module in the earlier summary, zero if the module is not there
+     * @param numberOfFilesAfter number of files of the module in the later summary, zero if the module is not there
+     * @param linesOfCodeBefore number of lines of the module in the earlier summary, zero if the module is not there
+     * @param linesOfCodeAfter number of lines of the module in the later summary, zero if the module is not there
+     */
+    public record ModuleDiff(String moduleName, long numberOfFilesBefore, long numberOfFilesAfter, long linesOfCodeBefore, long linesOfCodeAfter) {
+
+        static ModuleDiff of(ProjectSummary.ModuleSummary before, ProjectSummary.ModuleSummary after) {
+            return new ModuleDiff(
+                    before.moduleName(),
+                    before.totalNumberOfFiles(),
+                    after.totalNumberOfFiles(),
+                    before.totalLinesOfCode(),
+                    after.totalLinesOfCode());
+        }
+
+        /**
+         * @return the number of files the module gained, negative if it lost files
+         */
+        public long numberOfFilesChange() {
+            return numberOfFilesAfter - numberOfFilesBefore;
+        }
+
+        /**
+         * @return the number of lines the module gained, negative if it shrank
+         */
+        public long linesOfCodeChange() {
+            return linesOfCodeAfter - linesOfCodeBefore;
+        }
+    }
+
+    /**
+     * @param file the path of the file relative to the project root directory
+     * @param linesOfCodeBefore number of lines of the file in the earlier summary, empty if the file was added
+     * @param linesOfCodeAfter number of lines of the file in the later summary, empty if the file was removed
+     */
+    public record FileDiff(String file, OptionalInt linesOfCodeBefore, OptionalInt linesOfCodeAfter) {
+
+        /**
+         * @return the number of lines the file gained, negative if it shrank
+         */
+        public long linesOfCodeChange() {
+            return linesOfCodeAfter.orElse(0) - linesOfCodeBefore.orElse(0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes a project summary in some format straight to its output, without building the whole report in memory.
+ * <p>
+ * A reporter receives the summary as a sequence of calls: {@link #start(long, long)}, {@link #module(ProjectSummary.ModuleSummary)}
+ * for each module sorted by the module name, {@link #file(String, int)} for each file sorted by the path if the project was analyzed
+ * with file details, and {@link #end()}. The reporters of the built-in formats are created by {@link ReportFormat},
+ * other formats can be written by implementing this interface.
+ * </p>
+ */
+public interface SummaryReporter {
+
+    /**
+     * Called once, before any module.
+     *
+     * @param totalNumberOfFiles total number of files in the project
+     * @param totalLinesOfCode total number of lines of code in the project
+     * @throws IOException if the report can not be written
+     */
+    void start(long totalNumberOfFiles, long totalLinesOfCode) throws IOException;
+
+    /**
+     * Called for each analyzed module, in the order of the module names.
+     *
+     * @param module the summary of the module
+     * @throws IOException if the report can not be written
+     */
+    void module(ProjectSummary.ModuleSummary module) throws IOException;
+
+    /**
+     * Called for each analyzed file, in the order of the paths, after all the modules. Ignored by default.
+     *
+     * @param file the path of the file relative to the project root directory
+     * @param linesOfCode number of lines of the file
+     * @throws IOException if the report can not be written
+     */
+    default void file(String file, int linesOfCode) throws IOException {
+    }
+
+    /**
+     * Called once, after all the modules and files. Completes and flushes the report, without closing the output.
+     *
+     * @throws IOException if the report can not be written
+     */
+    void end() throws IOException;
+
+    /**
+     * Writes the summary with all the given reporters in a single pass over its modules and files,
+     * e.g. to save a JSON report and a Mermaid chart at once.
+     *
+     * @param summary the reported summary
+     * @param reporters the reporters, e.g. of different formats
+     * @throws ModuleSizeCalculatorException if an I/O error occurs while writing any of the reports
+     */
+    static void report(ProjectSummary summary, SummaryReporter... reporters) {
+        SummaryReporter reporter = new CompositeReporter(List.of(reporters));
+        try {
+            reporter.start(summary.totalNumberOfFiles(), summary.totalLinesOfCode());
+            for (ProjectSummary.ModuleSummary module : summary.modulesSummary()) {
+                reporter.module(module);
+            }
+            Optional<SortedFiles> files = summary.sortedFiles();
+            if (files.isPresent()) {
+                reportFiles(reporter, files.get());
+            }
+            reporter.end();
+        } catch (IOException ex) {
+            throw new ModuleSizeCalculatorException("IO error occur on writing report.", ex);
+        }
+    }
+
+    // the files are sorted once per summary, however many times it is reported
+    private static void reportFiles(SummaryReporter reporter, SortedFiles files) throws IOException {
+        for (int i = 0; i < files.size(); i++) {
+            reporter.file(files.decodedPath(i), files.linesOfCode(i));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pl.tfij.test.modulesize;
+
+import java.util.Optional;
+
+/**
+ * The number of files outside of all the defined modules must not exceed a limit.
+ */
+final class UndefinedFilesRule implements ModuleRule {
+    private final int allowedFileCount;
+
+    UndefinedFilesRule(int allowedFileCount) {
+        if (allowedFileCount < 0) {
+            throw new IllegalArgumentException("allowedFileCount must be positive number or zero. Give value is %s.".formatted(allowedFileCount));
+        }
+        this.allowedFileCount = allowedFileCount;
+    }
+
+    @Override
+    public Optional<String> violation(ModulePartialSummary summary) {
+        if (summary.numberOfFiles() <= allowedFileCount) {
+            return Optional.empty();
+        }
+        return Optional.of("Number of files in undefined moduleName is %s. Max allowed count is %s.".formatted(summary.numberOfFiles(), allowedFileCount));
+    }
+
+    @Override
+    public LineMetric metric() {
+        return LineMetric.LINES;
+    }
+}
@@ -0,0 +1,199 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+class ArchivesTest {
+
+    @Test
+    @DisplayName("Should analyze jar of the project like the project directory")
+    void shouldAnalyzeProjectJar(@TempDir Path tempDir) throws IOException {
+        Path project = Path.of("src/test/resources/test-project");
+        Path jar = tempDir.resolve("test-project-sources.jar");
+        Files.write(jar, zip(projectFiles(project)));
+
+        ProjectSummary directorySummary = packageModules(project.toString()).analyze();
+        ProjectSummary jarSummary = packageModules(jar.toString()).analyze();
+
+        Assertions.assertEquals(directorySummary.modulesSummary(), jarSummary.modulesSummary());
+        Assertions.assertEquals(1028, jarSummary.totalLinesOfCode());
+        Assertions.assertEquals(1, jarSummary.scanMetrics().includedFiles());
+    }
+
+    @Test
+    @DisplayName("Should count files of nested archives and gzip files transparently")
+    void shouldCountNestedArchivesAndGzipFiles(@TempDir Path project) throws IOException {
+        Files.createDirectories(project.resolve("libs"));
+        byte[] innerJar = zip(Map.of("pl/tfij/orders/Order.java", "a\nb\nc\n".getBytes(StandardCharsets.UTF_8)));
+        Files.write(project.resolve("libs/orders-sources.zip"), zip(Map.of(
+                "pl/tfij/orders/OrderService.java", "a\nb\n".getBytes(StandardCharsets.UTF_8),
+                "pl/tfij/orders/README.md", "a\n".getBytes(StandardCharsets.UTF_8),
+                "nested/orders-model.jar.gz", gzip(innerJar))));
+        Files.write(project.resolve("Main.java.gz"), gzip("a\nb\nc\nd\n".getBytes(StandardCharsets.UTF_8)));
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString())
+                .withDirModule("libs/orders-sources.zip")
+                .include("java")
+                .readArchives()
+                .analyze();
+
+        Assertions.assertEquals(List.of(
+                new ProjectSummary.ModuleSummary("libs/orders-sources.zip", 2, 5, 5 / 9.0),
+                new ProjectSummary.ModuleSummary("undefined", 1, 4, 4 / 9.0)), summary.modulesSummary());
+    }
+
+    @Test
+    @DisplayName("Should classify lines of archived files")
+    void shouldClassifyLinesOfArchivedFiles(@TempDir Path tempDir) throws IOException {
+        Path jar = tempDir.resolve("sources.jar");
+        Files.write(jar, zip(Map.of("pl/tfij/users/User.java", "// user\n\nrecord User() {\n}\n".getBytes(StandardCharsets.UTF_8))));
+
+        ProjectSummary summary = ModuleSizeCalculator.project(jar.toString()).withModule("pl.tfij.users").classifyLines().analyze();
+
+        Assertions.assertEquals(
+                new ProjectSummary.ModuleSummary("pl.tfij.users", 1, 4, 1.0, 2, 1, 1),
+                summary.modulesSummary().get(0));
+    }
+
+    @Test
+    @DisplayName("Should count archives found in the project as plain files unless archives are read")
+    void shouldCountArchivesAsPlainFilesByDefault(@TempDir Path project) throws IOException {
+        Files.createDirectories(project.resolve("gradle/wrapper"));
+        Files.write(project.resolve("gradle/wrapper/gradle-wrapper.jar"), zip(Map.of("org/gradle/wrapper/Main.class", new byte[]{1, 2, 3})));
+        Files.writeString(project.resolve("Main.java"), "a\nb\n");
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).withFileDetails().analyze();
+
+        Assertions.assertEquals(2, summary.scanMetrics().includedFiles());
+        SortedFiles files = summary.sortedFiles().orElseThrow();
+        Assertions.assertEquals(
+                List.of("Main.java", "gradle/wrapper/gradle-wrapper.jar"),
+                IntStream.range(0, files.size()).mapToObj(files::decodedPath).toList());
+    }
+
+    @Test
+    @DisplayName("Should skip archive entries leaving the archive")
+    void shouldSkipEntriesLeavingArchive(@TempDir Path project) throws IOException {
+        Files.write(project.resolve("sources.zip"), zip(Map.of(
+                "pl/tfij/orders/Order.java", "a\nb\n".getBytes(StandardCharsets.UTF_8),
+                "pl/tfij/orders/../../tfij/users/User.java", "a\n".getBytes(StandardCharsets.UTF_8),
+                "../core/src/A.java", "a\nb\nc\n".getBytes(StandardCharsets.UTF_8),
+                "/x/A.java", "a\nb\nc\nd\n".getBytes(StandardCharsets.UTF_8))));
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).readArchives().withFileDetails().analyze();
+
+        SortedFiles files = summary.sortedFiles().orElseThrow();
+        Assertions.assertEquals(
+                List.of("sources.zip/pl/tfij/orders/Order.java", "sources.zip/pl/tfij/users/User.java"),
+                IntStream.range(0, files.size()).mapToObj(files::decodedPath).toList());
+        Assertions.assertEquals(3, summary.totalLinesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should count malformed archive as a plain file")
+    void shouldCountMalformedArchiveAsPlainFile(@TempDir Path project) throws IOException {
+        Files.writeString(project.resolve("broken.gz"), "not a gzip file\nat all\n");
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).readArchives().analyze();
+
+        Assertions.assertEquals(1, summary.scanMetrics().includedFiles());
+        Assertions.assertEquals(List.of(new ProjectSummary.ModuleSummary("undefined", 1, 2, 1.0)), summary.modulesSummary());
+    }
+
+    @Test
+    @DisplayName("Should not open gzip file packing no included file")
+    void shouldNotOpenGzipFileOfNotIncludedFile(@TempDir Path project) throws IOException {
+        Files.createDirectories(project.resolve("src"));
+        Files.writeString(project.resolve("src/notes.gz"), "not a gzip file\n");
+        Files.write(project.resolve("src/Main.java.gz"), gzip("a\nb\nc\n".getBytes(StandardCharsets.UTF_8)));
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).include("java").readArchives().analyze();
+
+        Assertions.assertEquals(3, summary.totalLinesOfCode());
+        Assertions.assertEquals(1, summary.scanMetrics().includedFiles());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when archives are read with concurrent reads, incrementally or in watch mode")
+    void shouldThrowExceptionForReadingArchivesInNotSupportedModes(@TempDir Path project) throws IOException {
+        Path baseline = project.resolve("baseline.txt");
+        ModuleSizeCalculator.project(project.toString()).withFileDetails().analyze().saveBaseline(baseline);
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder builder = ModuleSizeCalculator.project(project.toString()).readArchives();
+
+        IllegalStateException concurrentReads = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> ModuleSizeCalculator.project(project.toString()).readArchives().withConcurrentReads(2, Duration.ofSeconds(1)).analyze());
+        IllegalStateException incremental = Assertions.assertThrows(IllegalStateException.class, () -> builder.analyzeChanges(baseline, List.of()));
+        IllegalStateException watch = Assertions.assertThrows(IllegalStateException.class, builder::watch);
+
+        Assertions.assertEquals("Archives are not supported by the concurrent reads.", concurrentReads.getMessage());
+        Assertions.assertEquals("Archives are not supported by the incremental analysis.", incremental.getMessage());
+        Assertions.assertEquals("Archives are not supported by the watch mode.", watch.getMessage());
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder packageModules(String rootDir) {
+        return ModuleSizeCalculator.project(rootDir)
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+
+    private static Map<String, byte[]> projectFiles(Path project) throws IOException {
+        try (Stream<Path> files = Files.walk(project)) {
+            return files.filter(Files::isRegularFile)
+                    .collect(Collectors.toMap(
+                            file -> project.relativize(file).toString().replace('\\', '/'),
+                            ArchivesTest::readAllBytes));
+        }
+    }
+
+    private static byte[] readAllBytes(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
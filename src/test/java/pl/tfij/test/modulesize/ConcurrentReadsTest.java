@@ -0,0 +1,147 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentReadsTest {
+    private static final String TEST_PROJECT = "src/test/resources/test-project";
+
+    @Test
+    @DisplayName("Should analyze project reading files concurrently with the same results as sequential analysis")
+    void shouldAnalyzeWithConcurrentReads() {
+        List<ProjectSummary> summaries = ModuleSizeCalculator.analyzeTogether(
+                packageModules().include("java").classifyLines().withConcurrentReads(4, Duration.ofSeconds(10)),
+                packageModules().include("java", "csv"));
+
+        assertSameSummary(packageModules().include("java").classifyLines().analyze(), summaries.get(0));
+        assertSameSummary(packageModules().include("java", "csv").analyze(), summaries.get(1));
+        Assertions.assertEquals(21, summaries.get(0).scanMetrics().includedFiles());
+        Assertions.assertEquals(List.of(), summaries.get(0).scanMetrics().timedOutFiles());
+    }
+
+    @Test
+    @DisplayName("Should keep no more reads in flight than the limit")
+    void shouldLimitInFlightReads() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        FileLineCounter lineCounter = file -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return LineCounter.countLines(file);
+        };
+
+        ModuleAccumulator accumulator = scanner(lineCounter, new ConcurrentReads(3, Duration.ofSeconds(10))).scan().accumulators().get(0);
+
+        Assertions.assertEquals(1028, accumulator.summarize(new ModuleMatcher(List.of())).values().iterator().next().moduleLinesOfCode());
+        Assertions.assertTrue(maxInFlight.get() <= 3, "Expected at most 3 reads in flight, got %s.".formatted(maxInFlight.get()));
+        Assertions.assertTrue(maxInFlight.get() > 1, "Expected concurrent reads, got %s.".formatted(maxInFlight.get()));
+    }
+
+    @Test
+    @DisplayName("Should report hanging file as timed out instead of waiting for it")
+    void shouldReportTimedOutFile() {
+        CountDownLatch hangingRead = new CountDownLatch(1);
+        FileLineCounter lineCounter = file -> {
+            if (file.endsWith("DateUtils.java")) {
+                awaitUninterruptibly(hangingRead);
+            }
+            return LineCounter.countLines(file);
+        };
+
+        ProjectScanner.ScanResult result = scanner(lineCounter, new ConcurrentReads(4, Duration.ofMillis(200))).scan();
+        hangingRead.countDown();
+
+        ScanMetrics metrics = result.metrics().toScanMetrics(Duration.ZERO, result.walkTime());
+        Assertions.assertEquals(List.of(Path.of(TEST_PROJECT, "pl/tfij/commons/DateUtils.java").toString()), metrics.timedOutFiles());
+        Assertions.assertEquals(1028 - 17, result.accumulators().get(0).summarize(new ModuleMatcher(List.of())).values().iterator().next().moduleLinesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should not start more reader threads than in-flight reads when reads hang")
+    void shouldBoundReaderThreadsOfHangingReads() {
+        CountDownLatch hangingReads = new CountDownLatch(1);
+        Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        FileLineCounter lineCounter = file -> {
+            readers.add(Thread.currentThread());
+            if (file.toString().contains("orders")) {
+                awaitUninterruptibly(hangingReads);
+            }
+            return LineCounter.countLines(file);
+        };
+
+        ProjectScanner.ScanResult result = scanner(lineCounter, new ConcurrentReads(2, Duration.ofMillis(100))).scan();
+        hangingReads.countDown();
+
+        ScanMetrics metrics = result.metrics().toScanMetrics(Duration.ZERO, result.walkTime());
+        Assertions.assertTrue(readers.size() <= 2, "Expected at most 2 reader threads, got %s.".formatted(readers.size()));
+        Assertions.assertTrue(metrics.timedOutFiles().size() >= 2, "Expected timed out reads, got %s.".formatted(metrics.timedOutFiles()));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for not positive number of reads or timeout")
+    void shouldValidateConcurrentReads() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder builder = packageModules();
+
+        IllegalArgumentException reads = Assertions.assertThrows(IllegalArgumentException.class, () -> builder.withConcurrentReads(0, Duration.ofSeconds(1)));
+        IllegalArgumentException timeout = Assertions.assertThrows(IllegalArgumentException.class, () -> builder.withConcurrentReads(8, Duration.ZERO));
+
+        Assertions.assertEquals("The number of in-flight reads must be positive number. Given value is 0.", reads.getMessage());
+        Assertions.assertEquals("The read timeout must be positive duration. Given value is PT0S.", timeout.getMessage());
+    }
+
+    // a read blocked in the file system does not react to interruption
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean released = false;
+        while (!released) {
+            try {
+                released = latch.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                released = false;
+            }
+        }
+    }
+
+    private static ProjectScanner scanner(FileLineCounter lineCounter, ConcurrentReads concurrentReads) {
+        Path rootDir = Path.of(TEST_PROJECT);
+        AnalysisConfiguration configuration = new AnalysisConfiguration(
+                rootDir,
+                new ModuleMatcher(List.of()),
+                Set.of(),
+                new ProjectTreeFilter(rootDir, List.of(), false),
+                false,
+                false,
+                false);
+        return new ProjectScanner(List.of(configuration), 1, lineCounter, Optional.of(concurrentReads));
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder packageModules() {
+        return ModuleSizeCalculator.project(TEST_PROJECT)
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+
+    private static void assertSameSummary(ProjectSummary expected, ProjectSummary actual) {
+        Assertions.assertEquals(Set.copyOf(expected.modulesSummary()), Set.copyOf(actual.modulesSummary()));
+        Assertions.assertEquals(expected.createMermaidPieChart(), actual.createMermaidPieChart());
+    }
+}
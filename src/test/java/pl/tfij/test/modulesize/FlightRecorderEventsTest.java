@@ -0,0 +1,57 @@
+package pl.tfij.test.modulesize;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+class FlightRecorderEventsTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should emit Flight Recorder events of the analysis, directories and read files")
+    void shouldEmitFlightRecorderEvents(int parallelism) throws IOException {
+        Path recordingFile = Files.createTempFile("module-size", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("pl.tfij.modulesize.Analysis");
+            recording.enable("pl.tfij.modulesize.DirectoryVisit");
+            recording.enable("pl.tfij.modulesize.FileRead").withThreshold(Duration.ZERO);
+            recording.start();
+            ModuleSizeCalculator.project("src/test/resources/test-project")
+                    .withModule("pl.tfij.orders")
+                    .parallel(parallelism)
+                    .analyze();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+
+        List<RecordedEvent> analyses = events("pl.tfij.modulesize.Analysis", events);
+        Assertions.assertEquals(1, analyses.size());
+        Assertions.assertEquals(22, analyses.get(0).getLong("files"));
+        Assertions.assertEquals(1028, analyses.get(0).getLong("linesOfCode"));
+        List<RecordedEvent> directories = events("pl.tfij.modulesize.DirectoryVisit", events);
+        Assertions.assertEquals(10, directories.size());
+        Assertions.assertEquals(22, directories.stream().mapToInt(it -> it.getInt("files")).sum());
+        List<RecordedEvent> files = events("pl.tfij.modulesize.FileRead", events);
+        Assertions.assertEquals(22, files.size());
+        Assertions.assertEquals(1028, files.stream().mapToLong(it -> it.getLong("linesOfCode")).sum());
+        Assertions.assertEquals(4, files.stream().filter(it -> it.getString("module").equals("pl.tfij.orders")).count());
+    }
+
+    private static List<RecordedEvent> events(String name, List<RecordedEvent> events) {
+        return events.stream()
+                .filter(it -> it.getEventType().getName().equals(name))
+                .toList();
+    }
+}
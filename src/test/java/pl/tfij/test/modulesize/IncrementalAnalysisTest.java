@@ -0,0 +1,149 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class IncrementalAnalysisTest {
+
+    @Test
+    @DisplayName("Should analyze changes since baseline with the same result as full analysis")
+    void shouldAnalyzeChangesSinceBaseline() throws IOException {
+        Path project = copyOfTestProject();
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+        calculator(project).withFileDetails().analyze().saveBaseline(baseline);
+
+        Files.delete(project.resolve("pl/tfij/commons/DateUtils.java"));
+        Files.writeString(project.resolve("pl/tfij/orders/Order.java"), "class Order {\n}\n");
+        Files.writeString(project.resolve("pl/tfij/shipping/Tracking.java"), "class Tracking {\n}\n");
+        Files.move(project.resolve("pl/tfij/users/User.java"), project.resolve("pl/tfij/orders/User.java"));
+        List<FileChange> changes = List.of(
+                FileChange.deleted("pl/tfij/commons/DateUtils.java"),
+                FileChange.modified("pl/tfij/orders/Order.java"),
+                FileChange.added("pl/tfij/shipping/Tracking.java"),
+                FileChange.renamed("pl/tfij/users/User.java", "pl/tfij/orders/User.java"));
+        ProjectSummary incrementalSummary = calculator(project).analyzeChanges(baseline, changes);
+        ProjectSummary fullSummary = calculator(project).analyze();
+
+        Assertions.assertEquals(Set.copyOf(fullSummary.modulesSummary()), Set.copyOf(incrementalSummary.modulesSummary()));
+        Assertions.assertEquals(fullSummary.numberOfFiles(), incrementalSummary.numberOfFiles());
+        Assertions.assertEquals(fullSummary.linesOfCode(), incrementalSummary.linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should start from module totals of baseline and register discovered modules of baseline by their names")
+    void shouldStartFromModuleTotalsOfBaseline() throws IOException {
+        Path project = copyOfTestProject();
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+        ModuleSizeCalculator.project(project.toString()).discoverModules("pl.tfij", 1).withFileDetails().analyze().saveBaseline(baseline);
+
+        Files.writeString(project.resolve("pl/tfij/orders/Order.java"), "class Order {\n}\n");
+        ProjectSummary incrementalSummary = ModuleSizeCalculator.project(project.toString())
+                .discoverModules("pl.tfij", 1)
+                .analyzeChanges(baseline, List.of(FileChange.modified("pl/tfij/orders/Order.java")));
+        ProjectSummary fullSummary = ModuleSizeCalculator.project(project.toString()).discoverModules("pl.tfij", 1).analyze();
+
+        Assertions.assertTrue(Files.readAllLines(baseline).contains("module\t4\t91\tpl.tfij.users"));
+        Assertions.assertEquals(fullSummary.modulesSummary(), incrementalSummary.modulesSummary());
+        Assertions.assertEquals(fullSummary.linesOfCode(), incrementalSummary.linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when saving baseline without file details")
+    void shouldThrowExceptionWhenSavingBaselineWithoutFileDetails() throws IOException {
+        ProjectSummary projectSummary = calculator(Path.of("src/test/resources/test-project")).analyze();
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+
+        IllegalStateException exception = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> projectSummary.saveBaseline(baseline));
+        Assertions.assertEquals("File details are required to save baseline. Analyze the project withFileDetails().", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw ModuleSizeCalculatorException when baseline file is invalid")
+    void shouldThrowExceptionForInvalidBaseline() throws IOException {
+        Path baseline = Files.writeString(Files.createTempFile("module-size", ".baseline"), "pie showData\n");
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator = calculator(Path.of("src/test/resources/test-project"));
+
+        ModuleSizeCalculatorException exception = Assertions.assertThrows(
+                ModuleSizeCalculatorException.class,
+                () -> calculator.analyzeChanges(baseline, List.of()));
+        Assertions.assertTrue(exception.getMessage().matches("File `.*` is not a baseline file\\."));
+    }
+
+    @Test
+    @DisplayName("Should parse git diff name-status output")
+    void shouldParseGitDiffOutput() {
+        String output = "M\0pl/a/A.java\0A\0pl/a/B.java\0D\0pl/a/C.java\0R087\0pl/a/D.java\0pl/b/D.java\0C100\0pl/a/E.java\0pl/b/E.java\0";
+
+        List<FileChange> changes = GitDiff.parse(output);
+
+        Assertions.assertEquals(
+                List.of(
+                        FileChange.modified("pl/a/A.java"),
+                        FileChange.added("pl/a/B.java"),
+                        FileChange.deleted("pl/a/C.java"),
+                        FileChange.renamed("pl/a/D.java", "pl/b/D.java"),
+                        FileChange.added("pl/b/E.java")),
+                changes);
+    }
+
+    @Test
+    @DisplayName("Should list changes from local git repository relative to project directory")
+    void shouldListChangesFromGitRepository() throws IOException, InterruptedException {
+        Path repository = Files.createTempDirectory("module-size-git");
+        Path project = Files.createDirectories(repository.resolve("src/main/java"));
+        Files.writeString(project.resolve("A.java"), "class A {}\n");
+        Files.writeString(project.resolve("B.java"), "class B {}\n");
+        git(repository, "init", "-q");
+        git(repository, "add", ".");
+        git(repository, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "init");
+        Files.writeString(project.resolve("A.java"), "class A {\n}\n");
+        git(repository, "rm", "-q", "src/main/java/B.java");
+
+        List<FileChange> changes = GitDiff.changedFiles(project, "HEAD");
+
+        Assertions.assertEquals(Set.of(FileChange.modified("A.java"), FileChange.deleted("B.java")), Set.copyOf(changes));
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator(Path project) {
+        return ModuleSizeCalculator.project(project.toString())
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+
+    private static Path copyOfTestProject() throws IOException {
+        Path source = Path.of("src/test/resources/test-project");
+        Path target = Files.createTempDirectory("test-project");
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        return target;
+    }
+
+    private static void git(Path directory, String... arguments) throws IOException, InterruptedException {
+        List<String> command = Stream.concat(Stream.of("git"), Stream.of(arguments)).toList();
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).inheritIO().start();
+        Assertions.assertEquals(0, process.waitFor());
+    }
+}
@@ -0,0 +1,106 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class LineClassifierTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "class A {}                          | 1 | 0 | 0",
+            "\\s\\s\\t\\s                          | 0 | 0 | 1",
+            "// comment                          | 0 | 1 | 0",
+            "int a = 1; // comment               | 1 | 0 | 0",
+            "/* comment */                       | 0 | 1 | 0",
+            "/* comment */ int a;                | 1 | 0 | 0",
+            "/**\\n * javadoc\\n\\n */\\nclass A {} | 1 | 3 | 1",
+            "/* a **/ b                          | 1 | 0 | 0",
+            "String a = \"// not a comment\";     | 1 | 0 | 0",
+            "String a = \"\\\"/*\";\\nb();        | 2 | 0 | 0",
+            "char c = '\"'; // quote             | 1 | 0 | 0",
+            "char c = '\\''; /* quote */         | 1 | 0 | 0",
+            "a = b / c;\\n// d                   | 1 | 1 | 0",
+            "String a = \"\";\\n// b             | 1 | 1 | 0",
+            "String a = \"\"\"\\n  // text\\n  /* block\\n\\n  \"\"\";\\n// c | 4 | 1 | 1",
+            "String a = \"\"\"\\n  \\\"\"\"\\n  \"\"\";  | 3 | 0 | 0",
+            "/* a\\r\\n * b\\r\\n */\\r\\nc          | 1 | 3 | 0",
+            "a\\r\\rb                            | 2 | 0 | 1",
+            "/                                   | 1 | 0 | 0",
+    })
+    @DisplayName("Should classify code, comment and blank lines")
+    void shouldClassifyLines(String content, int codeLines, int commentLines, int blankLines) throws IOException {
+        Path file = write(content.replace("\\n", "\n").replace("\\r", "\r").replace("\\t", "\t").replace("\\s", " "));
+
+        LineClassifier classified = LineClassifier.classify(file);
+
+        Assertions.assertEquals(
+                List.of(codeLines, commentLines, blankLines),
+                List.of(classified.codeLines(), classified.commentLines(), classified.blankLines()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "a",
+            "a\n",
+            "a\r\nb\r\n",
+            "a\rb\r",
+            "a\r\r\nb",
+            "\n\n\n",
+            "\uFEFF",
+            "\uFEFFpackage a;\nclass A {}\n",
+            "/* a\n\n*/\n// b\r\nc\rd"
+    })
+    @DisplayName("Should count the same number of lines as line counter")
+    void shouldCountLinesLikeLineCounter(String content) throws IOException {
+        Path file = write(content);
+
+        LineClassifier classified = LineClassifier.classify(file);
+
+        Assertions.assertEquals(LineCounter.countLines(file), classified.lines());
+        Assertions.assertEquals(classified.lines(), classified.codeLines() + classified.commentLines() + classified.blankLines());
+    }
+
+    @Test
+    @DisplayName("Should skip BOM of comment line")
+    void shouldSkipBom() throws IOException {
+        Path file = write("\uFEFF// comment\nclass A {}\n");
+
+        LineClassifier classified = LineClassifier.classify(file);
+
+        Assertions.assertEquals(1, classified.commentLines());
+        Assertions.assertEquals(1, classified.codeLines());
+    }
+
+    @Test
+    @DisplayName("Should classify lines of file bigger than buffer with comment split between reads")
+    void shouldClassifyLinesOfBigFile() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("int a").append(i).append(";\n/*\n * comment\n */\n\n");
+        }
+        Path file = write(content.toString());
+
+        LineClassifier classified = LineClassifier.classify(file);
+
+        Assertions.assertEquals(
+                List.of(10_000, 30_000, 10_000),
+                List.of(classified.codeLines(), classified.commentLines(), classified.blankLines()));
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("line-classifier", ".java");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,141 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class LineCountCacheTest {
+
+    @Test
+    @DisplayName("Should serve unchanged file from the cache saved by previous analysis")
+    void shouldServeUnchangedFileFromCache() throws IOException {
+        Path project = Files.createTempDirectory("line-count-cache-project");
+        Path file = Files.writeString(project.resolve("Main.java"), "a\nb\n");
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        Path cacheFile = project.resolve("build/module-size.cache");
+
+        ProjectSummary firstSummary = ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+        Files.writeString(file, "ab\nc");
+        Files.setLastModifiedTime(file, lastModified);
+        ProjectSummary secondSummary = ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+
+        Assertions.assertEquals(2, firstSummary.linesOfCode());
+        Assertions.assertEquals(2, secondSummary.linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should recount file modified since previous analysis")
+    void shouldRecountModifiedFile() throws IOException {
+        Path project = Files.createTempDirectory("line-count-cache-project");
+        Path file = Files.writeString(project.resolve("Main.java"), "a\nb\n");
+        Path cacheFile = project.resolve("build/module-size.cache");
+
+        ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+        Files.writeString(file, "a\nb\nc\n");
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+
+        Assertions.assertEquals(3, summary.linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should ignore corrupted cache file")
+    void shouldIgnoreCorruptedCacheFile() throws IOException {
+        Path project = Files.createTempDirectory("line-count-cache-project");
+        Files.writeString(project.resolve("Main.java"), "a\nb\n");
+        Path cacheFile = Files.write(Files.createTempFile("module-size", ".cache"), new byte[]{0x4D, 0x53, 0x43, 0x43, 0, 0, 0});
+
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).withLineCountCache(cacheFile).analyze();
+
+        Assertions.assertEquals(2, summary.linesOfCode());
+        Assertions.assertEquals(2, new LineCountCache(cacheFile).countLines(project.resolve("Main.java")));
+    }
+
+    @Test
+    @DisplayName("Should merge entries saved concurrently to the same cache file")
+    void shouldMergeEntriesSavedConcurrently() throws Exception {
+        Path project = Files.createTempDirectory("line-count-cache-project");
+        Path cacheFile = project.resolve("module-size.cache");
+        List<Path> files = IntStream.range(0, 8)
+                .mapToObj(it -> writeFile(project.resolve("File" + it + ".java"), "x\n".repeat(it + 1)))
+                .toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(files.size());
+        List<Future<?>> saves = files.stream()
+                .<Future<?>>map(file -> executor.submit(() -> {
+                    LineCountCache cache = new LineCountCache(cacheFile);
+                    cache.countLines(file);
+                    cache.save();
+                    return null;
+                }))
+                .toList();
+        for (Future<?> save : saves) {
+            save.get();
+        }
+        executor.shutdown();
+        for (Path file : files) {
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            Files.writeString(file, "xx".repeat((int) Files.size(file) / 2));
+            Files.setLastModifiedTime(file, lastModified);
+        }
+
+        LineCountCache reloadedCache = new LineCountCache(cacheFile);
+        for (int i = 0; i < files.size(); i++) {
+            Assertions.assertEquals(i + 1, reloadedCache.countLines(files.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop entries of deleted files on saving the cache")
+    void shouldDropEntriesOfDeletedFiles(@TempDir Path project) throws IOException {
+        Path kept = Files.writeString(project.resolve("Kept.java"), "a\n");
+        Path deleted = Files.writeString(project.resolve("Deleted.java"), "a\nb\n");
+        Path cacheFile = project.resolve("build/module-size.cache");
+
+        ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+        Files.delete(deleted);
+        Files.writeString(kept, "a\nb\nc\n");
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze();
+
+        String cacheContent = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+        Assertions.assertEquals(3, summary.linesOfCode());
+        Assertions.assertTrue(cacheContent.contains(kept.toAbsolutePath().normalize().toString()));
+        Assertions.assertFalse(cacheContent.contains(deleted.toAbsolutePath().normalize().toString()));
+    }
+
+    @Test
+    @DisplayName("Should delete temp file when saving the cache fails")
+    void shouldDeleteTempFileOfFailedSave(@TempDir Path project) throws IOException {
+        Files.writeString(project.resolve("Main.java"), "a\n");
+        Path cacheFile = Files.createDirectories(project.resolve("build/module-size.cache"));
+        Files.writeString(cacheFile.resolve("other"), "not a cache file");
+
+        Assertions.assertThrows(
+                ModuleSizeCalculatorException.class,
+                () -> ModuleSizeCalculator.project(project.toString()).include("java").withLineCountCache(cacheFile).analyze());
+
+        try (Stream<Path> files = Files.list(project.resolve("build"))) {
+            Assertions.assertEquals(List.of(), files.filter(it -> it.toString().endsWith(".tmp")).toList());
+        }
+    }
+
+    private static Path writeFile(Path file, String content) {
+        try {
+            return Files.writeString(file, content);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class LineCounterTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "a",
+            "a\n",
+            "a\nb",
+            "a\r\nb\r\n",
+            "a\rb\r",
+            "a\r\r\nb",
+            "\n\n\n",
+            "\r\n\r\n",
+            "\uFEFF",
+            "\uFEFFpackage a;\nclass A {}\n",
+            "1234567\r\n1234567\r\n12345678\n\r"
+    })
+    @DisplayName("Should count lines like BufferedReader.readLine()")
+    void shouldCountLinesLikeBufferedReader(String content) throws IOException {
+        Path file = Files.createTempFile("line-counter", ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(countWithBufferedReader(file), LineCounter.countLines(file));
+    }
+
+    @Test
+    @DisplayName("Should count lines of file bigger than buffer with CRLF split between reads")
+    void shouldCountLinesOfBigFile() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        content.insert(64 * 1024 - 1, "\r\n");
+        Path file = Files.createTempFile("line-counter", ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(countWithBufferedReader(file), LineCounter.countLines(file));
+    }
+
+    @Test
+    @DisplayName("Should count lines of non UTF-8 file")
+    void shouldCountLinesOfLatin1File() throws IOException {
+        Path file = Files.createTempFile("line-counter", ".txt");
+        Files.write(file, new byte[]{'z', (byte) 0xF3, 'l', 'w', '\n', (byte) 0xB1, '\n', 'x'});
+
+        Assertions.assertEquals(3, LineCounter.countLines(file));
+    }
+
+    private static int countWithBufferedReader(Path file) throws IOException {
+        int lineCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            while (reader.readLine() != null) {
+                lineCount++;
+            }
+        }
+        return lineCount;
+    }
+}
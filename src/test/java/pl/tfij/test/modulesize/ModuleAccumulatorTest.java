@@ -0,0 +1,73 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class ModuleAccumulatorTest {
+    private final Module generated = new Module.DefinedModule("generated", Path.of("project/generated"));
+    private final ModuleMatcher matcher = new ModuleMatcher(List.of(generated));
+
+    @Test
+    @DisplayName("Should sum lines of code beyond int range")
+    void shouldSumLinesOfCodeBeyondIntRange() {
+        ModuleAccumulator accumulator = new ModuleAccumulator(matcher.numberOfModules(), false);
+        accumulator.add(1, Integer.MAX_VALUE);
+        accumulator.add(1, Integer.MAX_VALUE);
+        accumulator.add(ModuleMatcher.UNDEFINED, 2);
+
+        ProjectSummary projectSummary = new ProjectSummary(List.of(generated), accumulator.summarize(matcher), false, Optional.empty(), ScanMetrics.EMPTY);
+
+        Assertions.assertEquals(2L * Integer.MAX_VALUE + 2, projectSummary.totalLinesOfCode());
+        Assertions.assertEquals(3, projectSummary.totalNumberOfFiles());
+        Assertions.assertEquals(3, projectSummary.numberOfFiles());
+        Assertions.assertThrows(ArithmeticException.class, projectSummary::linesOfCode);
+        ProjectSummary.ModuleSummary generatedSummary = projectSummary.modulesSummary().stream()
+                .filter(it -> it.moduleName().equals("generated"))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(2L * Integer.MAX_VALUE, generatedSummary.totalLinesOfCode());
+        Assertions.assertEquals(2, generatedSummary.numberOfFiles());
+        Assertions.assertTrue(projectSummary.createMermaidPieChart().contains("\"generated\" : 4294967294"));
+    }
+
+    @Test
+    @DisplayName("Should merge counters of workers")
+    void shouldMergeCountersOfWorkers() {
+        ModuleAccumulator first = new ModuleAccumulator(matcher.numberOfModules(), true);
+        ModuleAccumulator second = new ModuleAccumulator(matcher.numberOfModules(), true);
+        first.add("generated/A.java", 1, 10);
+        second.add("generated/B.java", 1, 20);
+        second.add("Main.java", ModuleMatcher.UNDEFINED, 5);
+
+        ModuleAccumulator merged = first.merge(second);
+        merged.remove("generated/A.java", 1);
+
+        Assertions.assertEquals(
+                new ModulePartialSummary(generated, 1, new LineTotals(20, 0, 0, 0), new LineTotals(25, 0, 0, 0)),
+                merged.summarize(matcher).get(generated));
+        Assertions.assertEquals(Optional.of(Map.of("generated/B.java", 20, "Main.java", 5)), merged.fileDetails());
+    }
+
+    @Test
+    @DisplayName("Should sum classified lines of workers")
+    void shouldSumClassifiedLines() {
+        ModuleAccumulator first = new ModuleAccumulator(matcher.numberOfModules(), false);
+        ModuleAccumulator second = new ModuleAccumulator(matcher.numberOfModules(), false);
+        first.add(1, 10);
+        first.addClassified(1, 6, 3, 1);
+        second.add(ModuleMatcher.UNDEFINED, 5);
+        second.addClassified(ModuleMatcher.UNDEFINED, 5, 0, 0);
+
+        ModulePartialSummary summary = first.merge(second).summarize(matcher).get(generated);
+
+        Assertions.assertEquals(new LineTotals(10, 6, 3, 1), summary.moduleLines());
+        Assertions.assertEquals(new LineTotals(15, 11, 3, 1), summary.projectLines());
+        Assertions.assertEquals(6.0 / 11, summary.relativeModuleSize(LineMetric.CODE_LINES));
+    }
+}
@@ -0,0 +1,70 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class ModuleDiscoveryTest {
+
+    @Test
+    @DisplayName("Should discover the same modules as declared explicitly, also in parallel")
+    void shouldDiscoverModulesDeclaredExplicitly() {
+        ProjectSummary declared = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users")
+                .analyze();
+
+        ProjectSummary discovered = ModuleSizeCalculator.project("src/test/resources/test-project").discoverModules("pl.tfij", 1).analyze();
+        ProjectSummary discoveredInParallel = ModuleSizeCalculator.project("src/test/resources/test-project").discoverModules("pl", 2).parallel(4).analyze();
+
+        Assertions.assertEquals(declared.modulesSummary(), discovered.modulesSummary());
+        Assertions.assertEquals(declared.modulesSummary(), discoveredInParallel.modulesSummary());
+        Assertions.assertDoesNotThrow(discovered::verifyNoEmptyModules);
+    }
+
+    @Test
+    @DisplayName("Should give precedence to modules declared explicitly")
+    void shouldGivePrecedenceToDeclaredModules() {
+        ProjectSummary summary = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withDirModule("pl/tfij/orders")
+                .withModule("pl.tfij.orders.subpackage")
+                .discoverModules("pl.tfij", 1)
+                .analyze();
+
+        List<String> moduleNames = summary.modulesSummary().stream().map(ProjectSummary.ModuleSummary::moduleName).toList();
+
+        Assertions.assertEquals(
+                List.of("pl.tfij.commons", "pl.tfij.orders.subpackage", "pl.tfij.payments", "pl.tfij.products", "pl.tfij.shipping", "pl.tfij.users", "pl/tfij/orders", "undefined"),
+                moduleNames);
+    }
+
+    @Test
+    @DisplayName("Should register discovered module once with the next ordinal")
+    void shouldRegisterDiscoveredModuleOnce() {
+        ModuleMatcher matcher = new ModuleMatcher(List.of(), List.of(new ModuleMatcher.ModuleDiscovery("", Path.of("project"), 2)));
+
+        int module = matcher.match(Path.of("project/com/example/Main.java"));
+
+        Assertions.assertEquals(1, module);
+        Assertions.assertEquals(module, matcher.match(Path.of("project/com/example/api/Api.java")));
+        Assertions.assertEquals(ModuleMatcher.UNDEFINED, matcher.match(Path.of("project/com/Main.java")));
+        Assertions.assertEquals(List.of(new Module.DefinedModule("com.example", Path.of("project/com/example"))), matcher.definedModules());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when depth is not positive")
+    void shouldValidateDepth() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder builder = ModuleSizeCalculator.project("src/test/resources/test-project");
+
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, () -> builder.discoverModules("pl.tfij", 0));
+
+        Assertions.assertEquals("The depth must be positive number. Given value is 0.", error.getMessage());
+    }
+}
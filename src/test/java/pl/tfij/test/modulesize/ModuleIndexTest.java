@@ -0,0 +1,63 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class ModuleIndexTest {
+    private final Module orders = new Module.DefinedModule("orders", Path.of("project/orders"));
+    private final Module payments = new Module.DefinedModule("payments", Path.of("project/payments"));
+    private final Module legacyOrders = new Module.DefinedModule("orders", Path.of("project/legacy/orders"));
+    private final Module empty = new Module.DefinedModule("empty", Path.of("project/empty"));
+    private final ModuleMatcher matcher = new ModuleMatcher(List.of(payments, orders, legacyOrders, empty));
+
+    @Test
+    @DisplayName("Should index totals, modules by name and largest module of each metric")
+    void shouldIndexModules() {
+        ModuleAccumulator accumulator = new ModuleAccumulator(matcher.numberOfModules(), false);
+        accumulator.add(moduleIndex(payments), 30);
+        accumulator.addClassified(moduleIndex(payments), 10, 15, 5);
+        accumulator.add(moduleIndex(orders), 20);
+        accumulator.addClassified(moduleIndex(orders), 18, 1, 1);
+        accumulator.add(moduleIndex(orders), 5);
+        accumulator.addClassified(moduleIndex(orders), 5, 0, 0);
+
+        ModuleIndex index = new ModuleIndex(matcher.definedModules(), accumulator.summarize(matcher), true, Optional.empty());
+
+        Assertions.assertEquals(3, index.numberOfFiles());
+        Assertions.assertEquals(55, index.linesOfCode());
+        Assertions.assertEquals(Optional.of(orders), index.definedModule("orders"));
+        Assertions.assertEquals(Optional.empty(), index.definedModule("shipping"));
+        Assertions.assertEquals(List.of(legacyOrders, empty), index.emptyModules());
+        Assertions.assertEquals(List.of("orders", "payments"), index.modulesByName().stream().map(it -> it.module().name()).toList());
+        Assertions.assertEquals(payments, index.largestModule(LineMetric.LINES).orElseThrow().module());
+        Assertions.assertEquals(orders, index.largestModule(LineMetric.CODE_LINES).orElseThrow().module());
+        Assertions.assertTrue(index.linesClassified());
+    }
+
+    @Test
+    @DisplayName("Should create module summaries, chart and sorted files once")
+    void shouldMemoizeQueries() {
+        ModuleAccumulator accumulator = new ModuleAccumulator(matcher.numberOfModules(), false);
+        accumulator.add(moduleIndex(payments), 30);
+        accumulator.add(ModuleMatcher.UNDEFINED, 10);
+
+        ProjectSummary projectSummary = new ProjectSummary(matcher.definedModules(), accumulator.summarize(matcher), false,
+                Optional.of(Map.of("payments/B.java", 20, "payments/A.java", 10, "Main.java", 10)), ScanMetrics.EMPTY);
+
+        Assertions.assertSame(projectSummary.modulesSummary(), projectSummary.modulesSummary());
+        Assertions.assertSame(projectSummary.createMermaidPieChart(), projectSummary.createMermaidPieChart());
+        Assertions.assertSame(projectSummary.sortedFiles().orElseThrow(), projectSummary.sortedFiles().orElseThrow());
+        Assertions.assertEquals("payments/A.java", projectSummary.sortedFiles().orElseThrow().decodedPath(1));
+        Assertions.assertEquals(List.of("payments", "undefined"), projectSummary.modulesSummary().stream().map(ProjectSummary.ModuleSummary::moduleName).toList());
+    }
+
+    private int moduleIndex(Module module) {
+        return matcher.definedModules().indexOf(module) + 1;
+    }
+}
@@ -0,0 +1,57 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class ModuleMatcherTest {
+    private final Module users = new Module.DefinedModule("users", Path.of("project/users"));
+    private final Module usersApi = new Module.DefinedModule("users.api", Path.of("project/users/api"));
+    private final ModuleMatcher matcher = new ModuleMatcher(List.of(users, usersApi));
+
+    @Test
+    @DisplayName("Should match the longest module directory being a prefix of the file path")
+    void shouldMatchLongestPrefix() {
+        Assertions.assertEquals(users, module("project/users/User.java"));
+        Assertions.assertEquals(users, module("project/users/impl/UserService.java"));
+        Assertions.assertEquals(usersApi, module("project/users/api/UserApi.java"));
+        Assertions.assertEquals(usersApi, module("project/users/api/dto/UserDto.java"));
+    }
+
+    @Test
+    @DisplayName("Should match whole directory names only")
+    void shouldMatchWholeDirectoryNames() {
+        Assertions.assertEquals(Module.UNDEFINED_MODULE, module("project/usersettings/Settings.java"));
+        Assertions.assertEquals(Module.UNDEFINED_MODULE, module("project/Main.java"));
+        Assertions.assertEquals(Module.UNDEFINED_MODULE, module("other/users/User.java"));
+    }
+
+    @Test
+    @DisplayName("Should number modules densely with the undefined module first")
+    void shouldNumberModulesDensely() {
+        Assertions.assertEquals(3, matcher.numberOfModules());
+        Assertions.assertEquals(Module.UNDEFINED_MODULE, matcher.module(ModuleMatcher.UNDEFINED));
+        Assertions.assertEquals(users, matcher.module(1));
+        Assertions.assertEquals(usersApi, matcher.module(2));
+    }
+
+    @Test
+    @DisplayName("Should match directories outside of package prefixes without locking")
+    void shouldMatchWithoutLockingOutsideOfDiscoveries() throws Exception {
+        ModuleMatcher discovering = new ModuleMatcher(List.of(users), List.of(new ModuleMatcher.ModuleDiscovery("pl", Path.of("project/src/pl"), 1)));
+
+        synchronized (discovering) {
+            CompletableFuture<Integer> matched = CompletableFuture.supplyAsync(() -> discovering.match(Path.of("project/users/impl/UserService.java")));
+            Assertions.assertEquals(1, matched.get(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private Module module(String file) {
+        return matcher.module(matcher.match(Path.of(file)));
+    }
+}
@@ -3,6 +3,8 @@ package pl.tfij.test.modulesize;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.File;
 import java.util.Set;
@@ -47,6 +49,32 @@ class ModuleSizeCalculatorTest {
         Assertions.assertEquals(968, projectSummary.linesOfCode());
     }
 
+    @Test
+    @DisplayName("Should classify code, comment and blank lines of java files")
+    void shouldClassifyLinesOfJavaFiles() {
+        ProjectSummary projectSummary = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users")
+                .include("java")
+                .classifyLines()
+                .analyze();
+
+        Assertions.assertEquals(
+                Set.of(
+                        new ModuleSummary("pl.tfij.commons", 1, 17, 17.0 / 968, 14, 0, 3),
+                        new ModuleSummary("pl.tfij.orders", 4, 177, 177.0 / 968, 145, 2, 30),
+                        new ModuleSummary("pl.tfij.payments", 3, 240, 240.0 / 968, 194, 2, 44),
+                        new ModuleSummary("pl.tfij.products", 5, 381, 381.0 / 968, 310, 1, 70),
+                        new ModuleSummary("pl.tfij.shipping", 2, 52, 52.0 / 968, 38, 5, 9),
+                        new ModuleSummary("pl.tfij.users", 4, 91, 91.0 / 968, 72, 5, 14),
+                        new ModuleSummary("undefined", 1, 10, 10.0 / 968, 5, 4, 1)),
+                Set.copyOf(projectSummary.modulesSummary()));
+    }
+
     @Test
     @DisplayName("Should analyze java and csv files")
     void shouldAnalyzeJavaAndCsvFiles() {
@@ -97,6 +125,21 @@ class ModuleSizeCalculatorTest {
         Assertions.assertTrue(moduleSizeCalculatorException.getMessage().matches(expectedMessageRegex));
     }
 
+    @Test
+    @DisplayName("Should throw ModuleSizeCalculatorException when project dir does not exists and files are counted in parallel")
+    void shouldThrowExceptionIfProjectDirNotExistsInParallel() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculatorForNotExistingProject = ModuleSizeCalculator.project("src/test/resources/not-existing-project")
+                .withModule("pl.tfij.commons")
+                .parallel(2);
+
+        ModuleSizeCalculatorException moduleSizeCalculatorException = Assertions.assertThrows(
+                ModuleSizeCalculatorException.class,
+                () -> calculatorForNotExistingProject.analyze());
+
+        String expectedMessageRegex = "Error occur on scanning project in `.*[\\/\\\\]src[\\/\\\\]test[\\/\\\\]resources[\\/\\\\]not-existing-project` directory\\.";
+        Assertions.assertTrue(moduleSizeCalculatorException.getMessage().matches(expectedMessageRegex));
+    }
+
     @Test
     @DisplayName("Should analyze project with dirs as modules")
     void shouldAnalyzeDirModules() {
@@ -112,4 +155,52 @@ class ModuleSizeCalculatorTest {
         Assertions.assertEquals(1099, projectSummary.linesOfCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should analyze project in parallel with the same result as sequentially")
+    void shouldAnalyzeProjectInParallel() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator = ModuleSizeCalculator.project("src/test/resources")
+                .withDirModule("test-project/pl/tfij/commons")
+                .withDirModule("test-project/pl/tfij/orders")
+                .withDirModule("other-test-project");
+
+        ProjectSummary sequentialSummary = calculator.analyze();
+        ProjectSummary parallelSummary = calculator.parallel(4).analyze();
+
+        Assertions.assertEquals(Set.copyOf(sequentialSummary.modulesSummary()), Set.copyOf(parallelSummary.modulesSummary()));
+        Assertions.assertEquals(26, parallelSummary.numberOfFiles());
+        Assertions.assertEquals(1099, parallelSummary.linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when parallelism is not positive")
+    void shouldThrowExceptionForInvalidParallelism() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator = ModuleSizeCalculator.project("src/test/resources/test-project");
+
+        IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> calculator.parallel(0));
+        Assertions.assertEquals("Parallelism must be positive number. Given value is 0.", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    @DisplayName("Should assign files of nested modules to the most specific module regardless of registration order")
+    void shouldAssignFilesToMostSpecificModule(boolean parentFirst) {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator = ModuleSizeCalculator.project("src/test/resources/test-project");
+        if (parentFirst) {
+            calculator.withModule("pl.tfij.orders").withModule("pl.tfij.orders.subpackage");
+        } else {
+            calculator.withModule("pl.tfij.orders.subpackage").withModule("pl.tfij.orders");
+        }
+
+        ProjectSummary projectSummary = calculator.analyze();
+
+        Assertions.assertEquals(
+                Set.of(
+                        new ModuleSummary("pl.tfij.orders", 3, 114, 114.0 / 1028),
+                        new ModuleSummary("pl.tfij.orders.subpackage", 1, 63, 63.0 / 1028),
+                        new ModuleSummary("undefined", 18, 851, 851.0 / 1028)),
+                Set.copyOf(projectSummary.modulesSummary()));
+    }
+
+}
@@ -158,7 +158,11 @@ public class ModuleSizeVerificationTest {
         IllegalArgumentException error = Assertions.assertThrows(
                 IllegalArgumentException.class,
                 () -> projectSummary.verifyModuleRelativeSizeIsSmallerThan("pl.tfij.not-defined-moduleName", 0.5));
+        IllegalArgumentException errorWithInvalidThreshold = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> projectSummary.verifyModuleRelativeSizeIsSmallerThan("pl.tfij.not-defined-moduleName", 2));
         Assertions.assertEquals("Module `pl.tfij.not-defined-moduleName` was not defined.", error.getMessage());
+        Assertions.assertEquals("Module `pl.tfij.not-defined-moduleName` was not defined.", errorWithInvalidThreshold.getMessage());
     }
 
     @ParameterizedTest
@@ -242,4 +246,54 @@ public class ModuleSizeVerificationTest {
                 () -> projectSummary.verifyUndefinedModuleNumberOfFilesIsSmallerThan(allowedFileCount));
         Assertions.assertEquals(expectedMessage, error.getMessage());
     }
+
+    @Test
+    @DisplayName("Should verify relative size of each module measured in code lines")
+    void assertionErrorForVerifyEachModuleRelativeSizeInCodeLines() {
+        ProjectSummary projectSummary = classifiedProjectSummary();
+
+        Assertions.assertDoesNotThrow(() -> projectSummary.verifyEachModuleRelativeSizeIsSmallerThan(0.395));
+        AssertionError error = Assertions.assertThrows(
+                AssertionError.class,
+                () -> projectSummary.verifyEachModuleRelativeSizeIsSmallerThan(0.395, LineMetric.CODE_LINES));
+        Assertions.assertEquals("Module `pl.tfij.products` relative size is 0.3985. Max allowed size is 0.395.", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should verify relative size of a module measured in comment lines")
+    void assertionErrorForVerifyModuleRelativeSizeInCommentLines() {
+        ProjectSummary projectSummary = classifiedProjectSummary();
+
+        Assertions.assertDoesNotThrow(() -> projectSummary.verifyModuleRelativeSizeIsSmallerThan("pl.tfij.users", 0.25));
+        AssertionError error = Assertions.assertThrows(
+                AssertionError.class,
+                () -> projectSummary.verifyModuleRelativeSizeIsSmallerThan("pl.tfij.users", 0.25, LineMetric.COMMENT_LINES));
+        Assertions.assertEquals("Module `pl.tfij.users` relative size is 0.2632. Max allowed size is 0.25.", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when verifying relative size in code lines of not classified lines")
+    void illegalStateExceptionForVerifyRelativeSizeOfNotClassifiedLines() {
+        ProjectSummary projectSummary = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.products")
+                .analyze();
+
+        IllegalStateException exception = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> projectSummary.verifyEachModuleRelativeSizeIsSmallerThan(0.5, LineMetric.CODE_LINES));
+        Assertions.assertEquals("CODE_LINES require classified lines. Analyze the project with classifyLines().", exception.getMessage());
+    }
+
+    private static ProjectSummary classifiedProjectSummary() {
+        return ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users")
+                .include("java")
+                .classifyLines()
+                .analyze();
+    }
 }
@@ -0,0 +1,204 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class ModuleSizeWatcherTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @Test
+    @DisplayName("Should keep summary up to date with created, modified and deleted files")
+    void shouldUpdateSummaryOnChanges() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        try (ModuleSizeWatcher watcher = calculator(project).watch()) {
+            Assertions.assertEquals(1028, watcher.summary().linesOfCode());
+
+            Files.delete(project.resolve("pl/tfij/commons/DateUtils.java"));
+            Files.writeString(project.resolve("pl/tfij/orders/Order.java"), "class Order {\n}\n");
+            Files.writeString(project.resolve("pl/tfij/shipping/Tracking.java"), "class Tracking {\n}\n");
+            Files.move(project.resolve("pl/tfij/users/User.java"), project.resolve("pl/tfij/orders/User.java"));
+
+            ProjectSummary expected = calculator(project).analyze();
+            ProjectSummary summary = awaitSummary(watcher, expected);
+            Assertions.assertEquals(Set.copyOf(expected.modulesSummary()), Set.copyOf(summary.modulesSummary()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should register new subdirectories and count their files")
+    void shouldRegisterNewSubdirectories() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        try (ModuleSizeWatcher watcher = calculator(project).withFileDetails().watch()) {
+            Path subdirectory = Files.createDirectories(project.resolve("pl/tfij/payments/refunds"));
+            Files.writeString(subdirectory.resolve("Refund.java"), "class Refund {\n}\n");
+            awaitSummary(watcher, calculator(project).analyze());
+
+            Files.writeString(subdirectory.resolve("RefundPolicy.java"), "class RefundPolicy {\n\n}\n");
+
+            ProjectSummary summary = awaitSummary(watcher, calculator(project).analyze());
+            Assertions.assertEquals(3, files(summary).get("pl/tfij/payments/refunds/RefundPolicy.java"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget files of deleted directory")
+    void shouldForgetFilesOfDeletedDirectory() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        try (ModuleSizeWatcher watcher = calculator(project).watch()) {
+            deleteRecursively(project.resolve("pl/tfij/products"));
+
+            ProjectSummary summary = awaitSummary(watcher, calculator(project).analyze());
+            Assertions.assertTrue(summary.modulesSummary().stream().noneMatch(it -> it.moduleName().equals("pl.tfij.products")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should coalesce burst of changes into a single update")
+    void shouldCoalesceBurstOfChanges() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        List<ProjectSummary> updates = Collections.synchronizedList(new ArrayList<>());
+        try (ModuleSizeWatcher watcher = calculator(project).watch(updates::add)) {
+            for (int i = 0; i < 20; i++) {
+                Files.writeString(project.resolve("pl/tfij/shipping/Generated%s.java".formatted(i)), "class Generated {\n}\n");
+            }
+
+            awaitSummary(watcher, calculator(project).analyze());
+            Assertions.assertTrue(updates.size() < 10, "Expected coalesced updates, got %s.".formatted(updates.size()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep watching after failed update and expose the failure")
+    void shouldRecoverFromFailedUpdate() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        IllegalStateException failure = new IllegalStateException("Listener failed.");
+        List<ProjectSummary> updates = Collections.synchronizedList(new ArrayList<>());
+        try (ModuleSizeWatcher watcher = calculator(project).watch(summary -> {
+            updates.add(summary);
+            if (updates.size() == 2) {
+                throw failure;
+            }
+        })) {
+            Files.writeString(project.resolve("pl/tfij/shipping/Tracking.java"), "class Tracking {\n}\n");
+            awaitSummary(watcher, calculator(project).analyze());
+
+            Files.writeString(project.resolve("pl/tfij/shipping/Label.java"), "class Label {\n}\n");
+
+            awaitSummary(watcher, calculator(project).analyze());
+            Assertions.assertSame(failure, watcher.lastFailure().orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not scan the project again when the listener of an update fails")
+    void shouldNotRescanOnListenerFailure() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        IllegalStateException failure = new IllegalStateException("Listener failed.");
+        List<ProjectSummary> updates = Collections.synchronizedList(new ArrayList<>());
+        try (ModuleSizeWatcher watcher = calculator(project).watch(summary -> {
+            if (!updates.isEmpty()) {
+                throw failure;
+            }
+            updates.add(summary);
+        })) {
+            Files.writeString(project.resolve("pl/tfij/shipping/Tracking.java"), "class Tracking {\n}\n");
+            awaitSummary(watcher, calculator(project).analyze());
+            Thread.sleep(500);
+
+            Assertions.assertSame(ScanMetrics.EMPTY, watcher.summary().scanMetrics());
+            Assertions.assertSame(failure, watcher.lastFailure().orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception of the listener of the initial summary")
+    void shouldThrowExceptionOfInitialListener() throws IOException {
+        Path project = copyOfTestProject();
+        IllegalStateException failure = new IllegalStateException("Listener failed.");
+
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class, () -> calculator(project).watch(summary -> {
+            throw failure;
+        }));
+
+        Assertions.assertSame(failure, error);
+    }
+
+    @Test
+    @DisplayName("Should stop publishing updates when closed")
+    void shouldStopWhenClosed() throws IOException, InterruptedException {
+        Path project = copyOfTestProject();
+        ModuleSizeWatcher watcher = calculator(project).watch();
+        ProjectSummary initialSummary = watcher.summary();
+
+        watcher.close();
+        Files.writeString(project.resolve("pl/tfij/shipping/Tracking.java"), "class Tracking {\n}\n");
+        Thread.sleep(500);
+
+        Assertions.assertSame(initialSummary, watcher.summary());
+    }
+
+    private static ProjectSummary awaitSummary(ModuleSizeWatcher watcher, ProjectSummary expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            ProjectSummary summary = watcher.summary();
+            if (Set.copyOf(expected.modulesSummary()).equals(Set.copyOf(summary.modulesSummary()))) {
+                return summary;
+            }
+            Thread.sleep(50);
+        }
+        return Assertions.fail("The summary was not updated in %s. Last summary: %s".formatted(TIMEOUT, watcher.summary().modulesSummary()));
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator(Path project) {
+        return ModuleSizeCalculator.project(project.toString())
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+
+    private static Map<String, Integer> files(ProjectSummary projectSummary) throws IOException {
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+        projectSummary.saveBaseline(baseline);
+        return Baseline.load(baseline).files();
+    }
+
+    private static Path copyOfTestProject() throws IOException {
+        Path source = Path.of("src/test/resources/test-project");
+        Path target = Files.createTempDirectory("watched-project");
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        return target;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Collections.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -3,11 +3,11 @@ package pl.tfij.test.modulesize;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
-class FileInModuleTest {
+class ModuleTest {
 
     @Test
     void shouldReturnEmptyDirForUndefinedModule() {
-        Assertions.assertTrue(FileInModule.Module.UNDEFINED_MODULE.definedModule().isEmpty());
+        Assertions.assertTrue(Module.UNDEFINED_MODULE.definedModule().isEmpty());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class ModuleTreeTest {
+
+    @Test
+    @DisplayName("Should count each file in its leaf module and roll the totals up to the ancestors")
+    void shouldRollUpSubmodulesToAncestors() {
+        ModuleTree tree = analyze().moduleTree();
+
+        ModuleTree.Node project = tree.module("pl.tfij").orElseThrow();
+        ModuleTree.Node orders = tree.module("pl.tfij.orders").orElseThrow();
+        ModuleTree.Node history = tree.module("pl.tfij.orders.subpackage").orElseThrow();
+        Assertions.assertEquals(List.of(project), tree.roots());
+        Assertions.assertEquals(List.of("pl.tfij.orders", "pl.tfij.users"), project.children().stream().map(ModuleTree.Node::moduleName).toList());
+        Assertions.assertEquals(List.of(history), orders.children());
+        Assertions.assertEquals(orders, history.parent().orElseThrow());
+        Assertions.assertEquals(1028, project.summary().totalLinesOfCode());
+        Assertions.assertEquals(22, project.summary().totalNumberOfFiles());
+        Assertions.assertEquals(177, orders.summary().totalLinesOfCode());
+        Assertions.assertEquals(4, orders.summary().totalNumberOfFiles());
+        Assertions.assertEquals(3, orders.ownSummary().totalNumberOfFiles());
+        Assertions.assertEquals(177, orders.ownSummary().totalLinesOfCode() + history.summary().totalLinesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should compute relative sizes against the parent module and the project")
+    void shouldComputeRelativeSizes() {
+        ModuleTree tree = analyze().moduleTree();
+
+        ModuleTree.Node project = tree.module("pl.tfij").orElseThrow();
+        ModuleTree.Node orders = tree.module("pl.tfij.orders").orElseThrow();
+        ModuleTree.Node history = tree.module("pl.tfij.orders.subpackage").orElseThrow();
+        Assertions.assertEquals(1.0, project.relativeSizeToParent());
+        Assertions.assertEquals(177 / 1028.0, orders.relativeSizeToParent());
+        Assertions.assertEquals(177 / 1028.0, orders.summary().relativeSize());
+        Assertions.assertEquals(history.summary().totalLinesOfCode() / 177.0, history.relativeSizeToParent());
+        Assertions.assertEquals(history.summary().totalLinesOfCode() / 1028.0, history.summary().relativeSize());
+    }
+
+    @Test
+    @DisplayName("Should report every module tree violating the size rules")
+    void shouldVerifyModuleTreeRules() {
+        ProjectSummary summary = analyze();
+        SizeRules rules = SizeRules.create()
+                .moduleTreeRelativeSizeIsSmallerThan("pl.tfij.orders", 0.1, LineMetric.LINES)
+                .eachSubmoduleRelativeSizeToParentIsSmallerThan(0.3, LineMetric.LINES);
+
+        AssertionError error = Assertions.assertThrows(AssertionError.class, () -> summary.verify(rules));
+
+        Assertions.assertEquals("""
+                Found 2 violations of module size rules:
+                - Module `pl.tfij.orders` with its submodules relative size is 0.1722. Max allowed size is 0.1.
+                - Module `pl.tfij.orders.subpackage` within `pl.tfij.orders` relative size is 0.3559. Max allowed size is 0.3.""", error.getMessage());
+        Assertions.assertDoesNotThrow(() -> summary.verify(SizeRules.create().moduleTreeRelativeSizeIsSmallerThan("pl.tfij.orders", 0.2, LineMetric.LINES)));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for module tree rule of not defined module")
+    void shouldThrowExceptionForNotDefinedModuleTree() {
+        ProjectSummary summary = analyze();
+
+        IllegalArgumentException error = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> summary.verify(SizeRules.create().moduleTreeRelativeSizeIsSmallerThan("pl.tfij.billing", 0.5, LineMetric.LINES)));
+        Assertions.assertEquals("Module `pl.tfij.billing` was not defined.", error.getMessage());
+    }
+
+    private static ProjectSummary analyze() {
+        return ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.orders.subpackage")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij")
+                .withModule("pl.tfij.users")
+                .analyze();
+    }
+}
@@ -0,0 +1,88 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MultiConfigurationAnalysisTest {
+    private static final String TEST_PROJECT = "src/test/resources/test-project";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should analyze several configurations with the same results as separate analyses")
+    void shouldAnalyzeSeveralConfigurations(int parallelism) {
+        List<ProjectSummary> summaries = ModuleSizeCalculator.analyzeTogether(
+                packageModules().include("java").parallel(parallelism),
+                packageModules().include("java", "csv"),
+                ModuleSizeCalculator.project(TEST_PROJECT).withModule("pl.tfij.orders").exclude("*.csv"));
+
+        assertSameSummary(packageModules().include("java").analyze(), summaries.get(0));
+        assertSameSummary(packageModules().include("java", "csv").analyze(), summaries.get(1));
+        assertSameSummary(ModuleSizeCalculator.project(TEST_PROJECT).withModule("pl.tfij.orders").exclude("*.csv").analyze(), summaries.get(2));
+        Assertions.assertEquals(20, summaries.get(0).numberOfFiles());
+        Assertions.assertEquals(1013, summaries.get(1).linesOfCode());
+    }
+
+    @Test
+    @DisplayName("Should read each file at most once for all configurations")
+    void shouldReadEachFileOnce() {
+        Map<Path, AtomicInteger> reads = new ConcurrentHashMap<>();
+        FileLineCounter lineCounter = file -> {
+            reads.computeIfAbsent(file, it -> new AtomicInteger()).incrementAndGet();
+            return LineCounter.countLines(file);
+        };
+        ProjectScanner scanner = new ProjectScanner(
+                List.of(configuration(Set.of("java"), List.of()), configuration(Set.of(), List.of("pl/tfij/orders/"))),
+                1,
+                lineCounter,
+                Optional.empty());
+
+        List<ModuleAccumulator> accumulators = scanner.scan().accumulators();
+
+        Assertions.assertEquals(22, reads.size());
+        Assertions.assertTrue(reads.values().stream().allMatch(it -> it.get() == 1));
+        Assertions.assertEquals(2, accumulators.size());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when configurations have different root directories")
+    void shouldThrowExceptionForDifferentRootDirectories() {
+        IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ModuleSizeCalculator.analyzeTogether(ModuleSizeCalculator.project(TEST_PROJECT), ModuleSizeCalculator.project("src/main/java")));
+
+        Assertions.assertEquals(
+                "All configurations must have the same root directory. Given root directories are [src/main/java, src/test/resources/test-project].",
+                exception.getMessage());
+    }
+
+    private static AnalysisConfiguration configuration(Set<String> extensions, List<String> excludePatterns) {
+        Path rootDir = Path.of(TEST_PROJECT);
+        return new AnalysisConfiguration(rootDir, new ModuleMatcher(List.of()), extensions, new ProjectTreeFilter(rootDir, excludePatterns, false), false, false, false);
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder packageModules() {
+        return ModuleSizeCalculator.project(TEST_PROJECT)
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+
+    private static void assertSameSummary(ProjectSummary expected, ProjectSummary actual) {
+        Assertions.assertEquals(Set.copyOf(expected.modulesSummary()), Set.copyOf(actual.modulesSummary()));
+        Assertions.assertEquals(expected.createMermaidPieChart(), actual.createMermaidPieChart());
+    }
+}
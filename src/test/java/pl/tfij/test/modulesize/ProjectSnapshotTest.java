@@ -0,0 +1,114 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+class ProjectSnapshotTest {
+
+    @Test
+    @DisplayName("Should load saved snapshot with module totals and file entries")
+    void shouldLoadSavedSnapshot() throws IOException {
+        ProjectSummary summary = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.users")
+                .withFileDetails()
+                .classifyLines()
+                .analyze();
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("module-size.snapshot");
+
+        summary.saveSnapshot(snapshotFile);
+        ProjectSnapshot snapshot = ProjectSnapshot.load(snapshotFile);
+
+        Assertions.assertEquals(summary.modulesSummary(), snapshot.modulesSummary());
+        Assertions.assertEquals(1028, snapshot.totalLinesOfCode());
+        Assertions.assertEquals(22, snapshot.totalNumberOfFiles());
+        Assertions.assertEquals(summary.scanMetrics().totalTime(), snapshot.scanTime());
+        Assertions.assertTrue(snapshot.hasFileDetails());
+        Assertions.assertEquals(22, snapshot.numberOfFileEntries());
+        Assertions.assertEquals(
+                OptionalInt.of(LineCounter.countLines(Path.of("src/test/resources/test-project/pl/tfij/users/User.java"))),
+                snapshot.fileLinesOfCode("pl/tfij/users/User.java"));
+        Assertions.assertEquals(OptionalInt.empty(), snapshot.fileLinesOfCode("pl/tfij/users/Missing.java"));
+    }
+
+    @Test
+    @DisplayName("Should keep no file entries when project was analyzed without file details")
+    void shouldKeepNoFileEntriesWithoutFileDetails() throws IOException {
+        ProjectSummary summary = ModuleSizeCalculator.project("src/test/resources/test-project").withModule("pl.tfij.orders").analyze();
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("module-size.snapshot");
+
+        summary.saveSnapshot(snapshotFile);
+        ProjectSnapshot snapshot = ProjectSnapshot.load(snapshotFile);
+
+        Assertions.assertEquals(summary.modulesSummary(), snapshot.modulesSummary());
+        Assertions.assertFalse(snapshot.hasFileDetails());
+        Assertions.assertEquals(0, snapshot.numberOfFileEntries());
+        Assertions.assertEquals(OptionalInt.empty(), snapshot.fileLinesOfCode("pl/tfij/users/User.java"));
+    }
+
+    @Test
+    @DisplayName("Should find files sorted by their UTF-8 encoded paths")
+    void shouldFindFilesSortedByUtf8Paths() throws IOException {
+        Map<String, Integer> files = Map.of("a/z.java", 1, "a/zz.java", 2, "a/ż.java", 3, "a/ﬁ.java", 4, "a/😀.java", 5, "a.java", 6);
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("module-size.snapshot");
+
+        new ProjectSummary(List.of(), Map.of(), false, Optional.of(files), ScanMetrics.EMPTY).saveSnapshot(snapshotFile);
+        ProjectSnapshot snapshot = ProjectSnapshot.load(snapshotFile);
+
+        Assertions.assertEquals(
+                List.of("a.java", "a/z.java", "a/zz.java", "a/ż.java", "a/ﬁ.java", "a/😀.java"),
+                IntStream.range(0, snapshot.numberOfFileEntries()).mapToObj(snapshot.files()::decodedPath).toList());
+        files.forEach((file, lines) -> Assertions.assertEquals(OptionalInt.of(lines), snapshot.fileLinesOfCode(file)));
+    }
+
+    @Test
+    @DisplayName("Should throw ModuleSizeCalculatorException when loading file which is not a snapshot")
+    void shouldThrowExceptionForNotSnapshotFile() throws IOException {
+        Path file = Files.writeString(Files.createTempFile("module-size", ".snapshot"), "pie title Modules\n");
+
+        ModuleSizeCalculatorException error = Assertions.assertThrows(ModuleSizeCalculatorException.class, () -> ProjectSnapshot.load(file));
+
+        Assertions.assertEquals("File `%s` is not a snapshot file.".formatted(file.toAbsolutePath()), error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should load modules of project without lines with zero relative sizes")
+    void shouldLoadZeroRelativeSizesOfProjectWithoutLines(@TempDir Path project) throws IOException {
+        Files.createDirectories(project.resolve("pl/tfij/orders"));
+        Files.createFile(project.resolve("pl/tfij/orders/Order.java"));
+        ProjectSummary summary = ModuleSizeCalculator.project(project.toString()).withModule("pl.tfij.orders").analyze();
+        Path snapshotFile = project.resolve("module-size.snapshot");
+
+        summary.saveSnapshot(snapshotFile);
+        ProjectSnapshot snapshot = ProjectSnapshot.load(snapshotFile);
+
+        Assertions.assertEquals(List.of(new ProjectSummary.ModuleSummary("pl.tfij.orders", 1, 0, 0.0)), snapshot.modulesSummary());
+        Assertions.assertEquals(summary.modulesSummary(), snapshot.modulesSummary());
+    }
+
+    @Test
+    @DisplayName("Should throw ModuleSizeCalculatorException when loading snapshot with more modules than fit in the file")
+    void shouldThrowExceptionForCorruptedSnapshot() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("module-size.snapshot");
+        new ProjectSummary(List.of(), Map.of(), false, Optional.empty(), ScanMetrics.EMPTY).saveSnapshot(snapshotFile);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        ByteBuffer.wrap(bytes).putInt(28, Integer.MAX_VALUE);
+        Files.write(snapshotFile, bytes);
+
+        ModuleSizeCalculatorException error = Assertions.assertThrows(ModuleSizeCalculatorException.class, () -> ProjectSnapshot.load(snapshotFile));
+
+        Assertions.assertEquals("Snapshot `%s` is corrupted.".formatted(snapshotFile.toAbsolutePath()), error.getMessage());
+    }
+}
@@ -0,0 +1,146 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+class ProjectTreeFilterTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should skip files and directories ignored by .gitignore files and .git/info/exclude")
+    void shouldRespectGitignore(int parallelism) throws IOException {
+        Path project = projectWithIgnoredFiles();
+
+        ProjectSummary projectSummary = ModuleSizeCalculator.project(project.toString())
+                .respectGitignore()
+                .parallel(parallelism)
+                .withFileDetails()
+                .analyze();
+
+        Assertions.assertEquals(
+                Map.of(".gitignore", 4, "src/A.java", 1, "src/generated/.gitignore", 3, "src/generated/Keep.java", 1, "docs/readme.txt", 1),
+                files(projectSummary));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should skip files and directories matching exclude patterns")
+    void shouldSkipExcludedFiles(int parallelism) throws IOException {
+        Path project = projectWithIgnoredFiles();
+
+        ProjectSummary projectSummary = ModuleSizeCalculator.project(project.toString())
+                .exclude("/build/", "node_modules", "*.txt", ".git*", "src/generated/")
+                .parallel(parallelism)
+                .withFileDetails()
+                .analyze();
+
+        Assertions.assertEquals(
+                Map.of("src/A.java", 1, "src/B.log", 1, "secret/S.java", 1, "local/L.java", 1),
+                files(projectSummary));
+    }
+
+    @Test
+    @DisplayName("Should skip ignored files in incremental analysis")
+    void shouldSkipIgnoredChangedFiles() throws IOException {
+        Path project = projectWithIgnoredFiles();
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+        ModuleSizeCalculator.project(project.toString()).respectGitignore().include("java").withFileDetails().analyze().saveBaseline(baseline);
+        Files.writeString(project.resolve("build/New.java"), "class New {}\n");
+        Files.writeString(project.resolve("src/New.java"), "class New {}\n");
+
+        ProjectSummary projectSummary = ModuleSizeCalculator.project(project.toString())
+                .respectGitignore()
+                .withFileDetails()
+                .include("java")
+                .analyzeChanges(baseline, List.of(FileChange.added("build/New.java"), FileChange.added("src/New.java")));
+
+        Assertions.assertEquals(
+                Map.of("src/A.java", 1, "src/New.java", 1, "src/generated/Keep.java", 1),
+                files(projectSummary));
+    }
+
+    @Test
+    @DisplayName("Should read ignore files of each directory once per batch of changed files")
+    void shouldReadIgnoreFilesOncePerBatchOfChangedFiles() throws IOException {
+        Path project = projectWithIgnoredFiles();
+        ProjectTreeFilter filter = new ProjectTreeFilter(project, List.of(), true);
+
+        ProjectTreeFilter.ChangedFiles changedFiles = filter.changedFiles();
+        boolean dropIgnored = changedFiles.isIgnored(project.resolve("src/generated/Drop.java"));
+        write(project, "src/generated/.gitignore", "");
+        boolean keepIgnored = changedFiles.isIgnored(project.resolve("src/generated/Keep.java"));
+        boolean otherKeepIgnored = changedFiles.isIgnored(project.resolve("src/generated/Other.java"));
+
+        Assertions.assertTrue(dropIgnored);
+        Assertions.assertFalse(keepIgnored);
+        Assertions.assertTrue(otherKeepIgnored);
+        Assertions.assertTrue(changedFiles.isIgnored(project.resolve("build/New.java")));
+        Assertions.assertFalse(filter.changedFiles().isIgnored(project.resolve("src/generated/Other.java")));
+    }
+
+    @Test
+    @DisplayName("Should match gitignore patterns")
+    void shouldMatchGitignorePatterns() {
+        IgnoreRules rules = IgnoreRules.NONE.child("", 0, List.of(
+                "# comment",
+                "*.log",
+                "!important.log",
+                "/out",
+                "tmp/",
+                "docs/**/draft-?.md",
+                "cache[0-9]"));
+
+        Assertions.assertTrue(rules.isIgnored("a/b/debug.log", false));
+        Assertions.assertFalse(rules.isIgnored("a/b/important.log", false));
+        Assertions.assertTrue(rules.isIgnored("out", true));
+        Assertions.assertFalse(rules.isIgnored("a/out", true));
+        Assertions.assertTrue(rules.isIgnored("a/tmp", true));
+        Assertions.assertFalse(rules.isIgnored("a/tmp", false));
+        Assertions.assertTrue(rules.isIgnored("docs/draft-1.md", false));
+        Assertions.assertTrue(rules.isIgnored("docs/a/b/draft-2.md", false));
+        Assertions.assertFalse(rules.isIgnored("docs/draft-10.md", false));
+        Assertions.assertTrue(rules.isIgnored("cache7", true));
+        Assertions.assertFalse(rules.isIgnored("cacheX", true));
+        Assertions.assertFalse(rules.isIgnored("comment", false));
+    }
+
+    private static Path projectWithIgnoredFiles() throws IOException {
+        Path project = Files.createTempDirectory("ignored-project");
+        Files.createDirectories(project.resolve(".git/info"));
+        write(project, ".git/info/exclude", "local/\n");
+        write(project, ".git/HEAD", "ref: refs/heads/main\n");
+        write(project, ".gitignore", "/build/\nnode_modules/\n*.log\nsecret\n");
+        write(project, "src/A.java", "class A {}\n");
+        write(project, "src/B.log", "log\n");
+        write(project, "src/generated/.gitignore", "*\n!.gitignore\n!Keep.java\n");
+        write(project, "src/generated/Keep.java", "class Keep {}\n");
+        write(project, "src/generated/Drop.java", "class Drop {}\n");
+        write(project, "build/Out.java", "class Out {}\n");
+        write(project, "node_modules/lib/index.js", "module.exports = {};\n");
+        write(project, "secret/S.java", "class S {}\n");
+        write(project, "local/L.java", "class L {}\n");
+        write(project, "docs/readme.txt", "readme\n");
+        return project;
+    }
+
+    private static Map<String, Integer> files(ProjectSummary projectSummary) throws IOException {
+        Path baseline = Files.createTempFile("module-size", ".baseline");
+        projectSummary.saveBaseline(baseline);
+        return Baseline.load(baseline).files();
+    }
+
+    private static void write(Path project, String file, String content) throws IOException {
+        Path path = project.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
@@ -0,0 +1,61 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+class ScanMetricsTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should record visited and included files with the time of each phase")
+    void shouldRecordScanMetrics(int parallelism) {
+        ScanMetrics metrics = ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.orders")
+                .include("java")
+                .parallel(parallelism)
+                .analyze()
+                .scanMetrics();
+
+        Assertions.assertEquals(22, metrics.visitedFiles());
+        Assertions.assertEquals(20, metrics.includedFiles());
+        Assertions.assertTrue(metrics.includedBytes() > 0);
+        Assertions.assertTrue(metrics.visitedBytes() > metrics.includedBytes());
+        Assertions.assertTrue(metrics.countTime().compareTo(Duration.ZERO) > 0);
+        Assertions.assertTrue(metrics.filterTime().compareTo(Duration.ZERO) > 0);
+        Assertions.assertTrue(metrics.totalTime().compareTo(metrics.walkTime()) >= 0);
+        Assertions.assertTrue(metrics.filesPerSecond() > 0);
+        List<ScanMetrics.FileReadTime> slowestFiles = metrics.slowestFiles();
+        Assertions.assertEquals(ScanMetricsRecorder.SLOWEST_FILES, slowestFiles.size());
+        Assertions.assertEquals(
+                slowestFiles.stream().sorted(Comparator.comparing(ScanMetrics.FileReadTime::readTime).reversed()).toList(),
+                slowestFiles);
+        Assertions.assertTrue(slowestFiles.stream().allMatch(it -> it.file().endsWith(".java")));
+    }
+
+    @Test
+    @DisplayName("Should keep the slowest files of all workers")
+    void shouldKeepSlowestFilesOfAllWorkers() {
+        ScanMetricsRecorder first = new ScanMetricsRecorder();
+        ScanMetricsRecorder second = new ScanMetricsRecorder();
+        for (int i = 0; i < 15; i++) {
+            first.fileRead(Path.of("a" + i), 1, i);
+            second.fileRead(Path.of("b" + i), 1, 100 + i);
+        }
+
+        ScanMetrics metrics = first.merge(second).toScanMetrics(Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        Assertions.assertEquals(30, metrics.includedFiles());
+        Assertions.assertEquals(30.0, metrics.filesPerSecond());
+        Assertions.assertEquals(
+                List.of("b14", "b13", "b12", "b11", "b10", "b9", "b8", "b7", "b6", "b5"),
+                metrics.slowestFiles().stream().map(ScanMetrics.FileReadTime::file).toList());
+    }
+}
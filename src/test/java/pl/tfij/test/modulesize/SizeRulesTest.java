@@ -0,0 +1,117 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class SizeRulesTest {
+
+    @Test
+    @DisplayName("Should report every violation of all the rules in one AssertionError")
+    void shouldReportEveryViolation() {
+        ProjectSummary projectSummary = packageModules()
+                .withModule("pl.tfij.notification")
+                .analyze();
+        SizeRules rules = SizeRules.create()
+                .eachModuleRelativeSizeIsSmallerThan(0.2)
+                .eachModuleHasAtMostLines(200, LineMetric.LINES)
+                .moduleRelativeSizeIsSmallerThan("pl.tfij.commons", 0.01, LineMetric.LINES)
+                .moduleHasAtMostLines("pl.tfij.users", 90, LineMetric.LINES)
+                .undefinedModuleNumberOfFilesIsSmallerThan(0)
+                .noEmptyModules();
+
+        AssertionError error = Assertions.assertThrows(AssertionError.class, () -> projectSummary.verify(rules));
+
+        Assertions.assertEquals("""
+                Found 8 violations of module size rules:
+                - Module `pl.tfij.notification` is empty.
+                - Module `pl.tfij.commons` relative size is 0.0165. Max allowed size is 0.01.
+                - Module `pl.tfij.payments` relative size is 0.2335. Max allowed size is 0.2.
+                - Module `pl.tfij.payments` has 240 lines. Max allowed number is 200.
+                - Module `pl.tfij.products` relative size is 0.429. Max allowed size is 0.2.
+                - Module `pl.tfij.products` has 441 lines. Max allowed number is 200.
+                - Module `pl.tfij.users` has 91 lines. Max allowed number is 90.
+                - Number of files in undefined moduleName is 1. Max allowed count is 0.""", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should report single violation with its own message")
+    void shouldReportSingleViolation() {
+        ProjectSummary projectSummary = packageModules().include("java").classifyLines().analyze();
+        SizeRules rules = SizeRules.create()
+                .eachModuleRelativeSizeIsSmallerThan(0.5)
+                .eachModuleHasAtMostLines(300, LineMetric.CODE_LINES)
+                .moduleHasAtMostLines("pl.tfij.users", 5, LineMetric.COMMENT_LINES);
+
+        AssertionError error = Assertions.assertThrows(AssertionError.class, () -> projectSummary.verify(rules));
+
+        Assertions.assertEquals("Module `pl.tfij.products` has 310 code lines. Max allowed number is 300.", error.getMessage());
+        Assertions.assertDoesNotThrow(() -> projectSummary.verify(SizeRules.create().eachModuleHasAtMostLines(310, LineMetric.CODE_LINES).noEmptyModules()));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when rule refers to not defined module")
+    void shouldThrowExceptionForNotDefinedModule() {
+        ProjectSummary projectSummary = packageModules().analyze();
+
+        IllegalArgumentException error = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> projectSummary.verify(SizeRules.create().moduleHasAtMostLines("pl.tfij.not-defined", 10, LineMetric.LINES)));
+
+        Assertions.assertEquals("Module `pl.tfij.not-defined` was not defined.", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when rule requires classified lines of not classified project")
+    void shouldThrowExceptionForNotClassifiedLines() {
+        ProjectSummary projectSummary = packageModules().analyze();
+
+        IllegalStateException error = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> projectSummary.verify(SizeRules.create().eachModuleHasAtMostLines(1000, LineMetric.BLANK_LINES)));
+
+        Assertions.assertEquals("BLANK_LINES require classified lines. Analyze the project with classifyLines().", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when rule requires classified lines of not classified project without lines")
+    void shouldThrowExceptionForNotClassifiedProjectWithoutLines() throws IOException {
+        Path project = Files.createTempDirectory("empty-project");
+        Files.writeString(project.resolve("Empty.java"), "");
+        ProjectSummary projectSummary = ModuleSizeCalculator.project(project.toString()).analyze();
+
+        IllegalStateException error = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> projectSummary.verify(SizeRules.create().eachModuleHasAtMostLines(1000, LineMetric.CODE_LINES)));
+
+        Assertions.assertEquals("CODE_LINES require classified lines. Analyze the project with classifyLines().", error.getMessage());
+        Assertions.assertDoesNotThrow(() -> ModuleSizeCalculator.project(project.toString()).classifyLines().analyze()
+                .verify(SizeRules.create().eachModuleHasAtMostLines(1000, LineMetric.CODE_LINES)));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when adding rule with invalid limit")
+    void shouldValidateRuleArguments() {
+        SizeRules rules = SizeRules.create();
+
+        IllegalArgumentException lines = Assertions.assertThrows(IllegalArgumentException.class, () -> rules.eachModuleHasAtMostLines(-1, LineMetric.LINES));
+        IllegalArgumentException threshold = Assertions.assertThrows(IllegalArgumentException.class, () -> rules.eachModuleRelativeSizeIsSmallerThan(1.5));
+
+        Assertions.assertEquals("maxLines must be positive number or zero. Given value is -1.", lines.getMessage());
+        Assertions.assertEquals("Threshold must be positive number in range (0, 1]. Given value is 1.5.", threshold.getMessage());
+    }
+
+    private static ModuleSizeCalculator.ModuleSizeCalculatorBuilder packageModules() {
+        return ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users");
+    }
+}
@@ -0,0 +1,111 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+
+class SummaryDiffTest {
+
+    @Test
+    @DisplayName("Should compare modules and files of two analyzed summaries")
+    void shouldCompareAnalyzedSummaries() throws IOException {
+        Path project = Files.createTempDirectory("project");
+        write(project, "pl/tfij/orders/Order.java", 3);
+        write(project, "pl/tfij/orders/OrderLine.java", 2);
+        write(project, "pl/tfij/users/User.java", 4);
+        ProjectSummary before = analyze(project);
+        write(project, "pl/tfij/orders/Order.java", 10);
+        Files.delete(project.resolve("pl/tfij/orders/OrderLine.java"));
+        write(project, "pl/tfij/payments/Payment.java", 5);
+        ProjectSummary after = analyze(project);
+
+        SummaryDiff diff = SummaryDiff.between(before, after);
+
+        Assertions.assertEquals(List.of(
+                new SummaryDiff.ModuleDiff("pl.tfij.orders", 2, 1, 5, 10),
+                new SummaryDiff.ModuleDiff("pl.tfij.payments", 0, 1, 0, 5),
+                new SummaryDiff.ModuleDiff("pl.tfij.users", 1, 1, 4, 4)), diff.modules());
+        Assertions.assertEquals(List.of(
+                new SummaryDiff.FileDiff("pl/tfij/orders/Order.java", OptionalInt.of(3), OptionalInt.of(10)),
+                new SummaryDiff.FileDiff("pl/tfij/orders/OrderLine.java", OptionalInt.of(2), OptionalInt.empty()),
+                new SummaryDiff.FileDiff("pl/tfij/payments/Payment.java", OptionalInt.empty(), OptionalInt.of(5))), diff.files());
+        Assertions.assertEquals(5, diff.modules().get(0).linesOfCodeChange());
+        Assertions.assertEquals(-1, diff.modules().get(0).numberOfFilesChange());
+    }
+
+    @Test
+    @DisplayName("Should compare the same files of two snapshots as of two analyzed summaries")
+    void shouldCompareSnapshots() throws IOException {
+        Path project = Files.createTempDirectory("project");
+        write(project, "pl/tfij/orders/Order.java", 3);
+        write(project, "pl/tfij/orders/refunds/Refund.java", 2);
+        ProjectSummary before = analyze(project);
+        write(project, "pl/tfij/orders/refunds/Refund.java", 7);
+        write(project, "pl/tfij/orders/Order2.java", 1);
+        ProjectSummary after = analyze(project);
+        Path snapshots = Files.createTempDirectory("snapshots");
+        before.saveSnapshot(snapshots.resolve("before.snapshot"));
+        after.saveSnapshot(snapshots.resolve("after.snapshot"));
+
+        SummaryDiff diff = SummaryDiff.between(ProjectSnapshot.load(snapshots.resolve("before.snapshot")), ProjectSnapshot.load(snapshots.resolve("after.snapshot")));
+
+        Assertions.assertEquals(SummaryDiff.between(before, after).modules(), diff.modules());
+        Assertions.assertEquals(SummaryDiff.between(before, after).files(), diff.files());
+        Assertions.assertEquals(List.of("pl/tfij/orders/Order2.java", "pl/tfij/orders/refunds/Refund.java"), diff.files().stream().map(SummaryDiff.FileDiff::file).toList());
+    }
+
+    @Test
+    @DisplayName("Should report every module which grew by more lines than allowed")
+    void shouldReportEveryModuleWhichGrewTooMuch() throws IOException {
+        Path project = Files.createTempDirectory("project");
+        write(project, "pl/tfij/orders/Order.java", 3);
+        write(project, "pl/tfij/users/User.java", 4);
+        ProjectSummary before = analyze(project);
+        write(project, "pl/tfij/orders/Order.java", 13);
+        write(project, "pl/tfij/users/User.java", 20);
+        write(project, "pl/tfij/payments/Payment.java", 12);
+        SummaryDiff diff = SummaryDiff.between(before, analyze(project));
+
+        AssertionError error = Assertions.assertThrows(AssertionError.class, () -> diff.verifyEachModuleGrewByAtMost(10));
+
+        Assertions.assertEquals("""
+                Found 2 violations of module size rules:
+                - Module `pl.tfij.payments` grew by 12 lines. Max allowed growth is 10.
+                - Module `pl.tfij.users` grew by 16 lines. Max allowed growth is 10.""", error.getMessage());
+        Assertions.assertDoesNotThrow(() -> diff.verifyModuleGrewByAtMost("pl.tfij.orders", 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> diff.verifyModuleGrewByAtMost("pl.tfij.products", 10));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalStateException when comparing files of summaries without file details")
+    void shouldThrowExceptionWithoutFileDetails() {
+        ProjectSummary summary = ModuleSizeCalculator.project("src/test/resources/test-project").withModule("pl.tfij.orders").analyze();
+
+        SummaryDiff diff = SummaryDiff.between(summary, summary);
+
+        Assertions.assertTrue(diff.modules().stream().allMatch(it -> it.linesOfCodeChange() == 0));
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class, diff::files);
+        Assertions.assertEquals("File details are required to compare files. Analyze the projects withFileDetails().", error.getMessage());
+    }
+
+    private static ProjectSummary analyze(Path project) {
+        return ModuleSizeCalculator.project(project.toString())
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.users")
+                .withFileDetails()
+                .analyze();
+    }
+
+    private static void write(Path project, String file, int lines) throws IOException {
+        Path path = project.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "line\n".repeat(lines));
+    }
+}
@@ -0,0 +1,95 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class SummaryReporterTest {
+
+    @Test
+    @DisplayName("Should stream the same Mermaid pie chart as created as a string")
+    void shouldStreamMermaidPieChart() {
+        ProjectSummary summary = analyze();
+        StringWriter chart = new StringWriter();
+
+        SummaryReporter.report(summary, ReportFormat.MERMAID.reporter(chart));
+
+        Assertions.assertEquals(summary.createMermaidPieChart(), chart.toString());
+    }
+
+    @Test
+    @DisplayName("Should write modules and files as CSV rows")
+    void shouldWriteCsvReport() {
+        ProjectSummary summary = analyze();
+        StringWriter csv = new StringWriter();
+
+        SummaryReporter.report(summary, ReportFormat.CSV.reporter(csv));
+
+        List<String> rows = csv.toString().lines().toList();
+        Assertions.assertEquals("type,name,files,lines,code_lines,comment_lines,blank_lines,relative_size", rows.get(0));
+        Assertions.assertEquals("module,pl.tfij.commons,1,17,14,0,3," + 17 / 1028.0, rows.get(1));
+        Assertions.assertEquals(1 + 7 + 22, rows.size());
+        Assertions.assertEquals("file,pl/tfij/Main.java,1,10,,,,", rows.get(8));
+    }
+
+    @Test
+    @DisplayName("Should write JSON and NDJSON reports in a single pass encoded in UTF-8")
+    void shouldWriteSeveralReportsInSinglePass() throws IOException {
+        ProjectSummary summary = new ProjectSummary(List.of(), Map.of(), false, Optional.of(Map.of("pl/zażółć \"gęślą\".java", 7, "a\tb.java", 1)), ScanMetrics.EMPTY);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        Path ndjson = Files.createTempFile("module-size", ".ndjson");
+
+        try (FileChannel channel = FileChannel.open(ndjson, StandardOpenOption.WRITE)) {
+            SummaryReporter.report(summary, ReportFormat.JSON.reporter(json), ReportFormat.NDJSON.reporter(channel));
+        }
+
+        Assertions.assertEquals("""
+                {"totalNumberOfFiles":0,"totalLinesOfCode":0,"modules":[],"files":[\
+                {"file":"a\\u0009b.java","linesOfCode":1},{"file":"pl/zażółć \\"gęślą\\".java","linesOfCode":7}]}""", json.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals("""
+                {"type":"project","totalNumberOfFiles":0,"totalLinesOfCode":0}
+                {"type":"file","file":"a\\u0009b.java","linesOfCode":1}
+                {"type":"file","file":"pl/zażółć \\"gęślą\\".java","linesOfCode":7}
+                """, Files.readString(ndjson, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write modules as JSON objects named as the module summary components")
+    void shouldWriteModulesAsJson() {
+        ProjectSummary summary = ModuleSizeCalculator.project("src/test/resources/test-project").withModule("pl.tfij.commons").analyze();
+        StringWriter json = new StringWriter();
+
+        SummaryReporter.report(summary, ReportFormat.JSON.reporter(json));
+
+        Assertions.assertTrue(json.toString().startsWith("""
+                {"totalNumberOfFiles":22,"totalLinesOfCode":1028,"modules":[{"moduleName":"pl.tfij.commons","totalNumberOfFiles":1,\
+                "totalLinesOfCode":17,"relativeSize":%s,"codeLines":0,"commentLines":0,"blankLines":0},""".formatted(17 / 1028.0)));
+        Assertions.assertTrue(json.toString().endsWith("}]}"));
+        Assertions.assertFalse(json.toString().contains("\"files\""));
+    }
+
+    private static ProjectSummary analyze() {
+        return ModuleSizeCalculator.project("src/test/resources/test-project")
+                .withModule("pl.tfij.commons")
+                .withModule("pl.tfij.orders")
+                .withModule("pl.tfij.payments")
+                .withModule("pl.tfij.products")
+                .withModule("pl.tfij.shipping")
+                .withModule("pl.tfij.users")
+                .withFileDetails()
+                .classifyLines()
+                .analyze();
+    }
+}
@@ -0,0 +1,96 @@
+package pl.tfij.test.modulesize;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static pl.tfij.test.modulesize.SyntheticProject.Encoding;
+import static pl.tfij.test.modulesize.SyntheticProject.ExpectedSize;
+import static pl.tfij.test.modulesize.SyntheticProject.LineEnding;
+
+class SyntheticProjectTest {
+    private final List<SyntheticProject> projects = new ArrayList<>();
+
+    @AfterEach
+    void deleteProjects() {
+        projects.forEach(SyntheticProject::delete);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Should analyze generated project with the expected module sizes")
+    void shouldAnalyzeGeneratedProject(int parallelism) {
+        SyntheticProject project = generate(42);
+
+        ProjectSummary allFiles = project.calculator().parallel(parallelism).analyze();
+        ProjectSummary javaFiles = project.calculator().parallel(parallelism).include("java").analyze();
+
+        Assertions.assertEquals(project.expectedSizes(), sizes(allFiles));
+        Assertions.assertEquals(project.expectedSizes("java"), sizes(javaFiles));
+        Assertions.assertEquals(project.expectedTotal().linesOfCode(), allFiles.linesOfCode());
+        Assertions.assertEquals(project.expectedTotal().numberOfFiles(), allFiles.numberOfFiles());
+    }
+
+    @Test
+    @DisplayName("Should generate the same project for the same seed")
+    void shouldGenerateSameProjectForSameSeed() throws IOException {
+        SyntheticProject first = generate(7);
+        SyntheticProject second = generate(7);
+        SyntheticProject other = generate(8);
+
+        Assertions.assertEquals(first.expectedSizes(), second.expectedSizes());
+        Assertions.assertEquals(content(first.rootDir()), content(second.rootDir()));
+        Assertions.assertNotEquals(first.expectedSizes(), other.expectedSizes());
+    }
+
+    private SyntheticProject generate(long seed) {
+        SyntheticProject project = SyntheticProject.generator(seed)
+                .modules(5)
+                .packageDepth(3)
+                .fanOut(2)
+                .files(500)
+                .linesPerFile(40, 1000)
+                .lineEndings(LineEnding.LF, LineEnding.CRLF, LineEnding.CR)
+                .encodings(Encoding.UTF_8, Encoding.UTF_8_BOM, Encoding.ISO_8859_1)
+                .emptyFiles(0.02)
+                .binaryFiles(0.05)
+                .symlinks(0.05)
+                .missingFinalLineTerminator(0.1)
+                .generate();
+        projects.add(project);
+        return project;
+    }
+
+    private static Map<String, ExpectedSize> sizes(ProjectSummary projectSummary) {
+        return projectSummary.modulesSummary().stream()
+                .filter(it -> it.numberOfFiles() > 0)
+                .collect(Collectors.toMap(
+                        ProjectSummary.ModuleSummary::moduleName,
+                        it -> new ExpectedSize(it.numberOfFiles(), it.linesOfCode())));
+    }
+
+    private static Map<String, String> content(Path rootDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(rootDir)) {
+            List<Path> files = paths.filter(Files::isRegularFile).toList();
+            Map<String, String> content = new HashMap<>();
+            for (Path file : files) {
+                content.put(rootDir.relativize(file).toString(), new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1));
+            }
+            return content;
+        }
+    }
+}
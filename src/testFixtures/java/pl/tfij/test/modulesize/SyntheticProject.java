@@ -0,0 +1,392 @@
+package pl.tfij.test.modulesize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A generated project tree with the module sizes expected from its analysis.
+ * <p>
+ * The tree is built by {@link SyntheticProjectGenerator} from a seed, so the same settings always produce
+ * the same files. The expected sizes are computed while writing the files, nothing has to be read back,
+ * so the correctness of the analysis can be checked for trees of any size without a committed fixture.
+ * </p>
+ * <p>
+ * Modules are the top-level packages {@code <basePackage>.module<N>}. Files of the base package itself
+ * belong to the undefined module.
+ * </p>
+ */
+final class SyntheticProject {
+    static final String UNDEFINED_MODULE = "undefined";
+
+    private final Path rootDir;
+    private final List<String> modules;
+    private final Map<String, Map<String, ExpectedSize>> sizesByModuleAndExtension;
+
+    private SyntheticProject(Path rootDir, List<String> modules, Map<String, Map<String, ExpectedSize>> sizesByModuleAndExtension) {
+        this.rootDir = rootDir;
+        this.modules = modules;
+        this.sizesByModuleAndExtension = sizesByModuleAndExtension;
+    }
+
+    static SyntheticProjectGenerator generator(long seed) {
+        return new SyntheticProjectGenerator(seed);
+    }
+
+    Path rootDir() {
+        return rootDir;
+    }
+
+    List<String> modules() {
+        return modules;
+    }
+
+    /**
+     * @return a calculator of the project with all its modules defined
+     */
+    ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator() {
+        ModuleSizeCalculator.ModuleSizeCalculatorBuilder calculator = ModuleSizeCalculator.project(rootDir.toString());
+        modules.forEach(calculator::withModule);
+        return calculator;
+    }
+
+    /**
+     * @param extensions the analyzed file extensions, all files if none given
+     * @return the expected size of each non-empty module, including the undefined one
+     */
+    Map<String, ExpectedSize> expectedSizes(String... extensions) {
+        Set<String> included = Set.of(extensions);
+        Map<String, ExpectedSize> sizes = new HashMap<>();
+        sizesByModuleAndExtension.forEach((module, sizesByExtension) -> sizesByExtension.forEach((extension, size) -> {
+            if (included.isEmpty() || included.contains(extension)) {
+                sizes.merge(module, size, ExpectedSize::plus);
+            }
+        }));
+        return sizes;
+    }
+
+    /**
+     * @param extensions the analyzed file extensions, all files if none given
+     * @return the expected size of the whole project
+     */
+    ExpectedSize expectedTotal(String... extensions) {
+        return expectedSizes(extensions).values().stream().reduce(new ExpectedSize(0, 0), ExpectedSize::plus);
+    }
+
+    void delete() {
+        try (Stream<Path> paths = Files.walk(rootDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    record ExpectedSize(long numberOfFiles, long linesOfCode) {
+        ExpectedSize plus(ExpectedSize other) {
+            return new ExpectedSize(numberOfFiles + other.numberOfFiles, linesOfCode + other.linesOfCode);
+        }
+    }
+
+    enum LineEnding {
+        LF("\n"), CRLF("\r\n"), CR("\r");
+
+        private final String separator;
+
+        LineEnding(String separator) {
+            this.separator = separator;
+        }
+    }
+
+    enum Encoding {
+        UTF_8(StandardCharsets.UTF_8, "zażółć gęślą jaźń", false),
+        UTF_8_BOM(StandardCharsets.UTF_8, "zażółć gęślą jaźń", true),
+        ISO_8859_1(StandardCharsets.ISO_8859_1, "café crème brûlée", false);
+
+        private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+        private final Charset charset;
+        private final String sampleText;
+        private final boolean bom;
+
+        Encoding(Charset charset, String sampleText, boolean bom) {
+            this.charset = charset;
+            this.sampleText = sampleText;
+            this.bom = bom;
+        }
+    }
+
+    /**
+     * Seeded generator of project trees.
+     * <p>
+     * The package tree has {@code modules} top-level packages, each one with {@code fanOut} subpackages per package
+     * down to {@code packageDepth} levels. Files are spread randomly over all the packages. The number of lines
+     * of a text file follows a log-normal distribution with the given median, capped at {@code maxLines}.
+     * Each file gets a random line ending and encoding from the allowed ones. Optionally, some files are empty,
+     * binary, have no final line terminator or are symbolic links to other files; with symbolic links enabled,
+     * every module also gets a symbolic link to its own directory, which the analysis must not follow.
+     * </p>
+     */
+    static final class SyntheticProjectGenerator {
+        private static final String[] CODE_LINES = {
+                "    private final String name;",
+                "    public int size() {",
+                "        return values.stream().mapToInt(it -> it.length()).sum();",
+                "    }",
+                "",
+                "    // %s",
+                "    private static final String TEXT = \"%s\";",
+        };
+        private static final double LINES_SIGMA = 1.0;
+        private static final int MAX_BINARY_SIZE = 16 * 1024;
+
+        private final SplittableRandom random;
+        private String basePackage = "gen";
+        private int numberOfModules = 10;
+        private int packageDepth = 3;
+        private int fanOut = 3;
+        private int numberOfFiles = 1000;
+        private int medianLines = 60;
+        private int maxLines = 5000;
+        private List<LineEnding> lineEndings = List.of(LineEnding.LF);
+        private List<Encoding> encodings = List.of(Encoding.UTF_8);
+        private double emptyFileRatio;
+        private double binaryFileRatio;
+        private double symlinkRatio;
+        private double missingFinalLineTerminatorRatio;
+
+        private SyntheticProjectGenerator(long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        SyntheticProjectGenerator basePackage(String basePackage) {
+            this.basePackage = basePackage;
+            return this;
+        }
+
+        SyntheticProjectGenerator modules(int numberOfModules) {
+            this.numberOfModules = numberOfModules;
+            return this;
+        }
+
+        SyntheticProjectGenerator packageDepth(int packageDepth) {
+            this.packageDepth = packageDepth;
+            return this;
+        }
+
+        SyntheticProjectGenerator fanOut(int fanOut) {
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        SyntheticProjectGenerator files(int numberOfFiles) {
+            this.numberOfFiles = numberOfFiles;
+            return this;
+        }
+
+        SyntheticProjectGenerator linesPerFile(int medianLines, int maxLines) {
+            this.medianLines = medianLines;
+            this.maxLines = maxLines;
+            return this;
+        }
+
+        SyntheticProjectGenerator lineEndings(LineEnding... lineEndings) {
+            this.lineEndings = List.of(lineEndings);
+            return this;
+        }
+
+        SyntheticProjectGenerator encodings(Encoding... encodings) {
+            this.encodings = List.of(encodings);
+            return this;
+        }
+
+        SyntheticProjectGenerator emptyFiles(double ratio) {
+            this.emptyFileRatio = ratio;
+            return this;
+        }
+
+        SyntheticProjectGenerator binaryFiles(double ratio) {
+            this.binaryFileRatio = ratio;
+            return this;
+        }
+
+        SyntheticProjectGenerator symlinks(double ratio) {
+            this.symlinkRatio = ratio;
+            return this;
+        }
+
+        SyntheticProjectGenerator missingFinalLineTerminator(double ratio) {
+            this.missingFinalLineTerminatorRatio = ratio;
+            return this;
+        }
+
+        SyntheticProject generate() {
+            try {
+                return generate(Files.createTempDirectory("synthetic-project"));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        SyntheticProject generate(Path rootDir) {
+            try {
+                return new Generation(rootDir).run();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private final class Generation {
+            private final Path rootDir;
+            private final List<String> modules = new ArrayList<>();
+            private final List<GeneratedPackage> packages = new ArrayList<>();
+            private final Map<String, Map<String, ExpectedSize>> sizes = new HashMap<>();
+            private final Map<String, GeneratedFile> lastTextFiles = new HashMap<>();
+            private final Set<Path> createdDirectories = new HashSet<>();
+
+            Generation(Path rootDir) {
+                this.rootDir = rootDir;
+            }
+
+            SyntheticProject run() throws IOException {
+                packages.add(new GeneratedPackage(basePackage, UNDEFINED_MODULE));
+                for (int i = 0; i < numberOfModules; i++) {
+                    String module = basePackage + ".module" + i;
+                    modules.add(module);
+                    addPackages(module, module, 1);
+                }
+                for (int i = 0; i < numberOfFiles; i++) {
+                    writeFile(packages.get(random.nextInt(packages.size())), i);
+                }
+                if (symlinkRatio > 0) {
+                    linkModuleDirectories();
+                }
+                return new SyntheticProject(rootDir, List.copyOf(modules), sizes);
+            }
+
+            private void addPackages(String packageName, String module, int depth) {
+                packages.add(new GeneratedPackage(packageName, module));
+                if (depth < packageDepth) {
+                    for (int i = 0; i < fanOut; i++) {
+                        addPackages(packageName + ".package" + i, module, depth + 1);
+                    }
+                }
+            }
+
+            private void writeFile(GeneratedPackage generatedPackage, int fileNumber) throws IOException {
+                Path directory = directory(generatedPackage.name());
+                double kind = random.nextDouble();
+                GeneratedFile target = lastTextFiles.get(generatedPackage.module());
+                if (kind < symlinkRatio && target != null) {
+                    Path link = directory.resolve("Link" + fileNumber + ".java");
+                    Files.createSymbolicLink(link, link.getParent().relativize(target.path()));
+                    count(generatedPackage.module(), "java", target.lines());
+                } else if (kind < symlinkRatio + binaryFileRatio) {
+                    byte[] content = new byte[random.nextInt(MAX_BINARY_SIZE)];
+                    random.nextBytes(content);
+                    Files.write(directory.resolve("Data" + fileNumber + ".bin"), content);
+                    count(generatedPackage.module(), "bin", countLines(content));
+                } else if (kind < symlinkRatio + binaryFileRatio + emptyFileRatio) {
+                    Files.write(directory.resolve("Empty" + fileNumber + ".txt"), new byte[0]);
+                    count(generatedPackage.module(), "txt", 0);
+                } else {
+                    writeSourceFile(generatedPackage, directory.resolve("Class" + fileNumber + ".java"), fileNumber);
+                }
+            }
+
+            private void writeSourceFile(GeneratedPackage generatedPackage, Path file, int fileNumber) throws IOException {
+                int lines = numberOfLines();
+                Encoding encoding = encodings.get(random.nextInt(encodings.size()));
+                String separator = lineEndings.get(random.nextInt(lineEndings.size())).separator;
+                StringBuilder content = new StringBuilder();
+                content.append("package ").append(generatedPackage.name()).append(';').append(separator);
+                for (int i = 1; i < lines - 1; i++) {
+                    content.append(CODE_LINES[random.nextInt(CODE_LINES.length)].formatted(encoding.sampleText, fileNumber)).append(separator);
+                }
+                content.append('}');
+                if (random.nextDouble() >= missingFinalLineTerminatorRatio) {
+                    content.append(separator);
+                }
+                byte[] bytes = content.toString().getBytes(encoding.charset);
+                if (encoding.bom) {
+                    bytes = withBom(bytes);
+                }
+                Files.write(file, bytes);
+                count(generatedPackage.module(), "java", lines);
+                lastTextFiles.put(generatedPackage.module(), new GeneratedFile(file, lines));
+            }
+
+            // at least the package declaration and the closing brace
+            private int numberOfLines() {
+                double lines = Math.exp(Math.log(medianLines) + LINES_SIGMA * random.nextGaussian());
+                return (int) Math.max(2, Math.min(maxLines, Math.round(lines)));
+            }
+
+            private void linkModuleDirectories() throws IOException {
+                for (String module : modules) {
+                    Path directory = directory(module);
+                    Files.createSymbolicLink(directory.resolve("linked"), Path.of("."));
+                }
+            }
+
+            private Path directory(String packageName) throws IOException {
+                Path directory = rootDir.resolve(packageName.replace('.', '/'));
+                if (createdDirectories.add(directory)) {
+                    Files.createDirectories(directory);
+                }
+                return directory;
+            }
+
+            private void count(String module, String extension, int lines) {
+                sizes.computeIfAbsent(module, it -> new HashMap<>()).merge(extension, new ExpectedSize(1, lines), ExpectedSize::plus);
+            }
+        }
+
+        private static byte[] withBom(byte[] bytes) {
+            byte[] withBom = Arrays.copyOf(Encoding.BOM, Encoding.BOM.length + bytes.length);
+            System.arraycopy(bytes, 0, withBom, Encoding.BOM.length, bytes.length);
+            return withBom;
+        }
+
+        // the reference semantics of BufferedReader.readLine: \n, \r and \r\n terminate a line
+        private static int countLines(byte[] content) {
+            int lines = 0;
+            boolean pendingLine = false;
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] == '\n' || content[i] == '\r') {
+                    lines++;
+                    pendingLine = false;
+                    if (content[i] == '\r' && i + 1 < content.length && content[i + 1] == '\n') {
+                        i++;
+                    }
+                } else {
+                    pendingLine = true;
+                }
+            }
+            if (pendingLine) {
+                lines++;
+            }
+            return lines;
+        }
+    }
+
+    private record GeneratedPackage(String name, String module) {
+    }
+
+    private record GeneratedFile(Path path, int lines) {
+    }
+}